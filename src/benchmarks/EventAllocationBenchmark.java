@@ -0,0 +1,150 @@
+package src.benchmarks;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.EventLog;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.users.AdminUser;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+import src.main.users.UserLoader;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how many bytes each kind of transaction allocates on the thread performing it, including the events it
+ * publishes and the messages describing them, while the events are logged to the console, while they are not logged
+ * anywhere, and while changes are not being recorded, as when users are restored from the database.
+ *
+ * Usage: java src.benchmarks.EventAllocationBenchmark [transactions of each kind] [runs]
+ */
+public class EventAllocationBenchmark {
+    private static final String[] OPERATIONS = {
+            "create", "addcredit", "sell", "buy", "gift", "removegame", "refund", "auctionsale"
+    };
+    private static final String[] MODES = {"logged", "not logged", "not recording"};
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Runs the benchmark and prints the average bytes allocated and time taken per transaction of each kind.
+     */
+    public static void main(String[] args) throws ConstraintException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        PrintStream out = System.out;
+        // The console is still written to while logging, just not shown
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        long[][] bytes = new long[MODES.length][OPERATIONS.length];
+        long[][] nanos = new long[MODES.length][OPERATIONS.length];
+        for (int run = 0; run <= runs; run++) {
+            for (int mode = 0; mode < MODES.length; mode++) {
+                EventLog.getShared().setConsole(mode == 0);
+                long[][] measured = execute(count, mode != 2);
+                // The first run only warms up the JVM.
+                if (run > 0) {
+                    for (int operation = 0; operation < OPERATIONS.length; operation++) {
+                        bytes[mode][operation] += measured[0][operation];
+                        nanos[mode][operation] += measured[1][operation];
+                    }
+                }
+            }
+        }
+        EventLog.getShared().flush();
+        UserObserver.clearDirty();
+        System.setOut(out);
+
+        System.out.println(count + " transactions of each kind, average of " + runs + " runs, bytes allocated per transaction");
+        System.out.printf("%-12s", "");
+        for (String mode: MODES) {
+            System.out.printf(" %22s", mode);
+        }
+        System.out.println();
+        for (int operation = 0; operation < OPERATIONS.length; operation++) {
+            System.out.printf("%-12s", OPERATIONS[operation]);
+            for (int mode = 0; mode < MODES.length; mode++) {
+                long operations = (long) count * runs;
+                System.out.printf(" %8d B %9.0f ns", bytes[mode][operation] / operations,
+                        (double) nanos[mode][operation] / operations);
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Performs every kind of transaction count times on newly populated users.
+     * @return the bytes allocated and nanoseconds taken by each kind of transaction
+     */
+    private static long[][] execute(int count, boolean recording) throws ConstraintException {
+        UserObserver.setRecording(false);
+        User.getAllUsers().clear();
+        AdminUser admin = new AdminUser("admin", 0);
+        for (int i = 0; i < count; i++) {
+            new FullStandardUser("seller" + i, 1000);
+        }
+        UserLoader.startNewDay();
+        UserObserver.clearDirty();
+        UserObserver.setRecording(recording);
+
+        long[][] measured = new long[2][OPERATIONS.length];
+        for (int operation = 0; operation < OPERATIONS.length; operation++) {
+            if (OPERATIONS[operation].equals("buy") || OPERATIONS[operation].equals("gift")) {
+                // Games can only be bought, gifted and removed a day after they were bought or listed
+                UserLoader.startNewDay();
+            }
+            // Usernames and game names are built before measuring, so only the transaction itself is measured
+            String[] sellers = names("seller", count), buyers = names("buyer", count), games = names("game", count);
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                perform(OPERATIONS[operation], admin, sellers, buyers, games, i);
+            }
+            measured[1][operation] = System.nanoTime() - start;
+            measured[0][operation] = THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+        }
+        UserObserver.setRecording(true);
+        return measured;
+    }
+
+    private static void perform(String operation, AdminUser admin, String[] sellers, String[] buyers, String[] games,
+                                int i) throws ConstraintException {
+        FullStandardUser seller = (FullStandardUser) User.getAllUsers().get(sellers[i]);
+        switch (operation) {
+            case "create":
+                admin.create(buyers[i], User.FULL_STANDARD_TYPE, 10);
+                break;
+            case "addcredit":
+                seller.addCredit(0.01);
+                break;
+            case "sell":
+                seller.sell(games[i], 1, 10);
+                break;
+            case "buy":
+                ((FullStandardUser) User.getAllUsers().get(buyers[i])).buy(sellers[i], games[i]);
+                break;
+            case "gift":
+                User.getAllUsers().get(buyers[i]).gift(sellers[(i + 1) % sellers.length], games[i]);
+                break;
+            case "removegame":
+                seller.removeGame(games[i]);
+                break;
+            case "refund":
+                admin.refund(buyers[i], sellers[i], 0.01);
+                break;
+            default:
+                admin.auctionSale();
+        }
+    }
+
+    private static String[] names(String prefix, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = prefix + i;
+        }
+        return names;
+    }
+}
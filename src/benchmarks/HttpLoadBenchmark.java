@@ -0,0 +1,145 @@
+package src.benchmarks;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.UserObserver;
+import src.main.system.TransactionHttpServer;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+import src.main.users.UserLoader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the requests per second and latency of a TransactionHttpServer running on the same machine. Each client
+ * thread sends requests one after another: a mix of balance lookups, library lookups and sessions that log in, add
+ * credit and log out.
+ *
+ * Usage: java src.benchmarks.HttpLoadBenchmark [users] [clients] [seconds] [server threads]
+ */
+public class HttpLoadBenchmark {
+
+    /**
+     * Runs the benchmark and prints the throughput and latency percentiles.
+     */
+    public static void main(String[] args) throws IOException, ConstraintException, InterruptedException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int serverThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        populate(users);
+        TransactionHttpServer server = new TransactionHttpServer(0, serverThreads);
+        String base = "http://" + java.net.InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long warmupEnd = System.nanoTime() + 2_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long seed = i;
+            results.add(pool.submit(() -> runClient(client, base, users, new Random(seed), warmupEnd, end)));
+        }
+
+        List<long[]> latencies = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> result: results) {
+            try {
+                long[] clientLatencies = result.get();
+                latencies.add(clientLatencies);
+                total += clientLatencies.length;
+            } catch (java.util.concurrent.ExecutionException e) {
+                e.getCause().printStackTrace();
+            }
+        }
+        pool.shutdown();
+        server.close();
+
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] clientLatencies: latencies) {
+            System.arraycopy(clientLatencies, 0, all, offset, clientLatencies.length);
+            offset += clientLatencies.length;
+        }
+        Arrays.sort(all);
+        System.out.println(users + " users, " + clients + " clients, " + serverThreads + " server threads, "
+                + seconds + " seconds");
+        System.out.printf("%.0f requests/s   p50 %.3f ms   p99 %.3f ms   p99.9 %.3f ms   max %.3f ms%n",
+                total / (double) seconds, percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    /**
+     * Sends requests until the benchmark ends.
+     * @return the latency of every request sent after the warm up, in nanoseconds
+     */
+    private static long[] runClient(HttpClient client, String base, int users, Random random, long warmupEnd,
+                                    long end) throws IOException, InterruptedException {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            String username = "user" + random.nextInt(users);
+            HttpRequest request;
+            switch (random.nextInt(4)) {
+                case 0:
+                    request = HttpRequest.newBuilder(URI.create(base + "/users/" + username + "/games")).build();
+                    break;
+                case 1:
+                    request = HttpRequest.newBuilder(URI.create(base + "/transactions"))
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    String.format("00 %-15s FS 001000.00%n", username)
+                                    + String.format("06 %-15s    000000.01%n", username)
+                                    + String.format("10 %-15s    000000.00%n", username)))
+                            .build();
+                    break;
+                default:
+                    request = HttpRequest.newBuilder(URI.create(base + "/users/" + username)).build();
+            }
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (now >= warmupEnd) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - now;
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * @return the latency in milliseconds that the given fraction of sorted latencies are at or below
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+    }
+
+    /**
+     * Fills User.allUsers with users owning games without saving them.
+     */
+    private static void populate(int users) throws ConstraintException {
+        UserObserver.setRecording(false);
+        User.getAllUsers().clear();
+        for (int i = 0; i < users; i++) {
+            FullStandardUser user = new FullStandardUser("user" + i, 1000);
+            for (int j = 0; j < 5; j++) {
+                user.sell("game" + i + "-" + j, j + 0.99, j * 10);
+            }
+        }
+        UserLoader.startNewDay();
+    }
+}
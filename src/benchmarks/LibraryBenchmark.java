@@ -0,0 +1,108 @@
+package src.benchmarks;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.EventLog;
+import src.main.observer.UserObserver;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+import src.main.users.UserLoader;
+
+
+/**
+ * Measures buys and gifts against a seller with a large library, and compares looking a game up in a copy of a
+ * library, as User.ownsGame and User.getGame used to, against looking it up in the library itself.
+ *
+ * Usage: java src.benchmarks.LibraryBenchmark [games in the seller's library] [buyers] [buys per buyer] [runs]
+ * where each buyer buys at most every game in the seller's library.
+ */
+public class LibraryBenchmark {
+
+    /**
+     * Runs the benchmark and prints the average throughput of buys, gifts and each kind of lookup.
+     */
+    public static void main(String[] args) throws ConstraintException {
+        int libraryGames = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int buyers = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int buysPerBuyer = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        long buyTotal = 0, giftTotal = 0, copyTotal = 0, viewTotal = 0;
+        int checksum = 0;
+        for (int run = 0; run <= runs; run++) {
+            // Users log every transaction, which would take longer than the transactions themselves
+            EventLog.getShared().setConsole(false);
+            populate(libraryGames, buyers);
+            FullStandardUser seller = (FullStandardUser) User.getAllUsers().get("seller");
+
+            long start = System.nanoTime();
+            for (int game = 0; game < buysPerBuyer; game++) {
+                for (int buyer = 0; buyer < buyers; buyer++) {
+                    String gameName = "game" + (game + buyer) % libraryGames;
+                    ((FullStandardUser) User.getAllUsers().get("buyer" + buyer)).buy("seller", gameName);
+                }
+            }
+            long bought = System.nanoTime();
+
+            UserLoader.startNewDay();
+            long giftStart = System.nanoTime();
+            for (int game = 0; game < buysPerBuyer; game++) {
+                for (int buyer = 0; buyer < buyers; buyer++) {
+                    String gameName = "game" + (game + buyer) % libraryGames;
+                    User.getAllUsers().get("buyer" + buyer).gift("receiver" + buyer, gameName);
+                }
+            }
+            long gifted = System.nanoTime();
+
+            int lookups = buyers * buysPerBuyer;
+            for (int i = 0; i < lookups; i++) {
+                checksum += seller.getGameLibrary().containsKey("game" + i % libraryGames) ? 1 : 0;
+            }
+            long copied = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                checksum += seller.ownsGame("game" + i % libraryGames) ? 1 : 0;
+            }
+            long viewed = System.nanoTime();
+            EventLog.getShared().setConsole(true);
+
+            // The first run only warms up the JVM.
+            if (run > 0) {
+                buyTotal += bought - start;
+                giftTotal += gifted - giftStart;
+                copyTotal += copied - gifted;
+                viewTotal += viewed - copied;
+            }
+        }
+
+        int operations = buyers * buysPerBuyer;
+        System.out.println(libraryGames + " games in the seller's library, " + operations
+                + " of each operation, average of " + runs + " runs (checksum " + checksum + ")");
+        report("Buy", operations, buyTotal / runs);
+        report("Gift", operations, giftTotal / runs);
+        report("Lookup in a copy", operations, copyTotal / runs);
+        report("Lookup in library", operations, viewTotal / runs);
+    }
+
+    /**
+     * Fills User.allUsers with a seller, buyers and users to gift to, without saving them.
+     */
+    private static void populate(int libraryGames, int buyers) throws ConstraintException {
+        UserObserver.setRecording(false);
+        User.getAllUsers().clear();
+        FullStandardUser seller = new FullStandardUser("seller", 0);
+        for (int i = 0; i < libraryGames; i++) {
+            seller.sell("game" + i, i % 100 + 0.99, 0);
+        }
+        for (int i = 0; i < buyers; i++) {
+            new FullStandardUser("buyer" + i, 999999);
+            new FullStandardUser("receiver" + i, 0);
+        }
+        UserLoader.startNewDay();
+    }
+
+    /**
+     * Prints a line of results for one operation.
+     */
+    private static void report(String operation, int count, long nanos) {
+        System.out.printf("%-20s %10.2f ms   %12.0f per second%n", operation, nanos / 1e6, count / (nanos / 1e9));
+    }
+}
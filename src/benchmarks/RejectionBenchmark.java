@@ -0,0 +1,101 @@
+package src.benchmarks;
+
+import src.main.command.Invoker;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.FatalException;
+import src.main.observer.EventLog;
+import src.main.observer.UserObserver;
+import src.main.system.DistributionSystem;
+import src.main.system.ErrorRecorder;
+import src.main.system.TransactionFactory;
+import src.main.users.AdminUser;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+import src.main.users.UserLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures a day of transactions where most of them are stopped by a constraint, performed and recorded as
+ * system.Client does. Each user logs in, tries to buy a game that is not for sale and a game from a user that does not
+ * exist, adds credit twice where the second would exceed the daily limit, tries to create a user without being an
+ * admin, and logs out, so four of every seven transactions are rejected.
+ *
+ * Constraint exceptions only capture stack traces when the constraints.stackTraces system property is true, so run
+ * it once with and once without the property to compare the two.
+ *
+ * Usage: java [-Dconstraints.stackTraces=true] src.benchmarks.RejectionBenchmark [users] [runs]
+ */
+public class RejectionBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Runs the benchmark and prints the average time taken and bytes allocated per transaction.
+     */
+    public static void main(String[] args) throws ConstraintException, FatalException, IOException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        UserObserver.setRecording(false);
+        User.getAllUsers().clear();
+        new AdminUser("admin", 0);
+        List<String> codes = new ArrayList<>(userCount * 7);
+        for (int i = 0; i < userCount; i++) {
+            String username = "user" + i;
+            new FullStandardUser(username, 100);
+            codes.add(String.format("00 %-15s FS %09.2f", username, 100.0));
+            codes.add(String.format("04 %-25s %-15s %-15s", "Missing game", "admin", username));
+            codes.add(String.format("04 %-25s %-15s %-15s", "Missing game", "nobody", username));
+            codes.add(String.format("06 %-15s    %09.2f", username, 600.0));
+            codes.add(String.format("06 %-15s    %09.2f", username, 600.0));
+            codes.add(String.format("01 %-15s FS %09.2f", "new" + username, 10.0));
+            codes.add(String.format("10 %-15s    000000.00", username));
+        }
+        EventLog.getShared().setConsole(false);
+
+        DistributionSystem system = new DistributionSystem();
+        TransactionFactory factory = new TransactionFactory();
+        Invoker button = new Invoker();
+        File errorFile = File.createTempFile("errorLogs", ".txt");
+        long nanos = 0, bytes = 0;
+        int errors = 0;
+        for (int run = 0; run <= runs; run++) {
+            UserLoader.startNewDay();
+            ErrorRecorder recorder = new ErrorRecorder(errorFile, ErrorRecorder.DEFAULT_MAX_BYTES);
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (String code: codes) {
+                button.setCommand(factory.getTransactionCommand(system, code));
+                try {
+                    button.run();
+                } catch (ConstraintException e) {
+                    recorder.recordError(code, e, "Constraint error: Transaction Code: " + code +
+                            "\nMessage - " + e.getMessage() + "\n\n");
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+            recorder.closeWriter();
+
+            // The first run only warms up the JVM.
+            if (run > 0) {
+                nanos += elapsed;
+                bytes += allocated;
+                errors = recorder.getErrorCount();
+            }
+        }
+        errorFile.delete();
+        EventLog.getShared().setConsole(true);
+
+        long transactions = (long) codes.size() * runs;
+        System.out.println(codes.size() + " transaction codes with " + errors + " rejected, average of " + runs
+                + " runs, stack traces " + (Boolean.getBoolean(ConstraintException.STACK_TRACES_PROPERTY) ? "on" : "off"));
+        System.out.printf("%.0f ns and %d B per transaction (%.1f ms per day)%n",
+                (double) nanos / transactions, bytes / transactions, nanos / 1e6 / runs);
+    }
+}
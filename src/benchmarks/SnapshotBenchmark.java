@@ -0,0 +1,88 @@
+package src.benchmarks;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.UserObserver;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+import src.main.users.UserSnapshotReader;
+import src.main.users.UserSnapshotWriter;
+
+import java.io.*;
+import java.util.HashMap;
+
+/**
+ * Compares saving and loading the user database with Java serialization against the binary snapshot format.
+ *
+ * Usage: java src.benchmarks.SnapshotBenchmark [users] [games per user] [runs]
+ */
+public class SnapshotBenchmark {
+
+    /**
+     * Runs the benchmark and prints the file size and average write/read time of each format.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException, ConstraintException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int gamesPerUser = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        populate(users, gamesPerUser);
+        File serializedFile = File.createTempFile("serialized", null);
+        File snapshotFile = File.createTempFile("snapshot", null);
+        serializedFile.deleteOnExit();
+        snapshotFile.deleteOnExit();
+
+        long serializedWrite = 0, serializedRead = 0, snapshotWrite = 0, snapshotRead = 0;
+        for (int run = 0; run <= runs; run++) {
+            long start = System.nanoTime();
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(serializedFile)))) {
+                out.writeObject(new HashMap<>(User.getAllUsers()));
+            }
+            long written = System.nanoTime();
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(serializedFile)))) {
+                in.readObject();
+            }
+            long read = System.nanoTime();
+            UserSnapshotWriter.write(snapshotFile, User.getAllUsers().values(), false);
+            long snapshotWritten = System.nanoTime();
+            User.getAllUsers().clear();
+            UserSnapshotReader.read(snapshotFile);
+            long snapshotLoaded = System.nanoTime();
+
+            // The first run only warms up the JVM.
+            if (run > 0) {
+                serializedWrite += written - start;
+                serializedRead += read - written;
+                snapshotWrite += snapshotWritten - read;
+                snapshotRead += snapshotLoaded - snapshotWritten;
+            }
+        }
+
+        System.out.println(users + " users with " + gamesPerUser + " games each, average of " + runs + " runs");
+        report("Java serialization", serializedFile, serializedWrite / runs, serializedRead / runs);
+        report("Binary snapshot", snapshotFile, snapshotWrite / runs, snapshotRead / runs);
+    }
+
+    /**
+     * Fills User.allUsers with users selling games without saving them.
+     */
+    private static void populate(int users, int gamesPerUser) throws ConstraintException {
+        UserObserver.setRecording(false);
+        User.getAllUsers().clear();
+        for (int i = 0; i < users; i++) {
+            FullStandardUser user = new FullStandardUser("user" + i, 1000 + i / 100.0);
+            for (int j = 0; j < gamesPerUser; j++) {
+                user.sell("game" + i + "-" + j, j + 0.99, j % 90);
+            }
+        }
+    }
+
+    /**
+     * Prints a line of results for one format.
+     */
+    private static void report(String format, File file, long writeNanos, long readNanos) {
+        System.out.printf("%-20s %10d bytes   write %8.2f ms   read %8.2f ms%n",
+                format, file.length(), writeNanos / 1e6, readNanos / 1e6);
+    }
+}
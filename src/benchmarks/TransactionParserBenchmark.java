@@ -0,0 +1,108 @@
+package src.benchmarks;
+
+import src.main.exceptions.FatalException;
+import src.main.system.DistributionSystem;
+import src.main.system.TransactionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares parsing transaction codes with the regular expressions TransactionFactory used to compile for every code
+ * against the column offset parser it uses now.
+ *
+ * Usage: java src.benchmarks.TransactionParserBenchmark [codes] [runs]
+ */
+public class TransactionParserBenchmark {
+    private static final String[] REGEX_PATTERNS = {
+        "(?<code>\\d{2}) (?<username>.{15}) (?<type>(FS|AA|BS|SS)) (?<credit>\\d{6}\\.\\d{2})",
+        "(?<code>\\d{2}) (?<gameName>.{25}) (?<sellerUsername>.{15}) (?<discount>\\d{2}\\.\\d{2}) (?<price>\\d{3}\\.\\d{2})",
+        "(?<code>\\d{2}) (?<gameName>.{25}) (?<sellerUsername>.{15}) (?<buyerUsername>.{15})",
+        "(?<code>\\d{2}) (?<username>.{15}) (?<type>\\s{2}) (?<unused>(0{6}\\.0{2}|0{9}))",
+    };
+    private static final String[][] REGEX_GROUPS = {
+        {"username", "type", "credit"},
+        {"gameName", "sellerUsername", "discount", "price"},
+        {"gameName", "sellerUsername", "buyerUsername"},
+        {"username"},
+    };
+
+    /**
+     * Runs the benchmark and prints the average time to parse every code with each parser.
+     */
+    public static void main(String[] args) throws FatalException {
+        int codeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<String> codes = new ArrayList<>(codeCount);
+        for (int i = 0; i < codeCount; i++) {
+            String user = String.format("%-15s", "user" + i % 1000);
+            String game = String.format("%-25s", "game" + i % 5000);
+            switch (i % 4) {
+                case 0:
+                    codes.add("00 " + user + " FS 001000.00");
+                    break;
+                case 1:
+                    codes.add("03 " + game + " " + user + " 15.00 059.99");
+                    break;
+                case 2:
+                    codes.add("04 " + game + " " + user + " " + user);
+                    break;
+                default:
+                    codes.add("10 " + user + "    000000.00");
+            }
+        }
+
+        DistributionSystem system = new DistributionSystem();
+        TransactionFactory factory = new TransactionFactory();
+        long regexTotal = 0, columnTotal = 0;
+        int checksum = 0;
+        for (int run = 0; run <= runs; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < codes.size(); i++) {
+                checksum += parseWithRegex(codes.get(i), i % 4);
+            }
+            long regexDone = System.nanoTime();
+            for (String code: codes) {
+                checksum += factory.getTransactionCommand(system, code).hashCode() & 1;
+            }
+            long columnDone = System.nanoTime();
+
+            // The first run only warms up the JVM.
+            if (run > 0) {
+                regexTotal += regexDone - start;
+                columnTotal += columnDone - regexDone;
+            }
+        }
+
+        System.out.println(codeCount + " transaction codes, average of " + runs + " runs (checksum " + checksum + ")");
+        report("Regex per code", regexTotal / runs, codeCount);
+        report("Column offsets", columnTotal / runs, codeCount);
+    }
+
+    /**
+     * Parses a code the way TransactionFactory used to: compiling its pattern, then extracting and stripping each
+     * named group.
+     * @return the total length of the fields, so the work cannot be optimized away
+     */
+    private static int parseWithRegex(String code, int layout) throws FatalException {
+        Matcher matcher = Pattern.compile(REGEX_PATTERNS[layout]).matcher(code);
+        if (!matcher.find()) {
+            throw new FatalException("'" + code + "' does not follow a correct transaction code format.");
+        }
+        int length = 0;
+        for (String group: REGEX_GROUPS[layout]) {
+            length += matcher.group(group).stripTrailing().length();
+        }
+        return length;
+    }
+
+    /**
+     * Prints a line of results for one parser.
+     */
+    private static void report(String parser, long nanos, int codeCount) {
+        System.out.printf("%-16s %10.2f ms   %8.1f ns/code%n", parser, nanos / 1e6, (double) nanos / codeCount);
+    }
+}
@@ -3,6 +3,11 @@ package src.main;
 import src.main.exceptions.InvalidGameException;
 import src.main.users.AdminUser;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
@@ -16,13 +21,29 @@ import java.io.Serializable;
  *  - seller is a username that belongs to an existing non-BuyStandardUser
  */
 public class Game implements Serializable {
+    // Storage files saved with Java serialization by earlier versions of the backend are still read
+    private static final long serialVersionUID = 2427585523755631875L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("seller", String.class),
+            new ObjectStreamField("originalPrice", double.class),
+            new ObjectStreamField("discountedPrice", double.class),
+            new ObjectStreamField("discount", double.class),
+            new ObjectStreamField("offProbation", boolean.class)
+    };
 
     private final String name;
     private final String seller;
-    private final double originalPrice;
-    private final double discountedPrice;
+    private final long originalPrice;
+    private final long discountedPrice;
     private final double discount;
-    private boolean offProbation = false;
+    // The day this game was listed or acquired, which is not kept when it is saved since saved games are off probation
+    private transient long day = currentDay;
+    // The game a serialized game is read as, since the fields of a game cannot change once it is made
+    private transient Game read;
+
+    private static volatile long currentDay = 0;
+    private final static long OFF_PROBATION_DAY = -1;
 
     private final static double MAXIMUM_PRICE = 999.99;
     public final static int MAXIMUM_NAME_LENGTH = 25;
@@ -43,9 +64,10 @@ public class Game implements Serializable {
     public Game(String name, String seller, double originalPrice, double discount) throws InvalidGameException {
         if (originalPrice <= MAXIMUM_PRICE && name.length() <= MAXIMUM_NAME_LENGTH && discount <= MAXIMUM_SALE_DISCOUNT) {
             this.name = name;
-            this.originalPrice = originalPrice;
+            this.originalPrice = Money.toCents(originalPrice);
             this.discount = discount;
-            this.discountedPrice = this.originalPrice * (1 - this.discount / 100);
+            // The discount is in hundredths of a percent, and the discounted price drops any fraction of a cent
+            this.discountedPrice = this.originalPrice * (10000 - Money.toCents(discount)) / 10000;
             this.seller = seller;
         }  else {
             String errorMsg = "";
@@ -77,10 +99,45 @@ public class Game implements Serializable {
         return this.seller;
     }
 
+    /**
+     * @return the price of this game when no auction sale is occurring.
+     */
+    public double getOriginalPrice() {
+        return Money.toCredits(this.originalPrice);
+    }
+
+    /**
+     * @return the price of this game in cents when no auction sale is occurring.
+     */
+    public long getOriginalPriceCents() {
+        return this.originalPrice;
+    }
+
+    /**
+     * @return the discount (as a percentage) that is applied to this game during an auction sale.
+     */
+    public double getDiscount() {
+        return this.discount;
+    }
+
     /**
      * @return the price of this game; can be discounted if an auction sale is occurring.
      */
     public double getPrice() {
+        return Money.toCredits(this.getPriceCents());
+    }
+
+    /**
+     * @return the price of this game in cents during an auction sale.
+     */
+    public long getDiscountedPriceCents() {
+        return this.discountedPrice;
+    }
+
+    /**
+     * @return the price of this game in cents; can be discounted if an auction sale is occurring.
+     */
+    public long getPriceCents() {
         if (AdminUser.isAuction()) {
             return this.discountedPrice;
         } else {
@@ -96,9 +153,10 @@ public class Game implements Serializable {
      * - gifting this game
      * - removing this game
      *
+     * Games are also taken off probation once a new day has started after the day they were listed or acquired.
      */
     public void putOffProbation() {
-        this.offProbation = true;
+        this.day = OFF_PROBATION_DAY;
     }
 
     /**
@@ -106,18 +164,68 @@ public class Game implements Serializable {
      * @return true if the game is sellable and false if the game is unsellable.
      */
     public boolean isOffProbation() {
-        return this.offProbation;
+        return this.day < currentDay;
+    }
+
+    /**
+     * @return the number of days of transactions that have been started since the backend was executed.
+     */
+    public static long getCurrentDay() {
+        return currentDay;
+    }
+
+    /**
+     * Starts a new day of transactions, taking every game listed or acquired before it off probation.
+     */
+    public static synchronized void startNewDay() {
+        currentDay++;
     }
 
     public Game getCopy() {
         try {
-            return new Game(this.name, this.seller, this.originalPrice, this.discount);
+            return new Game(this.name, this.seller, this.getOriginalPrice(), this.discount);
         } catch (InvalidGameException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Writes this game as earlier versions of the backend did, with its prices in credits.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", this.name);
+        fields.put("seller", this.seller);
+        fields.put("originalPrice", this.getOriginalPrice());
+        fields.put("discountedPrice", Money.toCredits(this.discountedPrice));
+        fields.put("discount", this.discount);
+        fields.put("offProbation", this.isOffProbation());
+        out.writeFields();
+    }
+
+    /**
+     * Reads a game written by writeObject or by an earlier version of the backend. Its discounted price is worked out
+     * again from its price and discount, and it is on probation until a new day starts like any other game.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        String name = (String) fields.get("name", null);
+        String seller = (String) fields.get("seller", null);
+        if (name == null || seller == null) {
+            throw new InvalidObjectException("A game has no name or seller");
+        }
+        try {
+            this.read = new Game(name, seller, fields.get("originalPrice", 0.0), fields.get("discount", 0.0));
+        } catch (InvalidGameException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
+
+    private Object readResolve() {
+        return this.read;
+    }
+
     public String toString() {
         return "Title: " + this.getName() + "\nPrice: " + this.getPrice() + "\nSeller: " + this.getSeller();
     }
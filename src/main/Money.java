@@ -0,0 +1,57 @@
+package src.main;
+
+/**
+ * Converts amounts of credits to and from whole cents, the form balances and prices are kept in so that adding and
+ * subtracting them is exact.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * @param credits an amount of credits with at most two decimal places, such as a column of a transaction code
+     * @return the amount in cents
+     */
+    public static long toCents(double credits) {
+        return Math.round(credits * 100);
+    }
+
+    /**
+     * Drops any fraction of a cent from an amount of credits, the same as formatting it with a DecimalFormat rounding
+     * down to two decimal places. An amount that is a whole number of cents but cannot be represented exactly as a
+     * double, such as 0.29, is not rounded down to the cent below.
+     * @param credits an amount of credits
+     * @return the amount in whole cents, rounded towards negative infinity
+     */
+    public static long floorCents(double credits) {
+        return (long) Math.floor(credits * 100 + 1e-6);
+    }
+
+    /**
+     * @param cents an amount in cents
+     * @return the amount in credits
+     */
+    public static double toCredits(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Formats an amount with two decimal places, the same as String.format("%.2f", toCredits(cents)).
+     * @param cents an amount in cents
+     * @return the amount in credits with two decimal places
+     */
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder(12);
+        if (cents < 0) {
+            builder.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % 100;
+        builder.append(cents / 100).append('.');
+        if (remainder < 10) {
+            builder.append('0');
+        }
+        return builder.append(remainder).toString();
+    }
+}
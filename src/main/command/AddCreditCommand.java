@@ -5,6 +5,7 @@ import src.main.exceptions.FatalException;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing an AddCredit command.
@@ -21,9 +22,19 @@ public class AddCreditCommand implements Command{
      * @param credit   the credit to add
      */
     public AddCreditCommand(DistributionSystem system, String username, String credit) {
+        this(system, username, Double.parseDouble(credit));
+    }
+
+    /**
+     * Initializes an AddCredit command
+     * @param system   the DistributionSystem which grants access to the store front
+     * @param username the username of the user to add this credit
+     * @param credit   the credit to add
+     */
+    public AddCreditCommand(DistributionSystem system, String username, double credit) {
         receiver = system;
         this.username = username.stripTrailing();
-        this.credit = Double.parseDouble(credit);
+        this.credit = credit;
     }
 
     /**
@@ -39,4 +50,12 @@ public class AddCreditCommand implements Command{
             user.addCredit(this.credit);
         }
     }
+
+    /**
+     * @return the username of the user credit is added to, when added by an admin
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.username);
+    }
 }
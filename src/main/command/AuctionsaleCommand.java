@@ -2,6 +2,7 @@ package src.main.command;
 
 import src.main.exceptions.ConstraintException;
 import src.main.exceptions.UserAccessException;
+import src.main.observer.EventLog;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
@@ -33,7 +34,7 @@ public class AuctionsaleCommand implements Command{
 
         if (user instanceof AdminUser) {
             if (!username.equals(user.getUsername())) {
-                System.out.println("Warning: The username given for this auction sale is not the same as the one currently logged in" +
+                EventLog.getShared().warning("AuctionsaleCommand", "Warning: The username given for this auction sale is not the same as the one currently logged in" +
                         "Will continue to toggle the auction sale.");
             }
             ((AdminUser) user).auctionSale();
@@ -8,6 +8,7 @@ import src.main.users.BuyStandardUser;
 import src.main.users.FullStandardUser;
 import src.main.users.SellStandardUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing a buy command.
@@ -50,4 +51,12 @@ public class BuyCommand implements Command {
             throw new UserAccessException("A SellStandardUser cannot do buy");
         }
     }
+
+    /**
+     * @return the usernames of the seller and the buyer
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.sellerUsername, this.buyerUsername);
+    }
 }
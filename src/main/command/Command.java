@@ -1,10 +1,19 @@
 package src.main.command;
 
 import src.main.exceptions.ConstraintException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A interface representing a command
  */
 public interface Command {
     public void execute() throws ConstraintException;
+
+    /**
+     * @return the usernames of the users this command reads or changes, besides the user who is logged in
+     */
+    public default List<String> getUsernames() {
+        return Collections.emptyList();
+    }
 }
@@ -6,6 +6,7 @@ import src.main.exceptions.UserAccessException;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing a Create command.
@@ -24,10 +25,21 @@ public class CreateCommand implements Command{
      * @param credit   the initial balance of this user
      */
     public CreateCommand(DistributionSystem system, String username, String type, String credit) {
+        this(system, username, type, Double.parseDouble(credit));
+    }
+
+    /**
+     * Initializes a Create command
+     * @param system   the DistributionSystem which grants access to the store front
+     * @param username the username of the user to be created
+     * @param type     the user type of the user
+     * @param credit   the initial balance of this user
+     */
+    public CreateCommand(DistributionSystem system, String username, String type, double credit) {
         receiver = system;
         this.username = username.stripTrailing();
         this.type = type;
-        this.credit = Double.parseDouble(credit);
+        this.credit = credit;
     }
 
     /**
@@ -42,4 +54,12 @@ public class CreateCommand implements Command{
             throw new UserAccessException("Only AdminUser can create User");
         }
     }
+
+    /**
+     * @return the username of the user to be created
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.username);
+    }
 }
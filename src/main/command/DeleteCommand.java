@@ -4,6 +4,7 @@ import src.main.exceptions.ConstraintException;
 import src.main.exceptions.UserAccessException;
 import src.main.system.DistributionSystem;
 import src.main.users.*;
+import java.util.List;
 
 /**
  * A class representing a Delete command.
@@ -35,4 +36,11 @@ public class DeleteCommand implements Command{
         }
     }
 
+    /**
+     * @return the username of the user to be deleted
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.username);
+    }
 }
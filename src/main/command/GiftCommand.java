@@ -4,6 +4,7 @@ import src.main.exceptions.ConstraintException;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing a Gift command.
@@ -41,4 +42,12 @@ public class GiftCommand implements Command {
             user.gift(this.receiverName, this.gameName);
         }
     }
+
+    /**
+     * @return the usernames of the owner and the receiver of the game
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.ownerName, this.receiverName);
+    }
 }
@@ -1,6 +1,7 @@
 package src.main.command;
 
 import src.main.exceptions.ConstraintException;
+import src.main.observer.UserObserver;
 
 /**
  * An Invoker capable of executing a transaction from daily.txt
@@ -26,6 +27,10 @@ public class Invoker {
      * @throws ConstraintException if the command is invalid
      */
     public void run() throws ConstraintException {
-        activeCommand.execute();
+        try {
+            activeCommand.execute();
+        } finally {
+            UserObserver.transactionCompleted();
+        }
     }
 }
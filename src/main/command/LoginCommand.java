@@ -3,6 +3,7 @@ package src.main.command;
 import src.main.exceptions.BalanceException;
 import src.main.exceptions.UsernameException;
 import src.main.system.DistributionSystem;
+import java.util.List;
 
 /**
  * A class representing a Login command.
@@ -21,10 +22,21 @@ public class LoginCommand implements Command{
      * @param credit        the balance of the user
      */
     public LoginCommand(DistributionSystem system, String username, String type, String credit) {
+        this(system, username, type, Double.parseDouble(credit));
+    }
+
+    /**
+     * Initializes a Login command
+     * @param system        the DistributionSystem which grants access to the store front
+     * @param username      the username of the user to be logged in
+     * @param type          the usertype of the user
+     * @param credit        the balance of the user
+     */
+    public LoginCommand(DistributionSystem system, String username, String type, double credit) {
         receiver = system;
         this.username = username.stripTrailing();
         this.type = type;
-        this.credit = Double.parseDouble(credit);
+        this.credit = credit;
     }
 
     /**
@@ -34,4 +46,12 @@ public class LoginCommand implements Command{
     public void execute() throws UsernameException {
         receiver.login(this.username, this.type, this.credit);
     }
+
+    /**
+     * @return the username of the user to be logged in
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.username);
+    }
 }
@@ -5,6 +5,7 @@ import src.main.exceptions.UserAccessException;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing a Refund command.
@@ -23,10 +24,21 @@ public class RefundCommand implements Command {
      * @param credit            the amount to refund
      */
     public RefundCommand(DistributionSystem system, String buyerUsername, String sellerUsername, String credit) {
+        this(system, buyerUsername, sellerUsername, Double.parseDouble(credit));
+    }
+
+    /**
+     * Initializes a Refund command
+     * @param system            the DistributionSystem which grants access to the store front
+     * @param buyerUsername     the username of the buyer who will be refunded
+     * @param sellerUsername    the username of the seller who will provide the refund credit
+     * @param credit            the amount to refund
+     */
+    public RefundCommand(DistributionSystem system, String buyerUsername, String sellerUsername, double credit) {
         receiver = system;
         this.buyerUsername = buyerUsername.stripTrailing();
         this.sellerUsername = sellerUsername.stripTrailing();
-        this.credit = Double.parseDouble(credit);
+        this.credit = credit;
     }
 
     /**
@@ -41,4 +53,12 @@ public class RefundCommand implements Command {
             throw new UserAccessException("Only AdminUser can make a refund");
         }
     }
+
+    /**
+     * @return the usernames of the buyer and the seller
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.buyerUsername, this.sellerUsername);
+    }
 }
@@ -4,6 +4,7 @@ import src.main.exceptions.ConstraintException;
 import src.main.system.DistributionSystem;
 import src.main.users.AdminUser;
 import src.main.users.User;
+import java.util.List;
 
 /**
  * A class representing a RemoveGame command.
@@ -39,4 +40,12 @@ public class RemoveGameCommand implements Command {
             user.removeGame(this.gameName);
         }
     }
+
+    /**
+     * @return the username of the owner of the game
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.ownerName);
+    }
 }
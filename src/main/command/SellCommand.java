@@ -5,6 +5,7 @@ import src.main.exceptions.UserAccessException;
 import src.main.exceptions.UsernameException;
 import src.main.system.DistributionSystem;
 import src.main.users.*;
+import java.util.List;
 
 /**
  * A class representing a sell command.
@@ -26,11 +27,23 @@ public class SellCommand implements Command{
      *
      */
     public SellCommand(DistributionSystem system, String gameName, String sellerUsername, String discount, String price) {
+        this(system, gameName, sellerUsername, Double.parseDouble(discount), Double.parseDouble(price));
+    }
+
+    /**
+     * Initializes a sell command
+     * @param system the DistributionSystem which grants access to the store front
+     * @param gameName the name of the game to put up for sale
+     * @param sellerUsername the name of the seller
+     * @param discount the discount to apply to the game
+     * @param price the price of the game
+     */
+    public SellCommand(DistributionSystem system, String gameName, String sellerUsername, double discount, double price) {
         receiver = system;
         this.gameName = gameName.stripTrailing();
         this.sellerUsername = sellerUsername.stripTrailing();
-        this.discount = Double.parseDouble(discount);
-        this.price = Double.parseDouble(price);
+        this.discount = discount;
+        this.price = price;
     }
 
     /**
@@ -50,4 +63,12 @@ public class SellCommand implements Command{
                 throw new UserAccessException("A BuyStanderUSer cannot do sell");
             }
     }
+
+    /**
+     * @return the username of the seller
+     */
+    @Override
+    public List<String> getUsernames() {
+        return List.of(this.sellerUsername);
+    }
 }
@@ -3,15 +3,20 @@ package src.main.exceptions;
 /**
  * This abstract class represents any of the the constraints outlined in the
  * README.md instructions of this assignment.
+ *
+ * Constraints stop transactions all the time in a day of transactions, and are only ever reported by their message,
+ * so a ConstraintException does not capture a stack trace unless the constraints.stackTraces system property is true.
  */
 public abstract class ConstraintException extends Exception {
+    public static final String STACK_TRACES_PROPERTY = "constraints.stackTraces";
+    private static final boolean STACK_TRACES = Boolean.getBoolean(STACK_TRACES_PROPERTY);
 
     /**
      * Initializes a ConstraintException
      * @param message the message that caused this exception.
      */
     public ConstraintException(String message) {
-        super("CONSTRAINT ERROR: " + message);
+        super("CONSTRAINT ERROR: " + message, null, false, STACK_TRACES);
     }
 
 }
@@ -1,49 +1,97 @@
 package src.main.observer;
 
+import java.util.function.Supplier;
+
 /**
- * An abstract class that contains the functionality for being an Observable such as attaching and detaching observers
- * as well as notifying observers of any change.
+ * An abstract class that contains the functionality for being an Observable such as attaching to and detaching from
+ * the EventBus as well as publishing any change to it.
+ *
+ * Every Observable publishes to the shared EventBus unless it is attached to another one, so creating an Observable
+ * does not set up anything of its own. Callers check isPublishing before building an event or JournalRecord, so
+ * nothing is built for an Observable that is detached or while changes are not being recorded.
  */
 public abstract class AbstractObservable {
-    private UserObserver observer;
+    private EventBus bus;
 
     /**
      * Initializes an Observable
      */
     public AbstractObservable() {
-        this.attach(new UserObserver());
+        this.attach(EventBus.getShared());
+    }
+
+    /**
+     * @return true if events that happen to this Observable are published, so that they are worth building
+     */
+    public boolean isPublishing() {
+        return this.bus != null && UserObserver.isRecording();
     }
 
     /**
-     * Notifies the observer if any, that a change has occurred to this Observable
+     * Publishes an event that has happened to this Observable to the EventBus, if it is attached to one.
+     * Nothing is published while changes are not being recorded.
+     * @param event the event that has happened.
+     */
+    public void publish(DomainEvent event) {
+        if (this.isPublishing()) {
+            this.bus.publish(event);
+        }
+    }
+
+    /**
+     * Tells the EventBus, if any, that a change described by the given message has occurred to this Observable.
      * @param msg a description of what change has occurred.
      */
     public void notifyObserver(String msg) {
-        if (this.observer != null) {
-            this.observer.update();
-            System.out.println(msg);
+        this.notifyObserver(() -> msg);
+    }
+
+    /**
+     * Tells the EventBus, if any, that a change has occurred to this Observable, described by a message that is only
+     * built if a subscriber asks for it.
+     * @param msg builds a description of what change has occurred.
+     */
+    public void notifyObserver(Supplier<String> msg) {
+        if (this.isPublishing()) {
+            this.bus.publish(new DomainEvent.Notice(this, msg));
         }
     }
 
     /**
-     * @return the observer that is attached to this Observable
+     * Marks this Observable as dirty and tells the EventBus, if any, exactly what has changed so the change can
+     * be journaled.
+     * @param record a description of the change that has occurred.
+     */
+    protected void recordChange(JournalRecord record) {
+        this.publish(new DomainEvent.Changed(this, record));
+    }
+
+    /**
+     * @return true if this Observable has changes that have not been saved yet.
+     */
+    public boolean isDirty() {
+        return UserObserver.isDirty(this);
+    }
+
+    /**
+     * @return the EventBus that this Observable publishes to, or null if it is detached
      */
-    public UserObserver getObserver() {
-        return this.observer;
+    public EventBus getEventBus() {
+        return this.bus;
     }
 
     /**
-     * Attaches the given observer to this Observable
-     * @param userObserver the observer to observe this observable
+     * Attaches this Observable to the given EventBus
+     * @param eventBus the EventBus to publish events to
      */
-    public void attach(UserObserver userObserver) {
-        this.observer = userObserver;
+    public void attach(EventBus eventBus) {
+        this.bus = eventBus;
     }
 
     /**
-     * Removes the observer from observing this Observable
+     * Detaches this Observable from its EventBus, so that nothing that happens to it is published any more
      */
     public void detach() {
-        this.observer = null;
+        this.bus = null;
     }
-}
\ No newline at end of file
+}
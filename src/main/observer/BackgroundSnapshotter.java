@@ -0,0 +1,171 @@
+package src.main.observer;
+
+import src.main.users.User;
+import src.main.users.UserSnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Writes binary snapshots of the users on a background thread so that executing transactions never waits for the
+ * storage file to be written.
+ *
+ * A snapshot is captured on the thread that changes the users as a list of encoded records, which the background
+ * thread writes while the users keep changing. The encoded record of each user is kept between captures and is
+ * only encoded again once the user has changed, so a capture mostly reuses the records of the previous one.
+ *
+ * At most one snapshot is written at a time. A snapshot captured while another is being written waits for it to
+ * finish, and is replaced by any newer snapshot captured in the meantime since the newer snapshot includes all of
+ * its changes.
+ */
+public class BackgroundSnapshotter {
+
+    /**
+     * A captured snapshot waiting to be written.
+     */
+    private static class Capture {
+        private final List<UserSnapshotWriter.Record> records;
+        private final boolean auction;
+
+        private Capture(List<UserSnapshotWriter.Record> records, boolean auction) {
+            this.records = records;
+            this.auction = auction;
+        }
+    }
+
+    private final File file;
+    private final Thread writerThread;
+    private Map<User, UserSnapshotWriter.Record> encodedUsers = new IdentityHashMap<>();
+
+    // Guarded by this
+    private Capture pending;
+    private boolean writing = false;
+    private boolean lastWriteFailed = false;
+    private boolean closed = false;
+    private int snapshotsWritten = 0;
+
+    /**
+     * Initializes a BackgroundSnapshotter and starts its background thread.
+     * @param file the file snapshots are written to
+     */
+    public BackgroundSnapshotter(File file) {
+        this.file = file;
+        this.writerThread = new Thread(this::writeSnapshots, "user-snapshotter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Captures a snapshot of the given users and hands it to the background thread to be written.
+     * @param users every user in the database
+     * @param changed the users that have changed since the previous capture
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if a user cannot be saved
+     */
+    public void submit(Collection<User> users, Set<? extends AbstractObservable> changed, boolean auction)
+            throws IOException {
+        Map<User, UserSnapshotWriter.Record> encoded = new IdentityHashMap<>(users.size() * 2);
+        List<UserSnapshotWriter.Record> records = new ArrayList<>(users.size());
+        for (User user: users) {
+            UserSnapshotWriter.Record record = changed.contains(user) ? null : this.encodedUsers.get(user);
+            if (record == null) {
+                record = UserSnapshotWriter.encode(user);
+            }
+            encoded.put(user, record);
+            records.add(record);
+        }
+        this.encodedUsers = encoded;
+
+        synchronized (this) {
+            if (this.closed) {
+                throw new IOException("The snapshotter has been closed.");
+            }
+            this.pending = new Capture(records, auction);
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Forgets the encoded records kept between captures. Used when users may have changed without being reported
+     * as changed to submit, so that the next capture encodes every user again.
+     */
+    public void invalidate() {
+        this.encodedUsers = new IdentityHashMap<>();
+    }
+
+    /**
+     * Waits until every captured snapshot has been written.
+     * @return false if the last snapshot could not be written or the wait was interrupted
+     */
+    public synchronized boolean awaitIdle() {
+        try {
+            while (this.pending != null || this.writing) {
+                this.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !this.lastWriteFailed;
+    }
+
+    /**
+     * @return the number of snapshots that have been written, including ones that failed
+     */
+    public synchronized int getSnapshotsWritten() {
+        return this.snapshotsWritten;
+    }
+
+    /**
+     * Waits until every captured snapshot has been written and stops the background thread.
+     * @return false if the last snapshot could not be written
+     */
+    public boolean close() {
+        boolean written = this.awaitIdle();
+        synchronized (this) {
+            this.closed = true;
+            this.notifyAll();
+        }
+        return written;
+    }
+
+    /**
+     * Writes captured snapshots until this snapshotter is closed.
+     */
+    private void writeSnapshots() {
+        while (true) {
+            Capture capture;
+            synchronized (this) {
+                while (this.pending == null && !this.closed) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (this.pending == null) {
+                    return;
+                }
+                capture = this.pending;
+                this.pending = null;
+                this.writing = true;
+            }
+
+            boolean failed = false;
+            try {
+                UserSnapshotWriter.write(this.file, capture.records, capture.auction);
+            } catch (IOException e) {
+                e.printStackTrace();
+                failed = true;
+            }
+
+            synchronized (this) {
+                this.writing = false;
+                this.lastWriteFailed = failed;
+                this.snapshotsWritten++;
+                this.notifyAll();
+            }
+        }
+    }
+}
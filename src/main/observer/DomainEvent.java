@@ -0,0 +1,391 @@
+package src.main.observer;
+
+import src.main.Game;
+import src.main.Money;
+
+import java.util.function.Supplier;
+
+/**
+ * Something that has happened to the users or their games, published to an EventBus by the AbstractObservable it
+ * happened to. Each kind of event is its own subclass, so subscribers can subscribe to only the kinds they need.
+ *
+ * Every event except a Changed event has a message describing it, which is only built if a subscriber asks for it.
+ * Events never change once published, so their messages can be built later on any thread.
+ */
+public abstract class DomainEvent {
+    private final AbstractObservable source;
+
+    /**
+     * Initializes a DomainEvent
+     * @param source the observable the event happened to
+     */
+    protected DomainEvent(AbstractObservable source) {
+        this.source = source;
+    }
+
+    /**
+     * @return the observable the event happened to
+     */
+    public AbstractObservable getSource() {
+        return this.source;
+    }
+
+    /**
+     * @return a description of the event, or null if it is not described to anyone
+     */
+    public abstract String getMessage();
+
+    /**
+     * @return false if getMessage returns null, so that no one needs to wait for it
+     */
+    public boolean hasMessage() {
+        return true;
+    }
+
+    /**
+     * A change to the source that has to be saved, described by the JournalRecord that saves it. Published alongside
+     * the other events, and never described.
+     */
+    public static final class Changed extends DomainEvent {
+        private final JournalRecord record;
+
+        public Changed(AbstractObservable source, JournalRecord record) {
+            super(source);
+            this.record = record;
+        }
+
+        /**
+         * @return the change that has occurred
+         */
+        public JournalRecord getRecord() {
+            return this.record;
+        }
+
+        @Override
+        public String getMessage() {
+            return null;
+        }
+
+        @Override
+        public boolean hasMessage() {
+            return false;
+        }
+    }
+
+    /**
+     * Anything else worth describing, given as a message that is built when it is needed.
+     */
+    public static final class Notice extends DomainEvent {
+        private final Supplier<String> message;
+
+        public Notice(AbstractObservable source, Supplier<String> message) {
+            super(source);
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.message.get();
+        }
+    }
+
+    /**
+     * A user was created.
+     */
+    public static final class UserCreated extends DomainEvent {
+        private final String username;
+        private final double balance;
+
+        public UserCreated(AbstractObservable source, String username, double balance) {
+            super(source);
+            this.username = username;
+            this.balance = balance;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        @Override
+        public String getMessage() {
+            return "A user '" + this.username + "' has been created with an initial balance of " + this.balance;
+        }
+    }
+
+    /**
+     * A user was deleted by an admin.
+     */
+    public static final class UserDeleted extends DomainEvent {
+        private final String username;
+
+        public UserDeleted(AbstractObservable admin, String username) {
+            super(admin);
+            this.username = username;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.username + " has been deleted.";
+        }
+    }
+
+    /**
+     * Credit was added to the balance of a user.
+     */
+    public static final class CreditAdded extends DomainEvent {
+        private final String username;
+        private final long cents;
+
+        public CreditAdded(AbstractObservable source, String username, long cents) {
+            super(source);
+            this.username = username;
+            this.cents = cents;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        /**
+         * @return the amount of credit added in cents
+         */
+        public long getCents() {
+            return this.cents;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.username + " has added " + Money.format(this.cents) + " credits to their balance.";
+        }
+    }
+
+    /**
+     * A seller put a new game up for sale.
+     */
+    public static final class GameListed extends DomainEvent {
+        private final Game game;
+
+        public GameListed(AbstractObservable seller, Game game) {
+            super(seller);
+            this.game = game;
+        }
+
+        public Game getGame() {
+            return this.game;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.game.getSeller() + " has put up " + this.game.getName() + " for sale at "
+                    + this.game.getOriginalPrice() + " credits";
+        }
+    }
+
+    /**
+     * A buyer bought a game from a seller.
+     */
+    public static final class GameSold extends DomainEvent {
+        private final String buyer;
+        private final String seller;
+        private final String gameName;
+        private final double price;
+
+        public GameSold(AbstractObservable source, String buyer, String seller, String gameName, double price) {
+            super(source);
+            this.buyer = buyer;
+            this.seller = seller;
+            this.gameName = gameName;
+            this.price = price;
+        }
+
+        public String getBuyer() {
+            return this.buyer;
+        }
+
+        public String getSeller() {
+            return this.seller;
+        }
+
+        public String getGameName() {
+            return this.gameName;
+        }
+
+        /**
+         * @return the price the buyer paid in credits
+         */
+        public double getPrice() {
+            return this.price;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.buyer + " bought the game '" + this.gameName + "' from " + this.seller + " for " + this.price;
+        }
+    }
+
+    /**
+     * A user gifted a game to another user.
+     */
+    public static final class GameGifted extends DomainEvent {
+        private final String sender;
+        private final String receiver;
+        private final String gameName;
+
+        public GameGifted(AbstractObservable source, String sender, String receiver, String gameName) {
+            super(source);
+            this.sender = sender;
+            this.receiver = receiver;
+            this.gameName = gameName;
+        }
+
+        public String getSender() {
+            return this.sender;
+        }
+
+        public String getReceiver() {
+            return this.receiver;
+        }
+
+        public String getGameName() {
+            return this.gameName;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.sender + " has gifted the game '" + this.gameName + "' to " + this.receiver;
+        }
+    }
+
+    /**
+     * A user removed a game from their library.
+     */
+    public static final class GameRemoved extends DomainEvent {
+        private final String username;
+        private final String gameName;
+
+        public GameRemoved(AbstractObservable source, String username, String gameName) {
+            super(source);
+            this.username = username;
+            this.gameName = gameName;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        public String getGameName() {
+            return this.gameName;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.username + " has removed '" + this.gameName + "' from their library";
+        }
+    }
+
+    /**
+     * An admin refunded a buyer from the balance of a seller.
+     */
+    public static final class Refunded extends DomainEvent {
+        private final String buyer;
+        private final String seller;
+        private final double amount;
+
+        public Refunded(AbstractObservable admin, String buyer, String seller, double amount) {
+            super(admin);
+            this.buyer = buyer;
+            this.seller = seller;
+            this.amount = amount;
+        }
+
+        public String getBuyer() {
+            return this.buyer;
+        }
+
+        public String getSeller() {
+            return this.seller;
+        }
+
+        /**
+         * @return the amount refunded in credits
+         */
+        public double getAmount() {
+            return this.amount;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.buyer + "has gotten a refund from " + this.seller + " for " + this.amount + " credits";
+        }
+    }
+
+    /**
+     * An admin started or ended the auction sale.
+     */
+    public static final class AuctionToggled extends DomainEvent {
+        private final boolean started;
+
+        public AuctionToggled(AbstractObservable admin, boolean started) {
+            super(admin);
+            this.started = started;
+        }
+
+        /**
+         * @return true if the auction sale started and false if it ended
+         */
+        public boolean isStarted() {
+            return this.started;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.started ? "Auction sale has started." : "Auction sale has ended.";
+        }
+    }
+
+    /**
+     * A user logged in.
+     */
+    public static final class LoggedIn extends DomainEvent {
+        private final String username;
+
+        public LoggedIn(AbstractObservable source, String username) {
+            super(source);
+            this.username = username;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.username + " has logged in.";
+        }
+    }
+
+    /**
+     * A user is logging out.
+     */
+    public static final class LoggedOut extends DomainEvent {
+        private final String username;
+
+        public LoggedOut(AbstractObservable source, String username) {
+            super(source);
+            this.username = username;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        @Override
+        public String getMessage() {
+            return this.username + " is logging out.";
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package src.main.observer;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the DomainEvents published by AbstractObservables to every subscriber of their type.
+ *
+ * A synchronous subscriber receives each event on the thread that published it, before publish returns, so it sees
+ * events of one thread in the order they happened. An asynchronous subscriber receives events on a thread of its own
+ * in the order they were published, and never slows down whoever publishes them.
+ *
+ * Every AbstractObservable publishes to the shared EventBus, to which the UserObserver saving changes and the
+ * EventLogger describing them are subscribed synchronously.
+ */
+public class EventBus {
+
+    /**
+     * How a subscriber receives events.
+     */
+    public enum Delivery {
+        SYNCHRONOUS, ASYNCHRONOUS
+    }
+
+    private static final EventBus SHARED = createShared();
+
+    private final CopyOnWriteArrayList<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return the EventBus every AbstractObservable publishes to
+     */
+    public static EventBus getShared() {
+        return SHARED;
+    }
+
+    private static EventBus createShared() {
+        EventBus bus = new EventBus();
+        bus.subscribe(DomainEvent.class, UserObserver.getInstance());
+        bus.subscribe(DomainEvent.class, new EventLogger());
+        return bus;
+    }
+
+    /**
+     * Subscribes a subscriber to receive events of the given type synchronously.
+     * @param type the type of events to receive, including its subclasses
+     * @param subscriber the subscriber
+     * @return the subscription, which can be cancelled
+     */
+    public <E extends DomainEvent> Subscription<E> subscribe(Class<E> type, EventSubscriber<? super E> subscriber) {
+        return this.subscribe(type, subscriber, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Subscribes a subscriber to receive events of the given type.
+     * @param type the type of events to receive, including its subclasses
+     * @param subscriber the subscriber
+     * @param delivery whether the subscriber receives events synchronously or asynchronously
+     * @return the subscription, which can be cancelled
+     */
+    public <E extends DomainEvent> Subscription<E> subscribe(Class<E> type, EventSubscriber<? super E> subscriber,
+                                                             Delivery delivery) {
+        Subscription<E> subscription = new Subscription<>(this, type, subscriber, delivery);
+        this.subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Delivers an event to every subscriber of its type, in the order they subscribed. A subscriber that fails to
+     * handle an event does not stop the others from receiving it.
+     * @param event the event that has happened
+     */
+    public void publish(DomainEvent event) {
+        for (Subscription<?> subscription: this.subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Waits until every asynchronous subscriber has received every event published so far.
+     */
+    public void awaitDelivery() {
+        for (Subscription<?> subscription: this.subscriptions) {
+            subscription.await();
+        }
+    }
+
+    /**
+     * A subscriber subscribed to an EventBus.
+     * @param <E> the type of events the subscriber receives
+     */
+    public static final class Subscription<E extends DomainEvent> {
+        private final EventBus bus;
+        private final Class<E> type;
+        private final EventSubscriber<? super E> subscriber;
+        private final ExecutorService executor;
+
+        private Subscription(EventBus bus, Class<E> type, EventSubscriber<? super E> subscriber, Delivery delivery) {
+            this.bus = bus;
+            this.type = type;
+            this.subscriber = subscriber;
+            if (delivery == Delivery.ASYNCHRONOUS) {
+                this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "event-subscriber");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            } else {
+                this.executor = null;
+            }
+        }
+
+        /**
+         * @return true if the subscriber receives events on a thread of its own
+         */
+        public boolean isAsynchronous() {
+            return this.executor != null;
+        }
+
+        /**
+         * Stops delivering events to the subscriber. An asynchronous subscriber still receives the events that were
+         * published before this.
+         */
+        public void cancel() {
+            this.bus.subscriptions.remove(this);
+            if (this.executor != null) {
+                this.executor.shutdown();
+                try {
+                    this.executor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void offer(DomainEvent event) {
+            if (!this.type.isInstance(event)) {
+                return;
+            }
+            E typed = this.type.cast(event);
+            if (this.executor == null) {
+                this.deliver(typed);
+            } else {
+                try {
+                    this.executor.execute(() -> this.deliver(typed));
+                } catch (RejectedExecutionException ignored) {
+                    // The subscription was cancelled while the event was being published
+                }
+            }
+        }
+
+        private void deliver(E event) {
+            try {
+                this.subscriber.onEvent(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void await() {
+            if (this.executor == null || this.executor.isShutdown()) {
+                return;
+            }
+            try {
+                this.executor.submit(() -> { }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package src.main.observer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A log of what has happened, written to the console and optionally to a file on a background thread so that logging
+ * never waits for console or disk I/O.
+ *
+ * Entries are added to a lock-free ring buffer by any number of threads and written in the order they were added by
+ * a single flusher thread. A thread logging while the buffer is full waits for the flusher to make room, so no entry
+ * is ever lost. The console only shows the message of each entry, as it used to be printed, while the file holds
+ * the time, level and source of each entry too and is rotated once it grows past a maximum size.
+ *
+ * Entries below the level of the log are discarded without being added, and console output can be turned off
+ * entirely for batch runs. The message of an entry can be given as a Supplier, in which case it is built by the
+ * flusher instead of the thread logging it, and never built at all if the entry is discarded.
+ */
+public class EventLog implements Closeable {
+
+    /**
+     * How important an entry is.
+     */
+    public enum Level {
+        DEBUG, INFO, WARNING, ERROR, OFF
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final long DEFAULT_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    public static final int DEFAULT_MAX_BACKUPS = 5;
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+    private static final long FULL_PARK_NANOS = 100_000L;
+
+    private static EventLog shared;
+
+    private final int mask;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+    private volatile long written = 0;
+    private final AtomicBoolean flusherWaiting = new AtomicBoolean();
+    private volatile boolean closed = false;
+    private final Thread flusher;
+
+    private volatile Level level = Level.INFO;
+    private volatile boolean console = true;
+    private volatile RotatingFile file;
+
+    /**
+     * Initializes an EventLog writing to the console, with room for DEFAULT_CAPACITY entries waiting to be written.
+     */
+    public EventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes an EventLog writing to the console.
+     * @param capacity the number of entries that can wait to be written, rounded up to a power of two
+     */
+    public EventLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = size - 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.flusher = new Thread(this::runFlusher, "event-log");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @return the EventLog every event and warning is written to, which is flushed when the JVM shuts down normally
+     */
+    public static synchronized EventLog getShared() {
+        if (shared == null) {
+            shared = new EventLog();
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::flush));
+        }
+        return shared;
+    }
+
+    /**
+     * @return the lowest level of entries that are logged
+     */
+    public Level getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Sets the lowest level of entries that are logged. Level.OFF discards every entry.
+     * @param level the new level
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * @param level the level of an entry
+     * @return true if entries of the level are written anywhere, so that building their messages is not wasted
+     */
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(this.level) >= 0 && (this.console || this.file != null);
+    }
+
+    /**
+     * @return true if entries are written to the console
+     */
+    public boolean isConsole() {
+        return this.console;
+    }
+
+    /**
+     * Turns writing entries to the console on or off. Entries logged before this are written as before.
+     * @param console false to keep every entry off the console
+     */
+    public void setConsole(boolean console) {
+        this.flush();
+        this.console = console;
+    }
+
+    /**
+     * Starts writing entries to the given file, rotating it once it holds DEFAULT_MAX_FILE_BYTES.
+     * @param logFile the file to append entries to, or null to stop writing entries to a file
+     * @throws IOException if the file cannot be opened
+     */
+    public void setFile(File logFile) throws IOException {
+        this.setFile(logFile, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_BACKUPS);
+    }
+
+    /**
+     * Starts writing entries to the given file. Once the file holds maxBytes, it is renamed to the file name followed
+     * by .1, any earlier backups are renamed from .1 to .2 and so on, the oldest beyond maxBackups is deleted, and a
+     * new file is started. Entries logged before this are written to the previous file, if any.
+     * @param logFile the file to append entries to, or null to stop writing entries to a file
+     * @param maxBytes the size of the file at which it is rotated
+     * @param maxBackups the number of rotated files that are kept
+     * @throws IOException if the file cannot be opened
+     */
+    public void setFile(File logFile, long maxBytes, int maxBackups) throws IOException {
+        this.flush();
+        RotatingFile next = logFile == null ? null : new RotatingFile(logFile, maxBytes, maxBackups);
+        synchronized (this) {
+            if (this.file != null) {
+                this.file.close();
+            }
+            this.file = next;
+        }
+    }
+
+    /**
+     * Logs an entry.
+     * @param level how important the entry is
+     * @param source what the entry is about, such as the kind of event
+     * @param message a description of the entry
+     */
+    public void log(Level level, String source, String message) {
+        if (this.isEnabled(level) && !this.closed) {
+            this.add(new Entry(System.currentTimeMillis(), level, source, message, null));
+        }
+    }
+
+    /**
+     * Logs an entry whose message is built when it is written. The Supplier must give the same message on any thread.
+     * @param level how important the entry is
+     * @param source what the entry is about, such as the kind of event
+     * @param message builds a description of the entry
+     */
+    public void log(Level level, String source, Supplier<String> message) {
+        if (this.isEnabled(level) && !this.closed) {
+            this.add(new Entry(System.currentTimeMillis(), level, source, null, message));
+        }
+    }
+
+    private void add(Entry entry) {
+        while (!this.offer(entry)) {
+            // The buffer is full, so wait for the flusher to make room
+            LockSupport.unpark(this.flusher);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        // Only the first entry added while the flusher waits wakes it, and the rest are written in the same batch
+        if (this.flusherWaiting.get() && this.flusherWaiting.compareAndSet(true, false)) {
+            LockSupport.unpark(this.flusher);
+        }
+    }
+
+    /**
+     * Logs an entry at Level.INFO.
+     */
+    public void info(String source, String message) {
+        this.log(Level.INFO, source, message);
+    }
+
+    /**
+     * Logs an entry at Level.INFO whose message is built when it is written.
+     */
+    public void info(String source, Supplier<String> message) {
+        this.log(Level.INFO, source, message);
+    }
+
+    /**
+     * Logs an entry at Level.WARNING.
+     */
+    public void warning(String source, String message) {
+        this.log(Level.WARNING, source, message);
+    }
+
+    /**
+     * Logs an entry at Level.ERROR.
+     */
+    public void error(String source, String message) {
+        this.log(Level.ERROR, source, message);
+    }
+
+    /**
+     * Waits until every entry logged so far has been written.
+     */
+    public void flush() {
+        long target = this.tail.get();
+        while (this.written < target && this.flusher.isAlive()) {
+            LockSupport.unpark(this.flusher);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Writes every entry logged so far, stops the flusher and closes the file, if any. Entries logged after this are
+     * discarded.
+     */
+    @Override
+    public void close() {
+        this.flush();
+        this.closed = true;
+        LockSupport.unpark(this.flusher);
+        try {
+            this.flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (this.file != null) {
+                this.file.close();
+                this.file = null;
+            }
+        }
+    }
+
+    /**
+     * Adds an entry to the ring buffer without locking, as long as the slot it claims has been written by the flusher.
+     * @return false if the buffer is full
+     */
+    private boolean offer(Entry entry) {
+        while (true) {
+            long position = this.tail.get();
+            int index = (int) (position & this.mask);
+            long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.entries.set(index, entry);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the next entry in the ring buffer, or null if every entry added so far has been taken
+     */
+    private Entry poll() {
+        int index = (int) (this.head & this.mask);
+        if (this.sequences.get(index) != this.head + 1) {
+            return null;
+        }
+        Entry entry = this.entries.get(index);
+        this.entries.set(index, null);
+        this.sequences.set(index, this.head + this.mask + 1);
+        this.head++;
+        return entry;
+    }
+
+    /**
+     * Writes entries as they are added until the log is closed.
+     */
+    private void runFlusher() {
+        StringBuilder consoleBatch = new StringBuilder();
+        while (true) {
+            Entry entry = this.poll();
+            if (entry == null) {
+                if (this.closed && this.head == this.tail.get()) {
+                    return;
+                }
+                this.flusherWaiting.set(true);
+                if (this.sequences.get((int) (this.head & this.mask)) != this.head + 1) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                this.flusherWaiting.set(false);
+                continue;
+            }
+            synchronized (this) {
+                // Everything waiting is written at once, so a busy log writes in large batches
+                do {
+                    this.write(entry, consoleBatch);
+                    entry = this.poll();
+                } while (entry != null);
+                if (consoleBatch.length() > 0) {
+                    System.out.print(consoleBatch);
+                    System.out.flush();
+                    consoleBatch.setLength(0);
+                }
+                if (this.file != null) {
+                    this.file.flush();
+                }
+            }
+            this.written = this.head;
+        }
+    }
+
+    private void write(Entry entry, StringBuilder consoleBatch) {
+        String message = entry.message;
+        if (message == null) {
+            try {
+                message = entry.deferred.get();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+        if (this.console) {
+            consoleBatch.append(message).append(System.lineSeparator());
+        }
+        if (this.file != null) {
+            this.file.write(Instant.ofEpochMilli(entry.time) + " " + entry.level + " " + entry.source + " "
+                    + message + System.lineSeparator());
+        }
+    }
+
+    /**
+     * A logged entry waiting to be written.
+     */
+    private static final class Entry {
+        private final long time;
+        private final Level level;
+        private final String source;
+        private final String message;
+        private final Supplier<String> deferred;
+
+        private Entry(long time, Level level, String source, String message, Supplier<String> deferred) {
+            this.time = time;
+            this.level = level;
+            this.source = source;
+            this.message = message;
+            this.deferred = deferred;
+        }
+    }
+
+    /**
+     * A log file that is renamed to a backup and started over once it grows past a maximum size. Lines are encoded in
+     * UTF-8 before they are written, so the size of the file is always counted in bytes.
+     */
+    private static final class RotatingFile {
+        private final File file;
+        private final long maxBytes;
+        private final int maxBackups;
+        private OutputStream out;
+        private long size;
+
+        private RotatingFile(File file, long maxBytes, int maxBackups) throws IOException {
+            this.file = file;
+            this.maxBytes = Math.max(1, maxBytes);
+            this.maxBackups = Math.max(0, maxBackups);
+            this.open();
+        }
+
+        private void open() throws IOException {
+            this.size = this.file.length();
+            this.out = new BufferedOutputStream(new FileOutputStream(this.file, true));
+        }
+
+        private void write(String line) {
+            try {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                if (this.size > 0 && this.size + bytes.length > this.maxBytes) {
+                    this.rotate();
+                }
+                this.out.write(bytes);
+                this.size += bytes.length;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void rotate() throws IOException {
+            this.out.close();
+            new File(this.file.getPath() + "." + this.maxBackups).delete();
+            for (int backup = this.maxBackups - 1; backup >= 1; backup--) {
+                new File(this.file.getPath() + "." + backup).renameTo(new File(this.file.getPath() + "." + (backup + 1)));
+            }
+            if (this.maxBackups > 0) {
+                this.file.renameTo(new File(this.file.getPath() + ".1"));
+            } else {
+                this.file.delete();
+            }
+            this.open();
+        }
+
+        private void flush() {
+            try {
+                this.out.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void close() {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
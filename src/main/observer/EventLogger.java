@@ -0,0 +1,31 @@
+package src.main.observer;
+
+/**
+ * Writes a description of every event that has one to an EventLog, at Level.INFO. Descriptions are built by the
+ * EventLog as they are written, so describing events takes nothing away from the thread they happened on.
+ */
+public class EventLogger implements EventSubscriber<DomainEvent> {
+    private final EventLog log;
+
+    /**
+     * Initializes an EventLogger writing to the shared EventLog
+     */
+    public EventLogger() {
+        this(EventLog.getShared());
+    }
+
+    /**
+     * Initializes an EventLogger
+     * @param log the log to write events to
+     */
+    public EventLogger(EventLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event.hasMessage() && this.log.isEnabled(EventLog.Level.INFO)) {
+            this.log.info(event.getClass().getSimpleName(), event::getMessage);
+        }
+    }
+}
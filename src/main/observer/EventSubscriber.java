@@ -0,0 +1,15 @@
+package src.main.observer;
+
+/**
+ * Receives the events of a given type published to an EventBus.
+ * @param <E> the type of events received
+ */
+@FunctionalInterface
+public interface EventSubscriber<E extends DomainEvent> {
+
+    /**
+     * Handles an event that was published to the EventBus this subscriber is subscribed to.
+     * @param event the event that was published
+     */
+    void onEvent(E event);
+}
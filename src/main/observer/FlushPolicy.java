@@ -0,0 +1,33 @@
+package src.main.observer;
+
+/**
+ * The points at which a UserObserver saves the changes made to users to disk.
+ * Changes that have not been saved are lost if the backend stops unexpectedly, so each policy also
+ * bounds how much work can be lost.
+ */
+public enum FlushPolicy {
+    /**
+     * Save after every change to a user. Nothing can be lost.
+     */
+    ON_CHANGE,
+
+    /**
+     * Save after every transaction. At most the transaction in progress can be lost.
+     */
+    PER_TRANSACTION,
+
+    /**
+     * Save whenever a user logs out. At most the session in progress can be lost.
+     */
+    ON_LOGOUT,
+
+    /**
+     * Save after every flushInterval transactions. At most flushInterval transactions can be lost.
+     */
+    EVERY_N_TRANSACTIONS,
+
+    /**
+     * Save once all the transactions of a daily file have been executed. At most that day can be lost.
+     */
+    END_OF_BATCH
+}
@@ -0,0 +1,228 @@
+package src.main.observer;
+
+import src.main.Game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A single mutation to the user database that can be appended to a TransactionJournal and replayed later.
+ * Each record only describes the change itself, so its size does not depend on the size of the database.
+ */
+public class JournalRecord {
+
+    /**
+     * The kinds of mutations that can be recorded.
+     */
+    public enum Type {
+        CREATE_USER, DELETE_USER, BALANCE, ADD_GAME, REMOVE_GAME, AUCTION
+    }
+
+    private final Type type;
+    private final String username;
+    private final String accountType;
+    private final String gameName;
+    private final String seller;
+    private final double amount;
+    private final double discount;
+    private final boolean flag;
+
+    /**
+     * Initializes a JournalRecord. Use the static factory methods to create records of a specific type.
+     */
+    private JournalRecord(Type type, String username, String accountType, String gameName, String seller,
+                          double amount, double discount, boolean flag) {
+        this.type = type;
+        this.username = username;
+        this.accountType = accountType;
+        this.gameName = gameName;
+        this.seller = seller;
+        this.amount = amount;
+        this.discount = discount;
+        this.flag = flag;
+    }
+
+    /**
+     * @param username the username of the new user
+     * @param accountType the type of the new user
+     * @param balance the starting balance of the new user
+     * @return a record of a user being created
+     */
+    public static JournalRecord createUser(String username, String accountType, double balance) {
+        return new JournalRecord(Type.CREATE_USER, username, accountType, "", "", balance, 0, false);
+    }
+
+    /**
+     * @param username the username of the deleted user
+     * @return a record of a user being deleted
+     */
+    public static JournalRecord deleteUser(String username) {
+        return new JournalRecord(Type.DELETE_USER, username, "", "", "", 0, 0, false);
+    }
+
+    /**
+     * @param username the username of the user whose balance changed
+     * @param balance the new balance of the user
+     * @return a record of a balance change
+     */
+    public static JournalRecord balance(String username, double balance) {
+        return new JournalRecord(Type.BALANCE, username, "", "", "", balance, 0, false);
+    }
+
+    /**
+     * @param username the username of the user whose library the game was added to
+     * @param game the game that was added
+     * @return a record of a game being added to a library
+     */
+    public static JournalRecord addGame(String username, Game game) {
+        return new JournalRecord(Type.ADD_GAME, username, "", game.getName(), game.getSeller(),
+                game.getOriginalPrice(), game.getDiscount(), false);
+    }
+
+    /**
+     * @param username the username of the user whose library the game was removed from
+     * @param gameName the name of the removed game
+     * @return a record of a game being removed from a library
+     */
+    public static JournalRecord removeGame(String username, String gameName) {
+        return new JournalRecord(Type.REMOVE_GAME, username, "", gameName, "", 0, 0, false);
+    }
+
+    /**
+     * @param auction true if an auction sale has started and false if it has ended
+     * @return a record of the auction sale being toggled
+     */
+    public static JournalRecord auction(boolean auction) {
+        return new JournalRecord(Type.AUCTION, "", "", "", "", 0, 0, auction);
+    }
+
+    /**
+     * @return the kind of mutation this record describes
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * @return the username of the user affected by this record
+     */
+    public String getUsername() {
+        return this.username;
+    }
+
+    /**
+     * @return the account type of a created user
+     */
+    public String getAccountType() {
+        return this.accountType;
+    }
+
+    /**
+     * @return the name of the game added or removed
+     */
+    public String getGameName() {
+        return this.gameName;
+    }
+
+    /**
+     * @return the seller of the game added
+     */
+    public String getSeller() {
+        return this.seller;
+    }
+
+    /**
+     * @return the balance of a created user, the new balance of a user or the original price of an added game
+     */
+    public double getAmount() {
+        return this.amount;
+    }
+
+    /**
+     * @return the discount of an added game
+     */
+    public double getDiscount() {
+        return this.discount;
+    }
+
+    /**
+     * @return true if this record started an auction sale
+     */
+    public boolean getFlag() {
+        return this.flag;
+    }
+
+    /**
+     * Writes this record to the given stream.
+     * @param out the stream to write to
+     * @throws IOException if the record could not be written
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(this.type.ordinal());
+        switch (this.type) {
+            case CREATE_USER:
+                out.writeUTF(this.username);
+                out.writeUTF(this.accountType);
+                out.writeDouble(this.amount);
+                break;
+            case DELETE_USER:
+                out.writeUTF(this.username);
+                break;
+            case BALANCE:
+                out.writeUTF(this.username);
+                out.writeDouble(this.amount);
+                break;
+            case ADD_GAME:
+                out.writeUTF(this.username);
+                out.writeUTF(this.gameName);
+                out.writeUTF(this.seller);
+                out.writeDouble(this.amount);
+                out.writeDouble(this.discount);
+                break;
+            case REMOVE_GAME:
+                out.writeUTF(this.username);
+                out.writeUTF(this.gameName);
+                break;
+            case AUCTION:
+                out.writeBoolean(this.flag);
+                break;
+        }
+    }
+
+    /**
+     * Reads the next record from the given stream.
+     * @param in the stream to read from
+     * @return the record that was read
+     * @throws IOException if the stream ends before a whole record was read or the record is corrupt
+     */
+    public static JournalRecord readFrom(DataInputStream in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new IOException("Unknown journal record type: " + ordinal);
+        }
+        switch (Type.values()[ordinal]) {
+            case CREATE_USER:
+                return createUser(in.readUTF(), in.readUTF(), in.readDouble());
+            case DELETE_USER:
+                return deleteUser(in.readUTF());
+            case BALANCE:
+                return balance(in.readUTF(), in.readDouble());
+            case ADD_GAME:
+                return new JournalRecord(Type.ADD_GAME, in.readUTF(), "", in.readUTF(), in.readUTF(),
+                        in.readDouble(), in.readDouble(), false);
+            case REMOVE_GAME:
+                return removeGame(in.readUTF(), in.readUTF());
+            default:
+                return auction(in.readBoolean());
+        }
+    }
+
+    /**
+     * @return a string representation of this record
+     */
+    public String toString() {
+        return this.type + " " + this.username + " " + this.accountType + " " + this.gameName + " " + this.seller
+                + " " + this.amount + " " + this.discount + " " + this.flag;
+    }
+}
@@ -0,0 +1,320 @@
+package src.main.observer;
+
+import src.main.Money;
+import src.main.users.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A file of fixed-width user rows that is memory-mapped so that a change to one user only rewrites that user's
+ * row in place. A slot index maps each username to its row.
+ *
+ * ==Layout==
+ *  header: magic (int), version (short), auction flag (byte), unused (byte), capacity (int), unused (int)
+ *  row: used flag (byte), username length (byte), username (UTF-8 padded to NAME_BYTES),
+ *       account type (2 ASCII bytes), balance in cents (long)
+ */
+public class MappedUserTable {
+    private static final int MAGIC = 0x47535554; // "GSUT"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int AUCTION_OFFSET = 6;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int NAME_BYTES = User.MAX_USERNAME_LENGTH * 4;
+    private static final int NAME_OFFSET = 2;
+    private static final int TYPE_OFFSET = NAME_OFFSET + NAME_BYTES;
+    private static final int BALANCE_OFFSET = TYPE_OFFSET + 2;
+    public static final int ROW_SIZE = BALANCE_OFFSET + Long.BYTES;
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private final HashMap<String, Integer> slots = new HashMap<>();
+    private final TreeSet<Integer> freeSlots = new TreeSet<>();
+
+    /**
+     * Opens the table stored in the given file, creating an empty table if the file is empty or does not exist.
+     * @param file the file holding the table
+     * @param initialCapacity the number of rows in a newly created table
+     * @throws IOException if the file could not be opened or is not a user table
+     */
+    public MappedUserTable(File file, int initialCapacity) throws IOException {
+        this.file = file;
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = this.raf.getChannel();
+
+        if (this.channel.size() < HEADER_SIZE) {
+            this.map(Math.max(1, initialCapacity));
+            this.buffer.putInt(0, MAGIC);
+            this.buffer.putShort(4, VERSION);
+        } else {
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (this.buffer.getInt(0) != MAGIC || this.buffer.getShort(4) > VERSION) {
+                this.close();
+                throw new IOException(file.getName() + " is not a user table.");
+            }
+            this.map(this.buffer.getInt(CAPACITY_OFFSET));
+        }
+        this.indexRows(0);
+    }
+
+    /**
+     * Opens the table stored in the given file with DEFAULT_CAPACITY rows if it is new.
+     * @param file the file holding the table
+     * @throws IOException if the file could not be opened or is not a user table
+     */
+    public MappedUserTable(File file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @return the file this table is stored in
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return the number of users in this table
+     */
+    public int size() {
+        return this.slots.size();
+    }
+
+    /**
+     * @return the usernames of every user in this table
+     */
+    public Set<String> getUsernames() {
+        return Collections.unmodifiableSet(this.slots.keySet());
+    }
+
+    /**
+     * @param username a username
+     * @return true if the user has a row in this table
+     */
+    public boolean contains(String username) {
+        return this.slots.containsKey(username);
+    }
+
+    /**
+     * @param username the username of a user in this table
+     * @return the account type of the user, or null if they are not in this table
+     */
+    public String getAccountType(String username) {
+        Integer slot = this.slots.get(username);
+        if (slot == null) {
+            return null;
+        }
+        int row = offset(slot);
+        return "" + (char) this.buffer.get(row + TYPE_OFFSET) + (char) this.buffer.get(row + TYPE_OFFSET + 1);
+    }
+
+    /**
+     * @param username the username of a user in this table
+     * @return the balance of the user, or NaN if they are not in this table
+     */
+    public double getBalance(String username) {
+        Integer slot = this.slots.get(username);
+        if (slot == null) {
+            return Double.NaN;
+        }
+        return Money.toCredits(this.getBalanceCents(username));
+    }
+
+    /**
+     * @param username the username of a user in this table
+     * @return the balance of the user in cents, or 0 if they are not in this table
+     */
+    public long getBalanceCents(String username) {
+        Integer slot = this.slots.get(username);
+        if (slot == null) {
+            return 0;
+        }
+        return this.buffer.getLong(offset(slot) + BALANCE_OFFSET);
+    }
+
+    /**
+     * @return true if the auction flag in this table is set
+     */
+    public boolean isAuction() {
+        return this.buffer.get(AUCTION_OFFSET) != 0;
+    }
+
+    /**
+     * Sets the auction flag in this table.
+     * @param auction true if an auction sale is occurring
+     */
+    public void setAuction(boolean auction) {
+        this.buffer.put(AUCTION_OFFSET, (byte) (auction ? 1 : 0));
+    }
+
+    /**
+     * Adds a row for a new user, or overwrites the row of an existing user with the same username.
+     * @param username the username of the user
+     * @param accountType the account type of the user
+     * @param balance the balance of the user
+     * @throws IOException if the table needed to grow and could not be remapped
+     */
+    public void putUser(String username, String accountType, double balance) throws IOException {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_BYTES) {
+            throw new IOException("'" + username + "' is too long to be saved.");
+        }
+        Integer slot = this.slots.get(username);
+        if (slot == null) {
+            if (this.freeSlots.isEmpty()) {
+                this.grow();
+            }
+            slot = this.freeSlots.pollFirst();
+            this.slots.put(username, slot);
+        }
+
+        int row = offset(slot);
+        this.buffer.put(row + NAME_OFFSET - 1, (byte) name.length);
+        this.buffer.put(row + NAME_OFFSET, name);
+        this.buffer.put(row + NAME_OFFSET + name.length, new byte[NAME_BYTES - name.length]);
+        this.buffer.put(row + TYPE_OFFSET, accountType.getBytes(StandardCharsets.US_ASCII), 0, 2);
+        this.buffer.putLong(row + BALANCE_OFFSET, Money.toCents(balance));
+        this.buffer.put(row, (byte) 1);
+    }
+
+    /**
+     * Removes the row of a user so the row can be reused.
+     * @param username the username of the user to remove
+     */
+    public void removeUser(String username) {
+        Integer slot = this.slots.remove(username);
+        if (slot != null) {
+            this.buffer.put(offset(slot), (byte) 0);
+            this.freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * Overwrites the balance of a user in place.
+     * @param username the username of the user
+     * @param balance the new balance of the user
+     */
+    public void setBalance(String username, double balance) {
+        Integer slot = this.slots.get(username);
+        if (slot != null) {
+            this.buffer.putLong(offset(slot) + BALANCE_OFFSET, Money.toCents(balance));
+        }
+    }
+
+    /**
+     * Applies a journal record that changes a row of this table. Records about game libraries are ignored.
+     * @param record the change that has occurred
+     * @throws IOException if the table needed to grow and could not be remapped
+     */
+    public void apply(JournalRecord record) throws IOException {
+        switch (record.getType()) {
+            case CREATE_USER:
+                this.putUser(record.getUsername(), record.getAccountType(), record.getAmount());
+                break;
+            case DELETE_USER:
+                this.removeUser(record.getUsername());
+                break;
+            case BALANCE:
+                this.setBalance(record.getUsername(), record.getAmount());
+                break;
+            case AUCTION:
+                this.setAuction(record.getFlag());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Replaces every row of this table with the given users.
+     * @param users the users to store
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if the table needed to grow and could not be remapped
+     */
+    public void rebuild(Collection<User> users, boolean auction) throws IOException {
+        for (String username: new ArrayList<>(this.slots.keySet())) {
+            this.removeUser(username);
+        }
+        for (User user: users) {
+            this.putUser(user.getUsername(), user.getAccountType(), user.getBalance());
+        }
+        this.setAuction(auction);
+    }
+
+    /**
+     * Writes every changed row to the storage device.
+     */
+    public void force() {
+        this.buffer.force();
+    }
+
+    /**
+     * Writes every changed row to the storage device and closes the table file.
+     */
+    public void close() {
+        try {
+            this.force();
+            this.channel.close();
+            this.raf.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @param slot a row number
+     * @return the position of the row in the file
+     */
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * ROW_SIZE;
+    }
+
+    /**
+     * Maps the header and the given number of rows of the table file into memory.
+     * @param rows the number of rows to map
+     * @throws IOException if the file could not be mapped
+     */
+    private void map(int rows) throws IOException {
+        this.capacity = rows;
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(rows));
+        this.buffer.putInt(CAPACITY_OFFSET, rows);
+    }
+
+    /**
+     * Doubles the number of rows in this table.
+     * @throws IOException if the file could not be remapped
+     */
+    private void grow() throws IOException {
+        int oldCapacity = this.capacity;
+        this.buffer.force();
+        this.map(oldCapacity * 2);
+        this.indexRows(oldCapacity);
+    }
+
+    /**
+     * Adds every row from the given row onwards to the slot index or the free rows.
+     * @param firstSlot the first row to index
+     */
+    private void indexRows(int firstSlot) {
+        for (int slot = firstSlot; slot < this.capacity; slot++) {
+            int row = offset(slot);
+            if (this.buffer.get(row) == 0) {
+                this.freeSlots.add(slot);
+            } else {
+                byte[] name = new byte[this.buffer.get(row + NAME_OFFSET - 1)];
+                this.buffer.get(row + NAME_OFFSET, name);
+                this.slots.put(new String(name, StandardCharsets.UTF_8), slot);
+            }
+        }
+    }
+}
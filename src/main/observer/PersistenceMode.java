@@ -0,0 +1,22 @@
+package src.main.observer;
+
+/**
+ * The ways a UserObserver can save changes made to the users in the database.
+ */
+public enum PersistenceMode {
+    /**
+     * Every change rewrites the whole user database to the storage file.
+     */
+    SNAPSHOT,
+
+    /**
+     * Every change is appended to a journal, and the whole database is only rewritten at periodic checkpoints.
+     */
+    JOURNAL,
+
+    /**
+     * Every change is journaled as in JOURNAL, and users and their balances are also kept in a memory-mapped
+     * MappedUserTable that is updated in place each time the journal is flushed.
+     */
+    MAPPED_TABLE
+}
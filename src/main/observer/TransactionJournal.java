@@ -0,0 +1,154 @@
+package src.main.observer;
+
+import java.io.*;
+import java.util.ArrayList;
+
+/**
+ * An append-only file of JournalRecords describing every change made to the user database since the last
+ * checkpoint. Records are buffered and written to disk whenever the journal is flushed.
+ */
+public class TransactionJournal {
+    private final File file;
+    private DataOutputStream out;
+    private int recordCount;
+
+    /**
+     * Initializes a TransactionJournal that appends to the given file.
+     * @param file the file holding the journal; created on the first append if it does not exist
+     */
+    public TransactionJournal(File file) {
+        this.file = file;
+        this.repairTail();
+    }
+
+    /**
+     * @return the file this journal is written to
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return the number of records in this journal since it was last truncated
+     */
+    public int size() {
+        return this.recordCount;
+    }
+
+    /**
+     * Appends a record to the end of this journal. The record is only guaranteed to be on disk after flush().
+     * @param record the record to append
+     */
+    public void append(JournalRecord record) {
+        try {
+            record.writeTo(this.getOutputStream());
+            this.recordCount++;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes all buffered records to the journal file.
+     */
+    public void flush() {
+        if (this.out != null) {
+            try {
+                this.out.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Reads every complete record in this journal in the order they were appended.
+     * A partially written record at the end of the file (from an interrupted run) is ignored.
+     * @return all the records in this journal
+     */
+    public ArrayList<JournalRecord> readAll() {
+        this.flush();
+        ArrayList<JournalRecord> records = new ArrayList<>();
+        this.readRecords(records);
+        return records;
+    }
+
+    /**
+     * Reads every complete record of the journal file into the given list.
+     * @param records the list to add the records to
+     * @return the number of bytes of the journal file taken up by complete records
+     */
+    private long readRecords(ArrayList<JournalRecord> records) {
+        if (!this.file.exists()) {
+            return 0;
+        }
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            long remaining = this.file.length();
+            while (true) {
+                records.add(JournalRecord.readFrom(in));
+                validLength = remaining - in.available();
+            }
+        } catch (EOFException ignored) {
+            // End of the journal or a torn final record.
+        } catch (IOException e) {
+            System.out.println("Journal is corrupt after " + records.size() + " records: " + e.getMessage());
+        }
+        return validLength;
+    }
+
+    /**
+     * Cuts off any partially written record at the end of the journal file so that new records
+     * are appended directly after the last complete one.
+     */
+    private void repairTail() {
+        ArrayList<JournalRecord> records = new ArrayList<>();
+        long validLength = this.readRecords(records);
+        this.recordCount = records.size();
+        if (this.file.exists() && this.file.length() > validLength) {
+            try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+                raf.setLength(validLength);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Removes every record from this journal. Only called once the records are saved in a snapshot.
+     */
+    public void truncate() {
+        this.close();
+        try {
+            new FileOutputStream(this.file).close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.recordCount = 0;
+    }
+
+    /**
+     * Flushes and closes the journal file. The journal is reopened on the next append.
+     */
+    public void close() {
+        if (this.out != null) {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            this.out = null;
+        }
+    }
+
+    /**
+     * @return the stream records are appended to, opening the journal file if necessary
+     * @throws IOException if the journal file could not be opened
+     */
+    private DataOutputStream getOutputStream() throws IOException {
+        if (this.out == null) {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.file, true)));
+        }
+        return this.out;
+    }
+}
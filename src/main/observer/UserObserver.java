@@ -1,17 +1,56 @@
 package src.main.observer;
 
+import src.main.users.AdminUser;
 import src.main.users.User;
+import src.main.users.UserSnapshotWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
- * A UserObserver that keeps track of changes to any given User object by serializing and saving all Users to a file.
+ * A UserObserver that keeps track of changes to any given User object by saving a snapshot of all Users to a file.
+ * A single UserObserver is subscribed to the shared EventBus, and saves every change published to it.
+ *
+ * In PersistenceMode.JOURNAL, changes are instead appended to a TransactionJournal and all Users are only
+ * saved to the storage file once the journal holds checkpointInterval records. In PersistenceMode.MAPPED_TABLE,
+ * every change is journaled as well, and users, balances and the auction sale are written in place to a
+ * MappedUserTable once the journal holding them has been flushed. The table is never ahead of the journal, so a crash
+ * between flushes cannot save a balance without the library change made with it, and UserLoader brings a table
+ * that is behind the journal up to date.
+ *
+ * Changed users are marked dirty, and the FlushPolicy decides when dirty users are actually saved. With
+ * asynchronous snapshots turned on, snapshots in PersistenceMode.SNAPSHOT are written by a BackgroundSnapshotter.
+ *
+ * Changes to different users may be recorded from several threads at once, as long as the FlushPolicy does not
+ * save them while they are being made.
  */
-public class UserObserver {
+public class UserObserver implements EventSubscriber<DomainEvent> {
     private static final String CWD = System.getProperty("user.dir");
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+    public static final int DEFAULT_FLUSH_INTERVAL = 100;
     private static File storageFile;
+    private static File journalFile;
+    private static File tableFile;
+    private static TransactionJournal journal;
+    private static MappedUserTable table;
+    private static PersistenceMode persistenceMode = PersistenceMode.SNAPSHOT;
+    private static int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private static boolean recording = true;
+    private static FlushPolicy flushPolicy = FlushPolicy.ON_CHANGE;
+    private static int flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private static int transactionsSinceFlush = 0;
+    private static boolean shutdownHookAdded = false;
+    private static BackgroundSnapshotter snapshotter;
+    private static boolean flushDeferred = false;
+    private static boolean flushRequested = false;
+    private static final Set<AbstractObservable> dirtyObservables =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final List<JournalRecord> pendingTableRecords = new ArrayList<>();
+    private static UserObserver instance;
 
     /**
      * Initializes a UserObserver
@@ -22,6 +61,8 @@ public class UserObserver {
 
         String storageDirectoryName = dbDirectory.getPath();
         storageFile = new File(storageDirectoryName, "userStorage");
+        journalFile = new File(storageDirectoryName, "userJournal");
+        tableFile = new File(storageDirectoryName, "userTable");
 
         if (!storageFile.exists()) {
             try {
@@ -32,6 +73,30 @@ public class UserObserver {
         }
     }
 
+    /**
+     * @return the UserObserver subscribed to the shared EventBus, which creates the storage file the first time
+     */
+    public static synchronized UserObserver getInstance() {
+        if (instance == null) {
+            instance = new UserObserver();
+        }
+        return instance;
+    }
+
+    /**
+     * Saves the change an event describes, marking its source as dirty, or saves the changes so far if the
+     * flush policy requires it once any other event has happened.
+     * @param event an event published to the EventBus
+     */
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event instanceof DomainEvent.Changed) {
+            this.record(event.getSource(), ((DomainEvent.Changed) event).getRecord());
+        } else {
+            this.update();
+        }
+    }
+
     /**
      * @return the File that this UserObserver is storing all the Observable users in.
      */
@@ -40,16 +105,442 @@ public class UserObserver {
     }
 
     /**
-     * Serializes and saves the list of all users to a storage file database.
+     * @return the journal that changes are appended to in PersistenceMode.JOURNAL.
+     */
+    public static TransactionJournal getJournal() {
+        if (journal == null) {
+            if (journalFile == null) {
+                getInstance();
+            }
+            journal = new TransactionJournal(journalFile);
+        }
+        return journal;
+    }
+
+    /**
+     * @return the file holding the MappedUserTable used in PersistenceMode.MAPPED_TABLE.
+     */
+    public static File getTableFile() {
+        if (tableFile == null) {
+            getInstance();
+        }
+        return tableFile;
+    }
+
+    /**
+     * @return the table that balances are written to in PersistenceMode.MAPPED_TABLE, or null if it
+     * could not be opened.
+     */
+    public static MappedUserTable getTable() {
+        if (table == null) {
+            try {
+                table = new MappedUserTable(getTableFile());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Closes and deletes the MappedUserTable. Used once its contents have been saved to the storage file
+     * outside of PersistenceMode.MAPPED_TABLE, so that an outdated table is never loaded.
+     */
+    public static void deleteTable() {
+        synchronized (UserObserver.class) {
+            pendingTableRecords.clear();
+        }
+        if (table != null) {
+            table.close();
+            table = null;
+        }
+        getTableFile().delete();
+    }
+
+    /**
+     * @return how changes to users are currently being saved.
+     */
+    public static PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    /**
+     * Changes how changes to users are saved. Leaving PersistenceMode.JOURNAL or PersistenceMode.MAPPED_TABLE
+     * checkpoints the journal so that the storage file is up to date, and entering PersistenceMode.MAPPED_TABLE
+     * with users already loaded fills the table with them.
+     * @param mode the new persistence mode
+     */
+    public static void setPersistenceMode(PersistenceMode mode) {
+        PersistenceMode previousMode = persistenceMode;
+        persistenceMode = mode;
+        if (previousMode == mode) {
+            return;
+        }
+        if (previousMode != PersistenceMode.SNAPSHOT) {
+            checkpoint();
+        }
+        if (mode == PersistenceMode.MAPPED_TABLE && !User.getAllUsers().isEmpty()) {
+            try {
+                getTable().rebuild(User.getAllUsers().values(), AdminUser.isAuction());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sets how many journal records can accumulate before all Users are saved to the storage file and the
+     * journal is cleared.
+     * @param interval the number of records between checkpoints
+     */
+    public static void setCheckpointInterval(int interval) {
+        checkpointInterval = Math.max(1, interval);
+    }
+
+    /**
+     * @return when changes to users are currently being saved to disk.
+     */
+    public static FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    /**
+     * Changes when changes to users are saved to disk. Any unsaved changes are saved before switching.
+     * Unless every change is saved immediately, unsaved changes are also saved when the JVM shuts down normally.
+     * @param policy the new flush policy
+     */
+    public static void setFlushPolicy(FlushPolicy policy) {
+        flush();
+        flushPolicy = policy;
+        if (policy != FlushPolicy.ON_CHANGE) {
+            addShutdownHook();
+        }
+    }
+
+    /**
+     * @return true if snapshots in PersistenceMode.SNAPSHOT are written on a background thread
+     */
+    public static boolean isAsyncSnapshots() {
+        return snapshotter != null;
+    }
+
+    /**
+     * Turns writing snapshots in PersistenceMode.SNAPSHOT on a background thread on or off. Turning it off waits
+     * for any snapshot being written. Snapshots that are waiting to be written are written when the JVM shuts
+     * down normally.
+     * @param async true to write snapshots on a background thread
+     */
+    public static void setAsyncSnapshots(boolean async) {
+        if (async && snapshotter == null) {
+            if (storageFile == null) {
+                getInstance();
+            }
+            snapshotter = new BackgroundSnapshotter(storageFile);
+            addShutdownHook();
+        } else if (!async && snapshotter != null) {
+            BackgroundSnapshotter previous = snapshotter;
+            snapshotter = null;
+            if (!previous.close()) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    /**
+     * @return the BackgroundSnapshotter writing snapshots, or null if snapshots are written synchronously
+     */
+    public static BackgroundSnapshotter getSnapshotter() {
+        return snapshotter;
+    }
+
+    /**
+     * Waits until every snapshot being written on a background thread has been written.
+     */
+    public static void awaitSnapshots() {
+        if (snapshotter != null) {
+            snapshotter.awaitIdle();
+        }
+    }
+
+    /**
+     * Saves every unsaved change and waits until it has been written to disk. Used when the backend finishes, and
+     * when the JVM shuts down normally unless every change is saved immediately.
+     */
+    public static void shutdown() {
+        flush();
+        if (snapshotter != null && !snapshotter.awaitIdle()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Makes sure unsaved changes are saved by shutdown when the JVM shuts down normally.
+     */
+    private static void addShutdownHook() {
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(UserObserver::shutdown));
+            shutdownHookAdded = true;
+        }
+    }
+
+    /**
+     * Turns deferring saves on or off. While saves are deferred, a save the flush policy asks for is only
+     * requested, and whoever deferred saves makes it with flush once takeFlushRequest returns true. Used when
+     * users are changed on several threads at once, so a save never runs while another thread changes a user.
+     * @param deferred true to defer saves
+     */
+    public static synchronized void setFlushDeferred(boolean deferred) {
+        flushDeferred = deferred;
+    }
+
+    /**
+     * @return true if a save was requested while saves were deferred since this was last called
+     */
+    public static synchronized boolean takeFlushRequest() {
+        boolean requested = flushRequested;
+        flushRequested = false;
+        return requested;
+    }
+
+    /**
+     * Requests a save instead of making it if saves are deferred.
+     * @return true if the save was deferred
+     */
+    private static synchronized boolean deferFlush() {
+        if (flushDeferred) {
+            flushRequested = true;
+        }
+        return flushDeferred;
+    }
+
+    /**
+     * Sets how many transactions can be executed between saves in FlushPolicy.EVERY_N_TRANSACTIONS.
+     * @param interval the number of transactions between saves
+     */
+    public static void setFlushInterval(int interval) {
+        flushInterval = Math.max(1, interval);
+    }
+
+    /**
+     * @param observable an observable object
+     * @return true if the observable has changes that have not been saved to disk yet
+     */
+    public static boolean isDirty(AbstractObservable observable) {
+        return dirtyObservables.contains(observable);
+    }
+
+    /**
+     * @return the number of observable objects with changes that have not been saved to disk yet
+     */
+    public static int getDirtyCount() {
+        return dirtyObservables.size();
+    }
+
+    /**
+     * Forgets every unsaved change. Used when all users are about to be reloaded from disk.
+     */
+    public static void clearDirty() {
+        forgetDirty();
+        transactionsSinceFlush = 0;
+        synchronized (UserObserver.class) {
+            pendingTableRecords.clear();
+        }
+    }
+
+    /**
+     * Clears the dirty users after their changes were saved without a BackgroundSnapshotter seeing them.
+     */
+    private static void forgetDirty() {
+        dirtyObservables.clear();
+        if (snapshotter != null) {
+            snapshotter.invalidate();
+        }
+    }
+
+    /**
+     * Tells this observer that a transaction has finished executing, saving changes if the flush policy
+     * requires it. Transactions of different users may finish on different threads at once.
+     */
+    public static synchronized void transactionCompleted() {
+        transactionsSinceFlush++;
+        if ((flushPolicy == FlushPolicy.PER_TRANSACTION
+                || (flushPolicy == FlushPolicy.EVERY_N_TRANSACTIONS && transactionsSinceFlush >= flushInterval))
+                && !deferFlush()) {
+            flush();
+        }
+    }
+
+    /**
+     * Tells this observer that a user has logged out, saving changes if the flush policy requires it.
+     */
+    public static void sessionEnded() {
+        if (flushPolicy == FlushPolicy.ON_LOGOUT && !deferFlush()) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves every unsaved change to disk regardless of the flush policy.
+     * In PersistenceMode.SNAPSHOT the storage file is only rewritten if a user is dirty.
+     */
+    public static void flush() {
+        transactionsSinceFlush = 0;
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            if (!dirtyObservables.isEmpty()) {
+                saveSnapshot();
+            }
+        } else {
+            getJournal().flush();
+            if (persistenceMode == PersistenceMode.MAPPED_TABLE) {
+                applyPendingTableRecords();
+            }
+            if (getJournal().size() >= checkpointInterval) {
+                checkpoint();
+            }
+            forgetDirty();
+        }
+    }
+
+    /**
+     * @return false if changes are currently being ignored because users are being restored from the database.
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Turns the saving of changes on or off. Used while users are being restored from the database so that
+     * restoring them is not saved as new changes.
+     * @param isRecording false to ignore all changes until turned back on
+     */
+    public static void setRecording(boolean isRecording) {
+        recording = isRecording;
+    }
+
+    /**
+     * Marks the given observable as dirty and appends a description of its change to the journal when in
+     * PersistenceMode.JOURNAL. The change is saved to disk on the next flush.
+     * @param observable the observable that has changed
+     * @param record the change that has occurred
+     */
+    public void record(AbstractObservable observable, JournalRecord record) {
+        if (recording) {
+            synchronized (UserObserver.class) {
+                dirtyObservables.add(observable);
+                if (persistenceMode == PersistenceMode.JOURNAL) {
+                    getJournal().append(record);
+                } else if (persistenceMode == PersistenceMode.MAPPED_TABLE) {
+                    recordInTable(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Journals a change, and holds it back from the MappedUserTable until the journal has been flushed if it
+     * changes a row of the table or the auction sale.
+     * @param record the change that has occurred
+     */
+    private static void recordInTable(JournalRecord record) {
+        getJournal().append(record);
+        if (record.getType() != JournalRecord.Type.ADD_GAME && record.getType() != JournalRecord.Type.REMOVE_GAME) {
+            pendingTableRecords.add(record);
+        }
+    }
+
+    /**
+     * Writes the changes held back from the MappedUserTable to it and to disk. Only called once the journal
+     * holding them has been flushed.
+     */
+    private static synchronized void applyPendingTableRecords() {
+        if (pendingTableRecords.isEmpty()) {
+            return;
+        }
+        MappedUserTable mapped = getTable();
+        if (mapped == null) {
+            return;
+        }
+        try {
+            for (JournalRecord record: pendingTableRecords) {
+                mapped.apply(record);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        pendingTableRecords.clear();
+        mapped.force();
+    }
+
+    /**
+     * Saves all changes that have occurred when using FlushPolicy.ON_CHANGE.
+     * In PersistenceMode.SNAPSHOT this saves a snapshot of all users to a storage file database.
+     * Otherwise this writes the journal to disk and checkpoints it when it is large enough.
      */
     public void update() {
+        if (!recording || flushPolicy != FlushPolicy.ON_CHANGE || deferFlush()) {
+            return;
+        }
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            if (!dirtyObservables.isEmpty()) {
+                saveSnapshot();
+            }
+        } else {
+            flush();
+        }
+    }
+
+    /**
+     * Saves all users to the storage file and clears the journal, since every record in it is now in the
+     * storage file.
+     */
+    public static void checkpoint() {
+        if (persistenceMode == PersistenceMode.MAPPED_TABLE) {
+            // The journal is about to be cleared, so the table has to hold every change in it
+            getJournal().flush();
+            applyPendingTableRecords();
+        }
+        writeSnapshot();
+        forgetDirty();
+        getJournal().truncate();
+    }
+
+    /**
+     * Saves a snapshot of all users in PersistenceMode.SNAPSHOT and clears the dirty users. With asynchronous
+     * snapshots the snapshot is captured and written on a background thread, unless it has to copy users that have
+     * not been loaded from the current storage file or delete an outdated MappedUserTable.
+     */
+    private static void saveSnapshot() {
+        if (snapshotter != null && User.getRegistry().getUnloadedCount() == 0
+                && table == null && !getTableFile().exists()) {
+            try {
+                snapshotter.submit(User.getRegistry().getLoadedUsers(), dirtyObservables, AdminUser.isAuction());
+                dirtyObservables.clear();
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        writeSnapshot();
+        forgetDirty();
+    }
+
+    /**
+     * Saves a binary snapshot of all users and the auction sale to a storage file database.
+     * Outside of PersistenceMode.MAPPED_TABLE any MappedUserTable is now outdated and is deleted, after loading the
+     * users whose balances are only up to date in the table.
+     * Any snapshot being written on a background thread is finished first so that it cannot replace this one.
+     */
+    private static void writeSnapshot() {
+        if (storageFile == null) {
+            getInstance();
+        }
+        awaitSnapshots();
+        if (persistenceMode != PersistenceMode.MAPPED_TABLE && (table != null || tableFile.exists())) {
+            User.getRegistry().materializeAll();
+            deleteTable();
+        }
         try {
-            // March 10 https://www.youtube.com/watch?v=qo9S2CeoqQE&t=6s
-            FileOutputStream fos = new FileOutputStream(storageFile);
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
-            oos.writeObject(User.getAllUsers());
-            fos.close();
-            oos.close();
+            UserSnapshotWriter.write(storageFile, User.getRegistry(), AdminUser.isAuction());
         } catch (IOException e) {
             e.printStackTrace();
         }
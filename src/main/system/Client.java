@@ -2,12 +2,23 @@ package src.main.system;
 
 import src.main.command.*;
 import src.main.exceptions.*;
+import src.main.observer.FlushPolicy;
+import src.main.observer.EventLog;
+import src.main.observer.PersistenceMode;
+import src.main.observer.UserObserver;
 import src.main.users.UserFactory;
 import src.main.users.UserLoader;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A class that performs the execution of the backend system through the use of transaction codes in daily.txt files.
@@ -17,6 +28,23 @@ public class Client {
     private static final int MANUALLY_INPUT_USERS = 0;
     private static final int EXECUTE_BACKEND = 1;
     private static final int INVALID_CHOICE = -1;
+    private static final String PERSISTENCE_MODE_PROPERTY = "persistence.mode";
+    private static final String FLUSH_POLICY_PROPERTY = "persistence.flush";
+    private static final String FLUSH_INTERVAL_PROPERTY = "persistence.flushInterval";
+    private static final String ASYNC_SNAPSHOTS_PROPERTY = "persistence.async";
+    private static final String LAZY_LOADING_PROPERTY = "users.lazy";
+    private static final String MAPPED_TRANSACTIONS_PROPERTY = "transactions.mapped";
+    private static final String PARSER_THREADS_PROPERTY = "transactions.parsers";
+    private static final String SESSION_THREADS_PROPERTY = "transactions.sessionThreads";
+    private static final String SERVER_PORT_PROPERTY = "server.port";
+    private static final String SERVER_WORKERS_PROPERTY = "server.workers";
+    private static final String HTTP_PORT_PROPERTY = "server.httpPort";
+    private static final String LOG_LEVEL_PROPERTY = "log.level";
+    private static final String LOG_CONSOLE_PROPERTY = "log.console";
+    private static final String LOG_FILE_PROPERTY = "log.file";
+    private static final String LOG_MAX_BYTES_PROPERTY = "log.maxBytes";
+    private static final String LOG_MAX_FILES_PROPERTY = "log.maxFiles";
+    private static final String ERRORS_MAX_BYTES_PROPERTY = "errors.maxBytes";
 
     /**
      * Allows the user to manually input users for use in daily transactions in the backend.
@@ -59,6 +87,8 @@ public class Client {
             }
             index++;
         }
+        UserObserver.shutdown();
+        EventLog.getShared().flush();
     }
 
     /**
@@ -127,47 +157,353 @@ public class Client {
      */
     public static void executeBackend(){
         UserLoader.loadUsers();
-        ErrorRecorder recorder = new ErrorRecorder();
+        ErrorRecorder recorder = newErrorRecorder();
+        executeDay(new File(System.getProperty("user.dir"), "daily.txt"), recorder);
+        UserObserver.shutdown();
+        EventLog.getShared().flush();
+        recorder.closeWriter();
+    }
+
+    /**
+     * @return an ErrorRecorder writing to errorLogs.txt in the working directory, with at most as many bytes of errors
+     * written as the errors.maxBytes system property, which defaults to ErrorRecorder.DEFAULT_MAX_BYTES
+     */
+    private static ErrorRecorder newErrorRecorder() {
+        return new ErrorRecorder(new File(System.getProperty("user.dir"), "errorLogs.txt"),
+                Long.getLong(ERRORS_MAX_BYTES_PROPERTY, ErrorRecorder.DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Executes several days of transactions in one run, reading users from the database once before the first day
+     * and saving them once after the last. Between days, users are prepared for a new day in memory, as if they had
+     * been saved and loaded again. The number of transactions and the time taken are printed for each day.
+     * @param dayFiles the daily transaction files, in the order the days happened
+     */
+    public static void executeBatch(List<File> dayFiles) {
+        FlushPolicy policy = UserObserver.getFlushPolicy();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        UserLoader.loadUsers();
+        ErrorRecorder recorder = newErrorRecorder();
+
+        int totalTransactions = 0;
+        long batchStart = System.nanoTime();
+        for (int day = 0; day < dayFiles.size(); day++) {
+            if (day > 0) {
+                UserLoader.startNewDay();
+            }
+            long dayStart = System.nanoTime();
+            int transactions = executeDay(dayFiles.get(day), recorder);
+            reportThroughput(dayFiles.get(day).getName(), transactions, System.nanoTime() - dayStart);
+            totalTransactions += transactions;
+        }
+        reportThroughput(dayFiles.size() + " days", totalTransactions, System.nanoTime() - batchStart);
+
+        UserObserver.setFlushPolicy(policy);
+        UserObserver.shutdown();
+        EventLog.getShared().flush();
+        recorder.closeWriter();
+    }
+
+    /**
+     * Executes transactions sent to a TransactionServer on a local port until the program is stopped, instead of
+     * reading them from a daily.txt file. Users are saved and the server is closed when the program stops.
+     * @param port the port to listen on
+     * @param workerThreads the number of threads that execute transactions
+     */
+    public static void executeServer(int port, int workerThreads) {
+        UserLoader.loadUsers();
+        try {
+            TransactionServer server = new TransactionServer(port, workerThreads);
+            closeOnShutdown(server);
+            System.out.println("Accepting transactions on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Could not listen on port " + port + ": " + e.getMessage());
+            UserObserver.shutdown();
+        }
+    }
+
+    /**
+     * Executes transactions and answers queries sent to a TransactionHttpServer on a local port until the program
+     * is stopped. Users are saved and the server is closed when the program stops.
+     * @param port the port to listen on
+     * @param threads the number of threads that handle requests
+     */
+    public static void executeHttpServer(int port, int threads) {
+        UserLoader.loadUsers();
+        try {
+            TransactionHttpServer server = new TransactionHttpServer(port, threads);
+            closeOnShutdown(server);
+            System.out.println("Accepting HTTP requests on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Could not listen on port " + port + ": " + e.getMessage());
+            UserObserver.shutdown();
+        }
+    }
 
+    /**
+     * Closes a server and saves users when the program stops.
+     */
+    private static void closeOnShutdown(AutoCloseable server) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            UserObserver.shutdown();
+            EventLog.getShared().flush();
+        }));
+    }
+
+    /**
+     * Finds the daily transaction files to execute in a batch. The .txt files in a directory are taken in order of
+     * the number in their name, so day10.txt comes after day9.txt.
+     * @param paths daily transaction files, or directories containing them
+     * @return the daily transaction files
+     */
+    public static List<File> findDayFiles(String[] paths) {
+        List<File> dayFiles = new ArrayList<>();
+        for (String path: paths) {
+            File file = new File(path);
+            File[] dayFilesInDirectory = file.listFiles((directory, name) -> name.endsWith(".txt"));
+            if (dayFilesInDirectory == null) {
+                dayFiles.add(file);
+            } else {
+                Arrays.sort(dayFilesInDirectory,
+                        Comparator.comparingLong(Client::getDayNumber).thenComparing(File::getName));
+                dayFiles.addAll(Arrays.asList(dayFilesInDirectory));
+            }
+        }
+        return dayFiles;
+    }
+
+    /**
+     * @param dayFile a daily transaction file
+     * @return the last number in the name of the file, or -1 if there is none
+     */
+    private static long getDayNumber(File dayFile) {
+        Matcher matcher = Pattern.compile("(\\d{1,18})\\D*$").matcher(dayFile.getName());
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Prints how many transactions were executed and how quickly, after everything logged so far.
+     */
+    private static void reportThroughput(String name, int transactions, long nanos) {
+        EventLog.getShared().flush();
+        System.out.printf("%s: %d transactions in %.1f ms (%.0f transactions/s)%n", name, transactions, nanos / 1e6,
+                nanos == 0 ? 0.0 : transactions * 1e9 / nanos);
+    }
+
+    /**
+     * Executes every transaction in a daily transaction file.
+     * When the transactions.sessionThreads system property is a positive number, sessions that do not share any
+     * users are executed on that many threads at once by a SessionExecutor. Otherwise, when the
+     * transactions.mapped system property is true, the file is memory-mapped and parsed from its bytes by a
+     * MappedTransactionFile instead of being read line by line. Otherwise, when the transactions.parsers system
+     * property is a positive number, that many threads make commands from transaction codes ahead of the thread
+     * executing them.
+     * @param dailyFile the daily transaction file
+     * @param recorder records the transactions that fail
+     * @return the number of transaction codes read from the file
+     */
+    private static int executeDay(File dailyFile, ErrorRecorder recorder) {
         DistributionSystem system = new DistributionSystem();
         Invoker button = new Invoker();
         TransactionFactory factory = new TransactionFactory();
+        String fileName = dailyFile.getName();
+        int transactions = 0;
 
-        TransactionFile transactionFile = new TransactionFile(new File(System.getProperty("user.dir"), "daily.txt"));
-
-        Command cmd;
-        for (String transactionCode: transactionFile) {
-            String errorMessage;
-            try {
-                cmd = factory.getTransactionCommand(system, transactionCode);
-                if (!system.isCurrLogin() && !(cmd instanceof LoginCommand)){
-                    continue; //According to @801
+        int parserThreads = Integer.getInteger(PARSER_THREADS_PROPERTY, 0);
+        int sessionThreads = Integer.getInteger(SESSION_THREADS_PROPERTY, 0);
+        if (sessionThreads > 0) {
+            TransactionFile transactionFile = new TransactionFile(dailyFile, true);
+            try (SessionExecutor executor = new SessionExecutor(sessionThreads)) {
+                transactions = executor.execute(transactionFile, recorder, fileName);
+            }
+            transactionFile.close();
+        } else if (Boolean.getBoolean(MAPPED_TRANSACTIONS_PROPERTY) && dailyFile.exists()) {
+            try (MappedTransactionFile transactionFile = new MappedTransactionFile(dailyFile)) {
+                Supplier<String> transactionCode = transactionFile::getCode;
+                while (transactionFile.next()) {
+                    transactions++;
+                    try {
+                        runTransaction(system, button, recorder, transactionFile.getCommand(system), transactionCode);
+                    } catch (FatalException e) {
+                        recordFatalError(recorder, transactionFile.getCode(), fileName, e);
+                    }
                 }
-                button.setCommand(cmd);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        } else if (parserThreads > 0) {
+            TransactionFile transactionFile = new TransactionFile(dailyFile, true);
+            try (TransactionPipeline pipeline = new TransactionPipeline(system, transactionFile, parserThreads,
+                    TransactionPipeline.DEFAULT_CAPACITY)) {
+                while (pipeline.hasNext()) {
+                    TransactionPipeline.ParsedTransaction transaction = pipeline.next();
+                    transactions++;
+                    try {
+                        runTransaction(system, button, recorder, transaction.getCommand(), transaction::getCode);
+                    } catch (FatalException e) {
+                        recordFatalError(recorder, transaction.getCode(), fileName, e);
+                    }
+                }
+            }
+            transactionFile.close();
+        } else {
+            TransactionFile transactionFile = new TransactionFile(dailyFile, true);
+            for (String transactionCode: transactionFile) {
+                transactions++;
                 try {
-                    button.run();
-                } catch (ConstraintException e) {
-                    errorMessage = "Constraint error: Transaction Code: " + transactionCode +
-                            "\nMessage - " + e.getMessage() + "\n\n";
-                    recorder.recordError(errorMessage);
-                    System.out.println("Transaction Code: " + transactionCode + " - " + e.getMessage());
+                    runTransaction(system, button, recorder, factory.getTransactionCommand(system, transactionCode),
+                            () -> transactionCode);
+                } catch (FatalException e) {
+                    recordFatalError(recorder, transactionCode, fileName, e);
                 }
-            } catch (FatalException e) {
-                errorMessage = "Fatal error: Transaction Code: " + transactionCode +
-                        "\nMessage - " + e.getMessage() +
-                        "\nin file: " + "daily.txt" +"\n\n";
-                recorder.recordError(errorMessage);
-                System.out.println("Transaction Code: " + transactionCode + " - " + e.getMessage());
+            }
+            transactionFile.close();
+        }
+        return transactions;
+    }
+
+    /**
+     * Runs the command for one transaction code, recording it if a constraint stops it from being performed.
+     * Commands other than logins are skipped while nobody is logged in.
+     * @param transactionCode gives the transaction code of the command, only needed when an error is recorded
+     */
+    static void runTransaction(DistributionSystem system, Invoker button, ErrorRecorder recorder, Command cmd,
+                               Supplier<String> transactionCode) {
+        if (!system.isCurrLogin() && !(cmd instanceof LoginCommand)){
+            return; //According to @801
+        }
+        button.setCommand(cmd);
+        try {
+            button.run();
+        } catch (ConstraintException e) {
+            String code = transactionCode.get();
+            String errorMessage = "Constraint error: Transaction Code: " + code +
+                    "\nMessage - " + e.getMessage() + "\n\n";
+            recorder.recordError(code, e, errorMessage);
+            EventLog.getShared().log(EventLog.Level.ERROR, "Transaction",
+                    () -> "Transaction Code: " + code + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a transaction code that could not be made into a command.
+     * @param fileName the name of the daily transaction file the code is from
+     */
+    static void recordFatalError(ErrorRecorder recorder, String transactionCode, String fileName,
+                                 FatalException e) {
+        String errorMessage = "Fatal error: Transaction Code: " + transactionCode +
+                "\nMessage - " + e.getMessage() +
+                "\nin file: " + fileName +"\n\n";
+        recorder.recordError(transactionCode, e, errorMessage);
+        EventLog.getShared().log(EventLog.Level.ERROR, "Transaction",
+                () -> "Transaction Code: " + transactionCode + " - " + e.getMessage());
+    }
+
+    /**
+     * Sets how changes to users are saved from the persistence.mode system property (snapshot, journal or
+     * mapped_table), and when they are saved from the persistence.flush (a FlushPolicy) and
+     * persistence.flushInterval properties, whether snapshots are written on a background thread from the
+     * persistence.async property, and whether users are only read from the database when first looked up from the
+     * users.lazy property.
+     * Defaults to synchronously saving a full snapshot after every change and reading every user at startup.
+     */
+    private static void configurePersistence() {
+        String mode = System.getProperty(PERSISTENCE_MODE_PROPERTY);
+        if (mode != null) {
+            try {
+                UserObserver.setPersistenceMode(PersistenceMode.valueOf(mode.strip().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown persistence mode '" + mode + "', using " + UserObserver.getPersistenceMode());
+            }
+        }
+
+        String interval = System.getProperty(FLUSH_INTERVAL_PROPERTY);
+        if (interval != null) {
+            try {
+                UserObserver.setFlushInterval(Integer.parseInt(interval.strip()));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid flush interval '" + interval + "', ignoring it.");
+            }
+        }
+
+        String policy = System.getProperty(FLUSH_POLICY_PROPERTY);
+        if (policy != null) {
+            try {
+                UserObserver.setFlushPolicy(FlushPolicy.valueOf(policy.strip().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown flush policy '" + policy + "', using " + UserObserver.getFlushPolicy());
+            }
+        }
+
+        UserObserver.setAsyncSnapshots(Boolean.getBoolean(ASYNC_SNAPSHOTS_PROPERTY));
+        UserLoader.setLazyLoading(Boolean.getBoolean(LAZY_LOADING_PROPERTY));
+    }
+
+    /**
+     * Sets what is written to the EventLog from the log.level system property (an EventLog.Level), whether it is
+     * written to the console from the log.console property, and which file it is also written to from the log.file
+     * property, rotated once it holds log.maxBytes bytes with log.maxFiles rotated files kept.
+     * Defaults to writing events, warnings and errors to the console only. Batch runs can set log.console to false
+     * to keep the console quiet.
+     */
+    private static void configureLogging() {
+        EventLog log = EventLog.getShared();
+        String level = System.getProperty(LOG_LEVEL_PROPERTY);
+        if (level != null) {
+            try {
+                log.setLevel(EventLog.Level.valueOf(level.strip().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown log level '" + level + "', using " + log.getLevel());
+            }
+        }
+
+        String console = System.getProperty(LOG_CONSOLE_PROPERTY);
+        if (console != null) {
+            log.setConsole(Boolean.parseBoolean(console.strip()));
+        }
+
+        String logFile = System.getProperty(LOG_FILE_PROPERTY);
+        if (logFile != null) {
+            try {
+                log.setFile(new File(logFile), Long.getLong(LOG_MAX_BYTES_PROPERTY, EventLog.DEFAULT_MAX_FILE_BYTES),
+                        Integer.getInteger(LOG_MAX_FILES_PROPERTY, EventLog.DEFAULT_MAX_BACKUPS));
+            } catch (IOException e) {
+                System.out.println("Could not open log file '" + logFile + "': " + e.getMessage());
             }
         }
-        recorder.closeWriter();
     }
 
     /**
      * This function gives asks the user whether they want to manually create users or execute a days worth of
      * transactions in the backend by reading a daily.txt file.
+     * When given daily transaction files or directories of them as arguments, every day is executed in one batch
+     * without asking. When the server.port system property is set, transactions are instead accepted from a local
+     * socket by a TransactionServer, with server.workers threads executing them, or when the server.httpPort
+     * property is set, from HTTP requests to a TransactionHttpServer.
      */
     public static void main(String[] args) {
+        configureLogging();
+        configurePersistence();
+        int workers = Integer.getInteger(SERVER_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        Integer port = Integer.getInteger(SERVER_PORT_PROPERTY);
+        if (port != null) {
+            executeServer(port, workers);
+            return;
+        }
+        Integer httpPort = Integer.getInteger(HTTP_PORT_PROPERTY);
+        if (httpPort != null) {
+            executeHttpServer(httpPort, workers);
+            return;
+        }
+        if (args.length > 0) {
+            executeBatch(findDayFiles(args));
+            return;
+        }
         int choice = getChoice();
 
         if (choice == MANUALLY_INPUT_USERS) {
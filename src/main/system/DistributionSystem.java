@@ -1,6 +1,10 @@
 package src.main.system;
 
+import src.main.Money;
 import src.main.exceptions.*;
+import src.main.observer.DomainEvent;
+import src.main.observer.EventLog;
+import src.main.observer.UserObserver;
 import src.main.users.User;
 
 /**
@@ -50,12 +54,14 @@ public class DistributionSystem {
             throw new UsernameException("User '" + username + "' does not exist, will jump to next login request.");
         }
         currUser = User.getAllUsers().get(username);
-        currUser.notifyObserver(currUser.getUsername() + " has logged in.");
+        if (currUser.isPublishing()) {
+            currUser.publish(new DomainEvent.LoggedIn(currUser, currUser.getUsername()));
+        }
         if (!currUser.getAccountType().equals(type)) {
-            System.out.println(username + ": The user type is not matching! The login transactions will still execute.");
+            EventLog.getShared().warning("DistributionSystem", username + ": The user type is not matching! The login transactions will still execute.");
         }
-        if (!String.format("%.2f", currUser.getBalance()).equals(String.format("%.2f", credit))){
-            System.out.println(username + ": The user balance is not matching! The login transactions will still execute.");
+        if (currUser.getBalanceCents() != Money.toCents(credit)) {
+            EventLog.getShared().warning("DistributionSystem", username + ": The user balance is not matching! The login transactions will still execute.");
         }
     }
 
@@ -65,8 +71,11 @@ public class DistributionSystem {
      */
     public void logout() throws UsernameException {
         if (isCurrLogin()) {
-            currUser.notifyObserver(currUser.getUsername() + " is logging out.");
+            if (currUser.isPublishing()) {
+                currUser.publish(new DomainEvent.LoggedOut(currUser, currUser.getUsername()));
+            }
             currUser = null;
+            UserObserver.sessionEnded();
         } else {
             throw new UsernameException("There is no user logged in.");
         }
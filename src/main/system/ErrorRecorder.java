@@ -1,52 +1,288 @@
 package src.main.system;
 
+import src.main.observer.EventLog;
+
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * A class that records errors that occur in system.Client by writing them to a file.
+ *
+ * Errors are written in the order they were recorded by a background thread, so that recording an error never waits
+ * for the disk. Every error is counted by the type of its transaction code and the kind of error, and the counts are
+ * written as a summary table when the ErrorRecorder is closed. An error identical to one already written is only
+ * counted, and once the file holds the maximum number of bytes for a run, further errors are only counted too. Errors
+ * are written in UTF-8, and the maximum is in encoded bytes rather than characters.
  */
 public class ErrorRecorder {
-    private BufferedWriter writer;
-    private final ArrayList<String> errorLogs = new ArrayList<>();
+    public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+    private static final String CLOSED = new String("closed");
+
+    private final List<RecordedError> errorLogs = new ArrayList<>();
+    private final boolean inMemory;
+    private final long maxBytes;
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private Thread writerThread;
+    private volatile IOException writeFailure;
+
+    private final Map<String, Map<String, Integer>> counts = new TreeMap<>();
+    private final Set<String> written = new HashSet<>();
+    private int errorCount = 0;
+    private int duplicateCount = 0;
+    private int omittedCount = 0;
+    private long bytes = 0;
 
     /**
-     * Initializes an ErrorRecorder
+     * Initializes an ErrorRecorder writing to errorLogs.txt in the working directory, replacing any errors from an
+     * earlier run, with at most DEFAULT_MAX_BYTES of errors written.
      */
     public ErrorRecorder() {
-        File errorFile = new File(System.getProperty("user.dir"), "errorLogs.txt");
+        this(new File(System.getProperty("user.dir"), "errorLogs.txt"), DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Initializes an ErrorRecorder writing to the given file, replacing anything in it. If the file cannot be opened,
+     * errors are still counted and summarized.
+     * @param errorFile the file to write errors to
+     * @param maxBytes the most bytes of errors written to the file before errors are only counted
+     */
+    public ErrorRecorder(File errorFile, long maxBytes) {
+        this.inMemory = false;
+        this.maxBytes = maxBytes;
         try {
-            if (errorFile.exists()) {
-                errorFile.delete();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(errorFile), StandardCharsets.UTF_8));
+            this.writerThread = new Thread(() -> this.runWriter(writer), "error-recorder");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        } catch (IOException e) {
+            this.writeFailure = e;
+            EventLog.getShared().error("ErrorRecorder", "Could not open " + errorFile.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Initializes an ErrorRecorder that keeps errors in memory until they are copied to another ErrorRecorder with
+     * recordAll.
+     */
+    private ErrorRecorder(boolean inMemory) {
+        this.inMemory = inMemory;
+        this.maxBytes = Long.MAX_VALUE;
+    }
+
+    /**
+     * @return an ErrorRecorder that keeps errors in memory instead of writing them to the error logs file
+     */
+    static ErrorRecorder inMemory() {
+        return new ErrorRecorder(true);
+    }
+
+    /**
+     * Records an error that stopped a transaction code from being performed.
+     * @param transactionCode the transaction code, whose first two characters give its type
+     * @param error what went wrong
+     * @param errorMessage the message corresponding to the exception, as it is written to the error logs file
+     */
+    public void recordError(String transactionCode, Exception error, String errorMessage) {
+        String type = transactionCode.length() > 2 ? transactionCode.substring(0, 2) : transactionCode;
+        this.record(type, error.getClass().getSimpleName(), errorMessage);
+    }
+
+    /**
+     * Counts an error and writes it to the error logs file unless it is a duplicate or the file is full.
+     */
+    private synchronized void record(String type, String kind, String errorMessage) {
+        if (this.inMemory) {
+            this.errorLogs.add(new RecordedError(type, kind, errorMessage));
+            return;
+        }
+        this.errorCount++;
+        this.counts.computeIfAbsent(type, t -> new TreeMap<>()).merge(kind, 1, Integer::sum);
+        if (this.written.contains(errorMessage)) {
+            this.duplicateCount++;
+            return;
+        }
+        long length = encodedLength(errorMessage);
+        if (this.bytes + length > this.maxBytes) {
+            this.omittedCount++;
+        } else {
+            this.written.add(errorMessage);
+            this.bytes += length;
+            this.pending.add(errorMessage);
+        }
+    }
+
+    /**
+     * Works out how many bytes a message takes in UTF-8 without encoding it. A surrogate that is not part of a pair
+     * is written as a single replacement byte.
+     * @param message an error message
+     * @return the number of bytes the message takes in the error logs file
+     */
+    private static long encodedLength(String message) {
+        long length = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < message.length()
+                    && Character.isLowSurrogate(message.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
             }
-            errorFile.createNewFile();
+        }
+        return length;
+    }
+
+    /**
+     * Records every error kept in memory by another ErrorRecorder, in the order they occurred.
+     * @param errors an ErrorRecorder made by inMemory
+     */
+    void recordAll(ErrorRecorder errors) {
+        for (RecordedError error: errors.errorLogs) {
+            this.record(error.type, error.kind, error.message);
+        }
+        errors.errorLogs.clear();
+    }
 
-            this.writer = new BufferedWriter(new FileWriter(errorFile, true));
-        } catch (IOException ignored) {}
+    /**
+     * @return the number of errors recorded
+     */
+    public synchronized int getErrorCount() {
+        return this.errorCount;
     }
 
     /**
-     * Writes the given transaction code and its corresponding error message to the error logs file.
-     * @param errorMessage the message corresponding to the exception
+     * @param type the first two characters of a transaction code
+     * @param kind the simple name of an exception class
+     * @return the number of errors of the kind recorded for transaction codes of the type
      */
-    protected void recordError(String errorMessage) {
-        try {
-            this.writer.write(errorMessage);
+    public synchronized int getErrorCount(String type, String kind) {
+        return this.counts.getOrDefault(type, Map.of()).getOrDefault(kind, 0);
+    }
+
+    /**
+     * @return the number of errors that were only counted because an identical error was already written
+     */
+    public synchronized int getDuplicateCount() {
+        return this.duplicateCount;
+    }
+
+    /**
+     * @return the number of errors that were only counted because the error logs file was full
+     */
+    public synchronized int getOmittedCount() {
+        return this.omittedCount;
+    }
+
+    /**
+     * @return a table of how many errors of each kind were recorded for each type of transaction code
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder("Error summary\n");
+        summary.append(String.format("%-6s%-32s%8s\n", "Code", "Error", "Count"));
+        for (Map.Entry<String, Map<String, Integer>> type: this.counts.entrySet()) {
+            for (Map.Entry<String, Integer> kind: type.getValue().entrySet()) {
+                summary.append(String.format("%-6s%-32s%8d\n", type.getKey(), kind.getKey(), kind.getValue()));
+            }
+        }
+        summary.append(String.format("%-38s%8d\n", "Total", this.errorCount));
+        if (this.duplicateCount > 0) {
+            summary.append(String.format("%-38s%8d\n", "Duplicates not written again", this.duplicateCount));
+        }
+        if (this.omittedCount > 0) {
+            summary.append(String.format("%-38s%8d\n", "Not written past " + this.maxBytes + " bytes",
+                    this.omittedCount));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes errors as they are recorded until the ErrorRecorder is closed, then writes the summary table and closes
+     * the file.
+     */
+    private void runWriter(Writer writer) {
+        List<String> batch = new ArrayList<>();
+        try (writer) {
+            while (true) {
+                batch.add(this.pending.take());
+                this.pending.drainTo(batch);
+                for (String errorMessage: batch) {
+                    if (errorMessage == CLOSED) {
+                        if (this.getErrorCount() > 0) {
+                            writer.write(this.getSummary());
+                        }
+                        return;
+                    }
+                    writer.write(errorMessage);
+                }
+                batch.clear();
+                if (this.pending.isEmpty()) {
+                    writer.flush();
+                }
+            }
         } catch (IOException e) {
-            e.printStackTrace();
+            this.writeFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Closes this ErrorRecorders buffered writer.
+     * Writes every error recorded so far and the summary table, then closes the error logs file. The summary is also
+     * logged, along with any failure to write the file.
      */
-    protected void closeWriter() {
-        try {
-            this.writer.close();
-        } catch (IOException ignored) {}
+    public void closeWriter() {
+        if (this.inMemory) {
+            return;
+        }
+        if (this.writerThread != null) {
+            this.pending.add(CLOSED);
+            try {
+                this.writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.writerThread = null;
+        }
+        if (this.getErrorCount() > 0) {
+            EventLog.getShared().info("ErrorRecorder", this.getSummary().stripTrailing());
+        }
+        if (this.writeFailure != null) {
+            EventLog.getShared().error("ErrorRecorder", "Could not write errors: " + this.writeFailure.getMessage());
+        }
     }
 
+    /**
+     * An error kept in memory.
+     */
+    private static final class RecordedError {
+        private final String type;
+        private final String kind;
+        private final String message;
+
+        private RecordedError(String type, String kind, String message) {
+            this.type = type;
+            this.kind = kind;
+            this.message = message;
+        }
+    }
 }
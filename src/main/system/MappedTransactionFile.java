@@ -0,0 +1,288 @@
+package src.main.system;
+
+import src.main.command.Command;
+import src.main.exceptions.FatalException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads transaction codes from a memory-mapped daily.txt, parsing each line straight from the mapped bytes instead
+ * of decoding it into a String first.
+ *
+ * Lines are visited one at a time with next. A line of ASCII characters is parsed in place, with usernames and game
+ * names taken from a small cache of recently seen fields and amounts read directly from the digits. Any other line
+ * is decoded the same way TransactionFile decodes it and parsed from the String, so every line produces the same
+ * command or FatalException as it would from a TransactionFile.
+ *
+ * Files larger than the mapping window are mapped one window at a time. Lines are split the same way as by
+ * BufferedReader.readLine, and a single line must be shorter than the window.
+ */
+public class MappedTransactionFile implements Closeable {
+    public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+    private static final int FIELD_CACHE_SIZE = 4096;
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private int windowLength = 0;
+    private long position = 0;
+    private int lineStart;
+    private int lineEnd;
+    private boolean skipLineFeed = false;
+
+    private final Line line = new Line();
+    private final FieldFactory factory = new FieldFactory();
+    private final String[] fieldCache = new String[FIELD_CACHE_SIZE];
+    private byte[] fieldBytes = new byte[64];
+
+    /**
+     * Opens and maps a transaction file.
+     * @param file the transaction file
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public MappedTransactionFile(File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens and maps a transaction file at most windowSize bytes at a time.
+     * @param file the transaction file
+     * @param windowSize the largest part of the file that is mapped at once
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public MappedTransactionFile(File file, long windowSize) throws IOException {
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = this.raf.getChannel();
+        this.size = this.channel.size();
+        this.windowSize = Math.max(2, Math.min(windowSize, Integer.MAX_VALUE));
+        if (this.size > 0) {
+            this.map(0);
+        }
+    }
+
+    /**
+     * Moves to the next line of the file.
+     * @return false if there are no lines left
+     */
+    public boolean next() {
+        // A '\r' ending the previous window may be the first half of a "\r\n"
+        if (this.skipLineFeed) {
+            this.skipLineFeed = false;
+            if (this.position < this.size && this.remapAt(this.position) && this.window.get(0) == '\n') {
+                this.position++;
+            }
+        }
+        if (this.position >= this.size) {
+            return false;
+        }
+        int start = (int) (this.position - this.windowStart);
+        int end = this.findLineEnd(start);
+        // Remap when the line may continue past the window
+        if (end == this.windowLength && this.windowStart + this.windowLength < this.size && start > 0) {
+            if (!this.remapAt(this.position)) {
+                return false;
+            }
+            start = 0;
+            end = this.findLineEnd(0);
+        }
+        this.lineStart = start;
+        this.lineEnd = end;
+
+        this.position = this.windowStart + end;
+        if (end < this.windowLength) {
+            this.position++;
+            if (this.window.get(end) == '\r') {
+                if (end + 1 < this.windowLength) {
+                    if (this.window.get(end + 1) == '\n') {
+                        this.position++;
+                    }
+                } else {
+                    this.skipLineFeed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the current line, decoded with the default charset as TransactionFile would
+     */
+    public String getCode() {
+        return this.decode(0, this.lineEnd - this.lineStart, Charset.defaultCharset());
+    }
+
+    /**
+     * Makes the command for the current line.
+     * @param system the distribution system that keeps track of the User that would perform the command
+     * @return the command for the current line
+     * @throws FatalException when the line does not correspond to any existing transaction command
+     */
+    public Command getCommand(DistributionSystem system) throws FatalException {
+        if (this.isAscii()) {
+            return this.factory.getTransactionCommand(system, this.line);
+        }
+        return this.factory.getTransactionCommand(system, this.getCode());
+    }
+
+    /**
+     * Closes the transaction file.
+     */
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+            this.raf.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the window of the file starting at the given position.
+     * @param start the position in the file of the start of the window
+     * @throws IOException if the file could not be mapped
+     */
+    private void map(long start) throws IOException {
+        this.windowStart = start;
+        this.windowLength = (int) Math.min(this.windowSize, this.size - start);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, this.windowLength);
+    }
+
+    /**
+     * Maps the window of the file starting at the given position, giving up on the rest of the file if it cannot be
+     * mapped.
+     * @param start the position in the file of the start of the window
+     * @return false if the file could not be mapped
+     */
+    private boolean remapAt(long start) {
+        try {
+            this.map(start);
+            return true;
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            this.position = this.size;
+            return false;
+        }
+    }
+
+    /**
+     * @param start the position in the window of the start of a line
+     * @return the position in the window of the line terminator ending the line, or the end of the window
+     */
+    private int findLineEnd(int start) {
+        for (int i = start; i < this.windowLength; i++) {
+            byte b = this.window.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return this.windowLength;
+    }
+
+    /**
+     * @return true if every byte of the current line is an ASCII character
+     */
+    private boolean isAscii() {
+        for (int i = this.lineStart; i < this.lineEnd; i++) {
+            if (this.window.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes part of the current line.
+     * @param start the start of the part in the line
+     * @param end the end of the part in the line
+     * @param charset the charset to decode with
+     * @return the decoded text
+     */
+    private String decode(int start, int end, Charset charset) {
+        int length = end - start;
+        if (this.fieldBytes.length < length) {
+            this.fieldBytes = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            this.fieldBytes[i] = this.window.get(this.lineStart + start + i);
+        }
+        return new String(this.fieldBytes, 0, length, charset);
+    }
+
+    /**
+     * Gets an ASCII field of the current line, reusing the String made the last time the same field was seen.
+     * @param start the start of the field in the line
+     * @param end the end of the field in the line
+     * @return the text of the field
+     */
+    private String getCachedField(int start, int end) {
+        int hash = 0;
+        for (int i = this.lineStart + start; i < this.lineStart + end; i++) {
+            hash = 31 * hash + this.window.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (FIELD_CACHE_SIZE - 1);
+        String cached = this.fieldCache[slot];
+        if (cached != null && cached.length() == end - start) {
+            boolean same = true;
+            for (int i = 0; i < cached.length() && same; i++) {
+                same = cached.charAt(i) == this.window.get(this.lineStart + start + i);
+            }
+            if (same) {
+                return cached;
+            }
+        }
+        String field = this.decode(start, end, StandardCharsets.US_ASCII);
+        this.fieldCache[slot] = field;
+        return field;
+    }
+
+    /**
+     * A view of the current line as ASCII characters.
+     */
+    private class Line implements CharSequence {
+
+        @Override
+        public int length() {
+            return lineEnd - lineStart;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) window.get(lineStart + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return decode(start, end, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return getCode();
+        }
+    }
+
+    /**
+     * A TransactionFactory that takes the fields of the current line from the field cache.
+     */
+    private class FieldFactory extends TransactionFactory {
+
+        @Override
+        protected String getField(CharSequence code, int start, int end) {
+            if (code == line) {
+                return getCachedField(start, end);
+            }
+            return super.getField(code, start, end);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package src.main.system;
+
+import src.main.command.*;
+import src.main.exceptions.FatalException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.users.AdminUser;
+import src.main.users.User;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the sessions of a daily transaction file in parallel, leaving users in the same state as executing the
+ * file in order would.
+ *
+ * A session is every transaction code up to and including the next logout, so each session starts with nobody
+ * logged in, just as it would when the file is executed in order. Each session only reads or changes the users
+ * named by its commands, so sessions that share no users are executed at the same time on a pool of worker threads,
+ * while sessions that share a user are executed in file order. Sessions that create or delete users, toggle the
+ * auction sale, or are logged in as an admin who may gift a game found in any user's library are barriers: every
+ * earlier session finishes before they are executed alone, and no later session starts until they finish.
+ *
+ * Errors are recorded in file order. Messages printed while executing sessions at the same time may be interleaved.
+ * Changes to users are only saved once the whole file has been executed.
+ */
+public class SessionExecutor implements Closeable {
+    private static final AtomicInteger executorCount = new AtomicInteger();
+    private final ExecutorService workers;
+
+    /**
+     * A login to logout sequence of transaction codes, and the commands made from them.
+     */
+    private static class Session {
+        private final DistributionSystem system = new DistributionSystem();
+        private final String fileName;
+        private final List<String> codes = new ArrayList<>();
+        private final List<Object> commands = new ArrayList<>();
+        private final Set<String> usernames = new LinkedHashSet<>();
+        private final List<String> loginUsernames = new ArrayList<>();
+        private final ErrorRecorder errors = ErrorRecorder.inMemory();
+        private boolean barrier = false;
+        private boolean gifts = false;
+
+        private Session(String fileName) {
+            this.fileName = fileName;
+        }
+
+        /**
+         * Adds a transaction code to the end of this session.
+         * @param code a transaction code
+         * @param factory makes a command from the code for this session's DistributionSystem
+         * @return true if the code was a logout, which ends the session
+         */
+        private boolean add(String code, TransactionFactory factory) {
+            this.codes.add(code);
+            try {
+                Command command = factory.getTransactionCommand(this.system, code);
+                this.commands.add(command);
+                this.usernames.addAll(command.getUsernames());
+                if (command instanceof LoginCommand) {
+                    this.loginUsernames.addAll(command.getUsernames());
+                } else if (command instanceof CreateCommand || command instanceof DeleteCommand
+                        || command instanceof AuctionsaleCommand) {
+                    this.barrier = true;
+                } else if (command instanceof GiftCommand) {
+                    this.gifts = true;
+                }
+                return command instanceof LogoutCommand;
+            } catch (FatalException e) {
+                this.commands.add(e);
+                return false;
+            }
+        }
+
+        /**
+         * @return true if this session must be executed alone. Only correct once every earlier barrier has been
+         * executed, since which users exist may change until then.
+         */
+        private boolean isBarrier() {
+            if (this.barrier) {
+                return true;
+            }
+            if (this.gifts) {
+                for (String username: this.loginUsernames) {
+                    if (User.getAllUsers().get(username) instanceof AdminUser) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Executes every transaction code in this session in order.
+         */
+        private void run() {
+            Invoker button = new Invoker();
+            for (int i = 0; i < this.codes.size(); i++) {
+                String code = this.codes.get(i);
+                Object command = this.commands.get(i);
+                if (command instanceof Command) {
+                    Client.runTransaction(this.system, button, this.errors, (Command) command, () -> code);
+                } else {
+                    Client.recordFatalError(this.errors, code, this.fileName, (FatalException) command);
+                }
+            }
+        }
+    }
+
+    /**
+     * Initializes a SessionExecutor.
+     * @param threads the number of sessions that may be executed at the same time
+     */
+    public SessionExecutor(int threads) {
+        int executor = executorCount.incrementAndGet();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "session-worker-" + executor + "-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executes every transaction code of a daily transaction file. Every user is loaded first, since loading a user
+     * while others are looked up on other threads is not safe.
+     * @param codes the transaction codes of the file, in order
+     * @param recorder records the transactions that fail, in file order
+     * @param fileName the name of the daily transaction file
+     * @return the number of transaction codes executed
+     */
+    public int execute(Iterable<String> codes, ErrorRecorder recorder, String fileName) {
+        User.getRegistry().materializeAll();
+        FlushPolicy policy = UserObserver.getFlushPolicy();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+
+        TransactionFactory factory = new TransactionFactory();
+        List<Session> pending = new ArrayList<>();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        Map<String, CompletableFuture<Void>> lastSessionOfUser = new HashMap<>();
+        int transactions = 0;
+        try {
+            Session session = new Session(fileName);
+            for (String code: codes) {
+                transactions++;
+                if (session.add(code, factory)) {
+                    this.schedule(session, pending, running, lastSessionOfUser, recorder);
+                    session = new Session(fileName);
+                }
+            }
+            if (!session.codes.isEmpty()) {
+                this.schedule(session, pending, running, lastSessionOfUser, recorder);
+            }
+            finish(pending, running, lastSessionOfUser, recorder);
+        } finally {
+            UserObserver.setFlushPolicy(policy);
+        }
+        return transactions;
+    }
+
+    /**
+     * Starts executing a session once every earlier session that shares a user with it has finished, or executes it
+     * alone if it is a barrier.
+     */
+    private void schedule(Session session, List<Session> pending, List<CompletableFuture<Void>> running,
+                          Map<String, CompletableFuture<Void>> lastSessionOfUser, ErrorRecorder recorder) {
+        if (session.isBarrier()) {
+            finish(pending, running, lastSessionOfUser, recorder);
+            session.run();
+            recorder.recordAll(session.errors);
+            return;
+        }
+
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String username: session.usernames) {
+            CompletableFuture<Void> last = lastSessionOfUser.get(username);
+            if (last != null && !dependencies.contains(last)) {
+                dependencies.add(last);
+            }
+        }
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(session::run, this.workers);
+        for (String username: session.usernames) {
+            lastSessionOfUser.put(username, future);
+        }
+        pending.add(session);
+        running.add(future);
+    }
+
+    /**
+     * Waits for every session that has been started, then records their errors in file order.
+     */
+    private static void finish(List<Session> pending, List<CompletableFuture<Void>> running,
+                               Map<String, CompletableFuture<Void>> lastSessionOfUser, ErrorRecorder recorder) {
+        try {
+            CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            for (Session session: pending) {
+                recorder.recordAll(session.errors);
+            }
+            pending.clear();
+            running.clear();
+            lastSessionOfUser.clear();
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        this.workers.shutdown();
+    }
+}
@@ -0,0 +1,206 @@
+package src.main.system;
+
+import src.main.command.*;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.UsernameException;
+import src.main.observer.UserObserver;
+import src.main.users.AdminUser;
+import src.main.users.User;
+import src.main.users.UserLocks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves many logged in users at once, each in their own Session.
+ *
+ * A Session is a DistributionSystem, so commands are made for it by a TransactionFactory as usual, but they must be
+ * run with an Invoker from newInvoker so that sessions running commands on different threads do not interfere.
+ * While a command runs, every user it names and the user logged in are locked with UserLocks, so commands that
+ * share a user run one at a time while the rest run in parallel. Commands that create or delete users, toggle the
+ * auction sale, or are admin gifts that may copy a game from any user run alone.
+ *
+ * A user can only be logged in to one session at a time. Saves the flush policy asks for are made between
+ * commands, while no command is running.
+ */
+public class SessionManager implements AutoCloseable {
+    private final ConcurrentHashMap<String, Session> loggedIn = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock();
+
+    /**
+     * A DistributionSystem for a single client of a SessionManager. A session should only be used by one thread at
+     * a time.
+     */
+    public class Session extends DistributionSystem {
+
+        /**
+         * Logs in a user, unless they are already logged in to another session.
+         * @throws UsernameException when the user does not exist, someone is already logged in to this session, or
+         * the user is logged in to another session
+         */
+        @Override
+        public void login(String username, String type, double credit) throws UsernameException {
+            if (this.isCurrLogin()) {
+                throw new UsernameException("There has been a user logged in.");
+            }
+            if (loggedIn.putIfAbsent(username, this) != null) {
+                throw new UsernameException("User '" + username + "' is already logged in.");
+            }
+            try {
+                super.login(username, type, credit);
+            } catch (UsernameException e) {
+                loggedIn.remove(username, this);
+                throw e;
+            }
+        }
+
+        /**
+         * Logs out the user logged in to this session.
+         * @throws UsernameException when there is no user logged in to this session
+         */
+        @Override
+        public void logout() throws UsernameException {
+            User user = this.getCurrUser();
+            super.logout();
+            loggedIn.remove(user.getUsername(), this);
+        }
+    }
+
+    /**
+     * Runs the commands of one session while holding the locks of the users they involve.
+     */
+    private class SessionInvoker extends Invoker {
+        private final Session session;
+        private Command command;
+
+        private SessionInvoker(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void setCommand(Command command) {
+            super.setCommand(command);
+            this.command = command;
+        }
+
+        @Override
+        public void run() throws ConstraintException {
+            User user = this.session.getCurrUser();
+            List<String> usernames = new ArrayList<>(this.command.getUsernames());
+            if (user != null) {
+                usernames.add(user.getUsername());
+            }
+            Lock lock = isExclusive(this.command, user)
+                    ? transactionLock.writeLock() : transactionLock.readLock();
+            lock.lock();
+            try {
+                UserLocks.Held locks = UserLocks.lock(usernames);
+                try {
+                    super.run();
+                } finally {
+                    locks.close();
+                }
+            } finally {
+                lock.unlock();
+                flushIfRequested();
+            }
+        }
+    }
+
+    /**
+     * Initializes a SessionManager. Every user is loaded first, and saves are deferred until no command is running.
+     */
+    public SessionManager() {
+        User.getRegistry().materializeAll();
+        UserObserver.setFlushDeferred(true);
+    }
+
+    /**
+     * @return a new session with nobody logged in
+     */
+    public Session openSession() {
+        return new Session();
+    }
+
+    /**
+     * Logs out the user logged in to a session that is no longer needed, if any.
+     * @param session a session of this manager
+     */
+    public void closeSession(Session session) {
+        if (session.isCurrLogin()) {
+            Invoker invoker = this.newInvoker(session);
+            invoker.setCommand(new LogoutCommand(session));
+            try {
+                invoker.run();
+            } catch (ConstraintException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param session a session of this manager
+     * @return an Invoker that runs commands made for the session
+     */
+    public Invoker newInvoker(Session session) {
+        return new SessionInvoker(session);
+    }
+
+    /**
+     * @param username a username
+     * @return true if the user is logged in to a session
+     */
+    public boolean isLoggedIn(String username) {
+        return this.loggedIn.containsKey(username);
+    }
+
+    /**
+     * @return the number of users logged in
+     */
+    public int getLoggedInCount() {
+        return this.loggedIn.size();
+    }
+
+    /**
+     * @param command a command
+     * @param user the user logged in when the command runs, or null
+     * @return true if the command may read or change users it does not name, or change which users exist
+     */
+    private static boolean isExclusive(Command command, User user) {
+        return command instanceof CreateCommand || command instanceof DeleteCommand
+                || command instanceof AuctionsaleCommand
+                || (command instanceof GiftCommand && user instanceof AdminUser);
+    }
+
+    /**
+     * Makes any save that was requested while a command was running, once no command is running.
+     */
+    private void flushIfRequested() {
+        if (UserObserver.takeFlushRequest()) {
+            this.transactionLock.writeLock().lock();
+            try {
+                UserObserver.flush();
+            } finally {
+                this.transactionLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Makes any requested save and stops deferring saves.
+     */
+    @Override
+    public void close() {
+        this.transactionLock.writeLock().lock();
+        try {
+            UserObserver.setFlushDeferred(false);
+            if (UserObserver.takeFlushRequest()) {
+                UserObserver.flush();
+            }
+        } finally {
+            this.transactionLock.writeLock().unlock();
+        }
+    }
+}
@@ -2,15 +2,12 @@ package src.main.system;
 
 import src.main.command.*;
 import src.main.exceptions.*;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import src.main.users.User;
 
 /**
  * This class is a factory that produces commands based on transaction codes 
  */
 public class TransactionFactory {
-    String pattern;
     Command command;
     private static final String LOGIN_CODE = "00";
     private static final String CREATE_CODE = "01";
@@ -23,6 +20,8 @@ public class TransactionFactory {
     private static final String REMOVE_GAME_CODE = "08";
     private static final String GIFT_CODE = "09";
     private static final String LOGOUT_CODE = "10";
+    private static final String[] CODES = {LOGIN_CODE, CREATE_CODE, DELETE_CODE, SELL_CODE, BUY_CODE, REFUND_CODE,
+            ADD_CREDIT_CODE, AUCTION_CODE, REMOVE_GAME_CODE, GIFT_CODE, LOGOUT_CODE};
 
     /**
      * Gets a transaction command based on the provided code
@@ -31,15 +30,12 @@ public class TransactionFactory {
      * @return a transaction command
      * @throws FatalException when the given code does not correspond to any existing transaction command
      */
-    public Command getTransactionCommand(DistributionSystem system, String code) throws FatalException {
-        String transactionType;
-        try {
-            transactionType = code.substring(0, 2);
-        } catch (StringIndexOutOfBoundsException e) {
+    public Command getTransactionCommand(DistributionSystem system, CharSequence code) throws FatalException {
+        if (code.length() < 2) {
             throw new FatalException("Code: '" + code + "' is invalid.");
         }
 
-        switch (transactionType) {
+        switch (getCodeAt(code, 0)) {
             case DELETE_CODE:
             case AUCTION_CODE:
             case LOGOUT_CODE:
@@ -78,19 +74,106 @@ public class TransactionFactory {
     }
 
     /**
-     * Produces a matcher to be used in regex operations given a regex pattern and a provided code.
-     * @param pattern a regex pattern
+     * Finds the columns of a code given the layout of its transaction type.
+     * @param layout the columns of the transaction type
      * @param code a transaction code to be matched
-     * @return a Matcher based on the given pattern and code
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @return the start and end of each column in the code
+     * @throws FatalException when the provided code doesn't follow the provided layout
      */
-    private Matcher getMatcher(String pattern, String code) throws FatalException {
-        Pattern P = Pattern.compile(pattern);
-        Matcher matcher = P.matcher(code);
-        if (!matcher.find()) {
+    private int[] getColumns(TransactionParser.Column[] layout, CharSequence code) throws FatalException {
+        int[] columns = TransactionParser.find(code, layout);
+        if (columns == null) {
             throw new FatalException("'" + code + "' does not follow a correct transaction code format.");
         }
-        return matcher;
+        return columns;
+    }
+
+    /**
+     * @param code a transaction code
+     * @param position the position of a two digit transaction type in the code
+     * @return the transaction type constant matching the two characters, or an empty string if there is none
+     */
+    private static String getCodeAt(CharSequence code, int position) {
+        int first = code.charAt(position) - '0';
+        int second = code.charAt(position + 1) - '0';
+        if (first < 0 || first > 9 || second < 0 || second > 9 || first * 10 + second >= CODES.length) {
+            return "";
+        }
+        return CODES[first * 10 + second];
+    }
+
+    /**
+     * Makes a string from part of a transaction code.
+     * @param code a transaction code
+     * @param start the start of the field in the code
+     * @param end the end of the field in the code
+     * @return the text of the field
+     */
+    protected String getField(CharSequence code, int start, int end) {
+        return code.subSequence(start, end).toString();
+    }
+
+    /**
+     * @param code a transaction code
+     * @param columns the columns found in the code
+     * @param column the index of a column
+     * @return the text of the column
+     */
+    private String column(CharSequence code, int[] columns, int column) {
+        return this.getField(code, columns[column * 2], columns[column * 2 + 1]);
+    }
+
+    /**
+     * @param code a transaction code
+     * @param columns the columns found in the code
+     * @param column the index of a column
+     * @return the text of the column without its trailing whitespace, which commands would strip anyway
+     */
+    private String strippedColumn(CharSequence code, int[] columns, int column) {
+        int start = columns[column * 2];
+        int end = columns[column * 2 + 1];
+        while (end > start && Character.isWhitespace(code.charAt(end - 1))) {
+            end--;
+        }
+        return this.getField(code, start, end);
+    }
+
+    /**
+     * @param code a transaction code
+     * @param columns the columns found in the code
+     * @param column the index of an account type column
+     * @return the account type constant in User matching the column
+     */
+    private static String accountTypeColumn(CharSequence code, int[] columns, int column) {
+        switch (code.charAt(columns[column * 2])) {
+            case 'A':
+                return User.ADMIN_TYPE;
+            case 'F':
+                return User.FULL_STANDARD_TYPE;
+            case 'B':
+                return User.BUYER_TYPE;
+            default:
+                return User.SELLER_TYPE;
+        }
+    }
+
+    /**
+     * Reads a column of digits with two decimal places. The result is the same double Double.parseDouble would
+     * return for the column, since both are the closest double to the exact decimal value.
+     * @param code a transaction code
+     * @param columns the columns found in the code
+     * @param column the index of a decimal column
+     * @return the value of the column
+     */
+    private static double decimalColumn(CharSequence code, int[] columns, int column) {
+        long hundredths = 0;
+        for (int i = columns[column * 2]; i < columns[column * 2 + 1]; i++) {
+            char c = code.charAt(i);
+            if (c != '.') {
+                hundredths = hundredths * 10 + (c - '0');
+            }
+        }
+        return hundredths / 100.0;
     }
 
     /**
@@ -98,16 +181,15 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a code that corresponds to either a delete, auction sale, or logout operation.
      * @return one of DeleteCommand, AuctionSaleCommand, or LogoutCommand
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getLogoutDeleteAuction(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<username>.{15}) (?<type>\\s{2}) (?<unused>(0{6}\\.0{2}|0{9}))";
-        Matcher matcher = getMatcher(pattern, code);
-        switch (matcher.group("code")) {
+    private Command getLogoutDeleteAuction(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.LOGOUT_DELETE_AUCTION, code);
+        switch (getCodeAt(code, columns[0])) {
             case DELETE_CODE:
-                return new DeleteCommand(system, matcher.group("username"));
+                return new DeleteCommand(system, strippedColumn(code, columns, 1));
             case AUCTION_CODE:
-                return new AuctionsaleCommand(system, matcher.group("username"));
+                return new AuctionsaleCommand(system, column(code, columns, 1));
             case LOGOUT_CODE:
                 return new LogoutCommand(system);
         }
@@ -120,13 +202,12 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a code that corresponds to an AddCreditCommand
      * @return an AddCreditCommand relating to the given add credit code.
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getAddCredit(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<username>.{15}) (?<type>\\s{2}) (?<credit>\\d{6}\\.\\d{2})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new AddCreditCommand(system, matcher.group("username"),
-                matcher.group("credit"));
+    private Command getAddCredit(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.ADD_CREDIT, code);
+        return new AddCreditCommand(system, strippedColumn(code, columns, 1),
+                decimalColumn(code, columns, 3));
     }
 
     /**
@@ -134,20 +215,19 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return a LoginCommand or a CreateCommand corresponding to the given code
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getLoginCreate(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<username>.{15}) (?<type>(FS|AA|BS|SS)) (?<credit>\\d{6}\\.\\d{2})";
-        Matcher matcher = getMatcher(pattern, code);
-        switch (matcher.group("code")) {
+    private Command getLoginCreate(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.LOGIN_CREATE, code);
+        switch (getCodeAt(code, columns[0])) {
             case LOGIN_CODE:
-                return new LoginCommand(system, matcher.group("username"),
-                        matcher.group("type"),
-                        matcher.group("credit"));
+                return new LoginCommand(system, strippedColumn(code, columns, 1),
+                        accountTypeColumn(code, columns, 2),
+                        decimalColumn(code, columns, 3));
             case CREATE_CODE:
-                return new CreateCommand(system, matcher.group("username"),
-                        matcher.group("type"),
-                        matcher.group("credit"));
+                return new CreateCommand(system, strippedColumn(code, columns, 1),
+                        accountTypeColumn(code, columns, 2),
+                        decimalColumn(code, columns, 3));
         }
         return null;
     }
@@ -157,14 +237,13 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return A RefundCommand corresponding to the provided code.
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getRefund(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<buyerUsername>.{15}) (?<sellerUsername>.{15}) (?<credit>\\d{6}\\.\\d{2})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new RefundCommand(system, matcher.group("buyerUsername"),
-                matcher.group("sellerUsername"),
-                matcher.group("credit"));
+    private Command getRefund(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.REFUND, code);
+        return new RefundCommand(system, strippedColumn(code, columns, 1),
+                strippedColumn(code, columns, 2),
+                decimalColumn(code, columns, 3));
     }
 
     /**
@@ -172,15 +251,14 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return A SellCommand corresponding to the provided transaction code
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getSell(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<gameName>.{25}) (?<sellerUsername>.{15}) (?<discount>\\d{2}\\.\\d{2}) (?<price>\\d{3}\\.\\d{2})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new SellCommand(system, matcher.group("gameName"),
-                matcher.group("sellerUsername"),
-                matcher.group("discount"),
-                matcher.group("price"));
+    private Command getSell(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.SELL, code);
+        return new SellCommand(system, strippedColumn(code, columns, 1),
+                strippedColumn(code, columns, 2),
+                decimalColumn(code, columns, 3),
+                decimalColumn(code, columns, 4));
     }
 
     /**
@@ -188,14 +266,13 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return A BuyCommand corresponding to the provided transaction code
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getBuy(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<gameName>.{25}) (?<sellerUsername>.{15}) (?<buyerUsername>.{15})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new BuyCommand(system, matcher.group("gameName"),
-                matcher.group("sellerUsername"),
-                matcher.group("buyerUsername"));
+    private Command getBuy(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.BUY, code);
+        return new BuyCommand(system, strippedColumn(code, columns, 1),
+                strippedColumn(code, columns, 2),
+                strippedColumn(code, columns, 3));
     }
 
     /**
@@ -203,13 +280,12 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return One of RemoveGameCommand
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getRemove(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<gameName>.{25}) (?<ownerName>.{15}) (?<receiverName>\\s{15})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new RemoveGameCommand(system, matcher.group("gameName"),
-                matcher.group("ownerName"));
+    private Command getRemove(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.REMOVE_GAME, code);
+        return new RemoveGameCommand(system, strippedColumn(code, columns, 1),
+                strippedColumn(code, columns, 2));
     }
 
     /**
@@ -217,14 +293,13 @@ public class TransactionFactory {
      * @param system the distribution system that keeps track of the User that would perform the returned transaction
      * @param code a transaction code
      * @return One of GiftCommand
-     * @throws FatalException when the provided code doesn't follow the provided pattern
+     * @throws FatalException when the provided code doesn't follow the layout of its transaction type
      */
-    private Command getGift(DistributionSystem system, String code) throws FatalException {
-        pattern = "(?<code>\\d{2}) (?<gameName>.{25}) (?<ownerName>.{15}) (?<receiverName>.{15})";
-        Matcher matcher = getMatcher(pattern, code);
-        return new GiftCommand(system, matcher.group("gameName"),
-                matcher.group("ownerName"),
-                matcher.group("receiverName"));
+    private Command getGift(DistributionSystem system, CharSequence code) throws FatalException {
+        int[] columns = getColumns(TransactionParser.GIFT, code);
+        return new GiftCommand(system, strippedColumn(code, columns, 1),
+                strippedColumn(code, columns, 2),
+                strippedColumn(code, columns, 3));
     }
 
     /**
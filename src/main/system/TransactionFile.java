@@ -3,20 +3,39 @@ package src.main.system;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A class that reads from a file named daily.txt containing transaction codes of transactions that
  * have occurred in a singular session.
+ *
+ * By default every line is read when the TransactionFile is created. In streaming mode nothing is read up front;
+ * each iterator reads lines from the file as they are needed, so a file of any size is iterated in constant memory
+ * and the first transaction code is available immediately.
  */
-public class TransactionFile implements Iterable<String> {
+public class TransactionFile implements Iterable<String>, Closeable {
+    public static final int STREAM_BUFFER_SIZE = 1 << 20;
+    private final File file;
+    private final boolean streaming;
     private BufferedReader reader;
     private final ArrayList<String> transactionCodes = new ArrayList<>();
 
     /**
-     * Initializes a TransactionFile iterable.
+     * Initializes a TransactionFile iterable that reads every line of the file up front.
      * @param file the file to be made into an iterable.
      */
     public TransactionFile(File file) {
+        this(file, false);
+    }
+
+    /**
+     * Initializes a TransactionFile iterable.
+     * @param file the file to be made into an iterable.
+     * @param streaming true to read lines only as they are iterated over instead of reading every line up front
+     */
+    public TransactionFile(File file, boolean streaming) {
+        this.file = file;
+        this.streaming = streaming;
         if (!file.exists()) {
             System.out.println("daily.txt does not exist and will try to create one.\n" +
                     "Please modify daily.txt file first.");
@@ -26,6 +45,9 @@ public class TransactionFile implements Iterable<String> {
                 e.printStackTrace();
             }
         }
+        if (streaming) {
+            return;
+        }
         try {
             this.reader = new BufferedReader(new FileReader(file.getPath()));
             this.readTransactions();
@@ -34,6 +56,13 @@ public class TransactionFile implements Iterable<String> {
         }
     }
 
+    /**
+     * @return true if lines are read only as they are iterated over
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
     /**
      * Reads every line from a file and stores them to be iterated.
      */
@@ -53,9 +82,27 @@ public class TransactionFile implements Iterable<String> {
      */
     @Override
     public Iterator<String> iterator() {
+        if (this.streaming) {
+            return new StreamingIterator();
+        }
         return new TransactionFileIterator() ;
     }
 
+    /**
+     * Closes the file if the most recent streaming iterator stopped before reaching the end of it.
+     */
+    @Override
+    public void close() {
+        if (this.reader != null) {
+            try {
+                this.reader.close();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            this.reader = null;
+        }
+    }
+
     /**
      * An iterator for a Transaction file.
      */
@@ -87,4 +134,79 @@ public class TransactionFile implements Iterable<String> {
             return code;
         }
     }
+
+    /**
+     * An iterator that reads the lines of a TransactionFile as they are needed. The file is opened when the first
+     * line is needed and closed once the last line has been read.
+     */
+    private class StreamingIterator implements Iterator<String> {
+        private BufferedReader lineReader;
+        private String nextCode;
+        private boolean finished = false;
+
+        /**
+         * @return true if there is another transaction code to be read.
+         */
+        @Override
+        public boolean hasNext() {
+            if (this.nextCode == null && !this.finished) {
+                this.nextCode = this.readLine();
+            }
+            return this.nextCode != null;
+        }
+
+        /**
+         * @return the next transaction code in the TransactionFile
+         */
+        @Override
+        public String next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String code = this.nextCode;
+            this.nextCode = null;
+            return code;
+        }
+
+        /**
+         * @return the next line of the file, or null once the end of the file is reached
+         */
+        private String readLine() {
+            try {
+                if (this.lineReader == null) {
+                    this.lineReader = new BufferedReader(new FileReader(file.getPath()), STREAM_BUFFER_SIZE);
+                    reader = this.lineReader;
+                }
+                String line = this.lineReader.readLine();
+                if (line == null) {
+                    this.finish();
+                }
+                return line;
+            } catch (FileNotFoundException e) {
+                System.out.println("daily.txt does not exist");
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            this.finish();
+            return null;
+        }
+
+        /**
+         * Closes the file once there is nothing left to read.
+         */
+        private void finish() {
+            this.finished = true;
+            if (this.lineReader != null) {
+                try {
+                    this.lineReader.close();
+                } catch (IOException e) {
+                    System.out.println(e.getMessage());
+                }
+                if (reader == this.lineReader) {
+                    reader = null;
+                }
+                this.lineReader = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,310 @@
+package src.main.system;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import src.main.Game;
+import src.main.Money;
+import src.main.command.Invoker;
+import src.main.users.User;
+import src.main.users.UserLocks;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HTTP server for submitting transactions and looking up users while the backend is running.
+ *
+ * POST /transactions executes the transaction codes in the body of the request, one per line, in a session of its
+ * own that is logged out once the request is done, so a request usually starts with a login. The response has one
+ * line for each code, the same as a TransactionServer: OK, or the reason the transaction was not performed.
+ *
+ * GET /users/{username} responds with the type and balance of a user, GET /users/{username}/games with every game
+ * in their library and GET /sellers/{username}/games with the games they are selling. Each game is a line with its
+ * name, seller and price separated by tabs. GET /games/{name}/owners responds with the username of every user that
+ * owns a game with the name, one per line.
+ *
+ * GET /games/{name}/listings responds with every listing of a game for sale, and GET /listings?min=&max=&limit=
+ * with the listings priced between min and max credits, cheapest first. Prices are discounted during an auction
+ * sale, and every parameter is optional.
+ *
+ * Requests are handled on a pool of threads, and each POST is a session of a SessionManager, so they run alongside
+ * each other unless they share users.
+ */
+public class TransactionHttpServer implements AutoCloseable {
+    private static final int DEFAULT_LISTING_LIMIT = 100;
+    private static final AtomicInteger serverCount = new AtomicInteger();
+
+    static {
+        // Without TCP_NODELAY, small responses wait for the client's delayed acknowledgement, about 40 ms each
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final SessionManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts a server listening on the local loopback address.
+     * @param port the port to listen on, or 0 for any free port
+     * @param threads the number of threads that handle requests
+     * @throws IOException if the server could not listen on the port
+     */
+    public TransactionHttpServer(int port, int threads) throws IOException {
+        this.manager = new SessionManager();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+
+        int serverNumber = serverCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "http-" + serverNumber + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/transactions", this::handleTransactions);
+        this.server.createContext("/users/", this::handleUsers);
+        this.server.createContext("/sellers/", this::handleSellers);
+        this.server.createContext("/games/", this::handleGames);
+        this.server.createContext("/listings", this::handleListings);
+        this.server.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Executes the transaction codes in the body of a POST request in a new session.
+     */
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, "Transactions must be sent with POST.");
+            return;
+        }
+        List<String> codes = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), Charset.defaultCharset()))) {
+            String code;
+            while ((code = reader.readLine()) != null) {
+                codes.add(code);
+            }
+        }
+
+        SessionManager.Session session = this.manager.openSession();
+        Invoker invoker = this.manager.newInvoker(session);
+        TransactionFactory factory = new TransactionFactory();
+        StringBuilder replies = new StringBuilder();
+        try {
+            for (String code: codes) {
+                replies.append(TransactionServer.execute(session, invoker, factory, code)).append('\n');
+            }
+        } finally {
+            this.manager.closeSession(session);
+        }
+        respond(exchange, 200, replies.toString());
+    }
+
+    /**
+     * Responds with a user's account or the games in their library.
+     */
+    private void handleUsers(HttpExchange exchange) throws IOException {
+        String[] path = getPath(exchange, "/users/");
+        if (path == null) {
+            return;
+        }
+        if (path.length == 1) {
+            String account = null;
+            UserLocks.Held locks = UserLocks.lock(path[0]);
+            try {
+                User user = User.getAllUsers().get(path[0]);
+                if (user != null) {
+                    account = "Username: " + user.getUsername() + "\nType: " + user.getAccountType()
+                            + "\nBalance: " + Money.format(user.getBalanceCents()) + "\n";
+                }
+            } finally {
+                locks.close();
+            }
+            if (account == null) {
+                respond(exchange, 404, "User '" + path[0] + "' does not exist.");
+            } else {
+                respond(exchange, 200, account);
+            }
+        } else if (path.length == 2 && path[1].equals("games")) {
+            respondWithGames(exchange, path[0]);
+        } else {
+            respond(exchange, 404, "Not found.");
+        }
+    }
+
+    /**
+     * Responds with the games a user is selling.
+     */
+    private void handleSellers(HttpExchange exchange) throws IOException {
+        String[] path = getPath(exchange, "/sellers/");
+        if (path == null) {
+            return;
+        }
+        if (path.length == 2 && path[1].equals("games")) {
+            if (User.userExists(path[0])) {
+                respond(exchange, 200, formatGames(User.getRegistry().getListings().getListingsBySeller(path[0])));
+            } else {
+                respond(exchange, 404, "User '" + path[0] + "' does not exist.");
+            }
+        } else {
+            respond(exchange, 404, "Not found.");
+        }
+    }
+
+    /**
+     * Responds with the users that own a game.
+     */
+    private void handleGames(HttpExchange exchange) throws IOException {
+        String[] path = getPath(exchange, "/games/");
+        if (path == null) {
+            return;
+        }
+        if (path.length == 2 && path[1].equals("owners")) {
+            List<String> owners = new ArrayList<>(User.getRegistry().getOwners(path[0]));
+            Collections.sort(owners);
+            StringBuilder body = new StringBuilder();
+            for (String owner: owners) {
+                body.append(owner).append('\n');
+            }
+            respond(exchange, 200, body.toString());
+        } else if (path.length == 2 && path[1].equals("listings")) {
+            respond(exchange, 200, formatGames(User.getRegistry().getListings().getListings(path[0])));
+        } else {
+            respond(exchange, 404, "Not found.");
+        }
+    }
+
+    /**
+     * Responds with the listings in a price range.
+     */
+    private void handleListings(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, "Listings can only be looked up with GET.");
+            return;
+        }
+        long min = 0;
+        long max = Long.MAX_VALUE;
+        int limit = DEFAULT_LISTING_LIMIT;
+        String query = exchange.getRequestURI().getQuery();
+        try {
+            for (String parameter: query == null ? new String[0] : query.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                String value = pair.length > 1 ? pair[1] : "";
+                switch (pair[0]) {
+                    case "min":
+                        min = Money.toCents(Double.parseDouble(value));
+                        break;
+                    case "max":
+                        max = Money.toCents(Double.parseDouble(value));
+                        break;
+                    case "limit":
+                        limit = Integer.parseInt(value);
+                        break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, "Invalid number: " + e.getMessage());
+            return;
+        }
+        respond(exchange, 200, formatGames(User.getRegistry().getListings().getListingsBetween(min, max, limit)));
+    }
+
+    /**
+     * Splits the path of a GET request after its context, responding with an error if it is not a GET request.
+     * @return the parts of the path, or null if a response has already been sent
+     */
+    private static String[] getPath(HttpExchange exchange, String context) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, "Users and games can only be looked up with GET.");
+            return null;
+        }
+        String path = exchange.getRequestURI().getPath().substring(context.length());
+        if (path.isEmpty()) {
+            respond(exchange, 404, "Not found.");
+            return null;
+        }
+        return path.split("/");
+    }
+
+    /**
+     * Responds with the games in a user's library, sorted by name.
+     */
+    private static void respondWithGames(HttpExchange exchange, String username) throws IOException {
+        List<Game> games = null;
+        UserLocks.Held locks = UserLocks.lock(username);
+        try {
+            User user = User.getAllUsers().get(username);
+            if (user != null) {
+                games = new ArrayList<>(user.getLibraryGames());
+            }
+        } finally {
+            locks.close();
+        }
+        if (games == null) {
+            respond(exchange, 404, "User '" + username + "' does not exist.");
+            return;
+        }
+        games.sort(Comparator.comparing(Game::getName));
+        respond(exchange, 200, formatGames(games));
+    }
+
+    /**
+     * @return a line for each game with its name, seller and price separated by tabs
+     */
+    private static String formatGames(List<Game> games) {
+        StringBuilder body = new StringBuilder();
+        for (Game game: games) {
+            body.append(game.getName()).append('\t').append(game.getSeller()).append('\t')
+                    .append(Money.format(game.getPriceCents())).append('\n');
+        }
+        return body.toString();
+    }
+
+    /**
+     * Sends a plain text response and closes the exchange.
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(Charset.defaultCharset());
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=" + Charset.defaultCharset().name());
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Stops accepting requests, waits for the requests being handled to finish and makes any requested save.
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.manager.close();
+    }
+}
@@ -0,0 +1,199 @@
+package src.main.system;
+
+/**
+ * Finds the fields of a fixed-width transaction code by column offsets instead of regular expressions.
+ *
+ * A layout is the columns of one kind of transaction code, separated by single spaces. Each column matches exactly
+ * the characters its regular expression used to match, and find returns the same match as Matcher.find did: the
+ * first position in the code where every column matches.
+ */
+class TransactionParser {
+
+    /**
+     * A column of a transaction code, along with the regular expression it replaces.
+     */
+    enum Column {
+        CODE,           // \d{2}
+        USERNAME,       // .{15}
+        GAME_NAME,      // .{25}
+        BLANK_TYPE,     // \s{2}
+        BLANK_USERNAME, // \s{15}
+        ACCOUNT_TYPE,   // (FS|AA|BS|SS)
+        CREDIT,         // \d{6}\.\d{2}
+        UNUSED_CREDIT,  // (0{6}\.0{2}|0{9})
+        DISCOUNT,       // \d{2}\.\d{2}
+        PRICE;          // \d{3}\.\d{2}
+
+        /**
+         * @param code a transaction code
+         * @param position the position in the code to match this column at
+         * @return the position after this column, or -1 if the column does not match
+         */
+        int match(CharSequence code, int position) {
+            switch (this) {
+                case CODE:
+                    return matchDigits(code, position, 2);
+                case USERNAME:
+                    return matchAny(code, position, 15);
+                case GAME_NAME:
+                    return matchAny(code, position, 25);
+                case BLANK_TYPE:
+                    return matchWhitespace(code, position, 2);
+                case BLANK_USERNAME:
+                    return matchWhitespace(code, position, 15);
+                case ACCOUNT_TYPE:
+                    return matchAccountType(code, position);
+                case CREDIT:
+                    return matchDecimal(code, position, 6);
+                case UNUSED_CREDIT:
+                    return matchUnusedCredit(code, position);
+                case DISCOUNT:
+                    return matchDecimal(code, position, 2);
+                case PRICE:
+                    return matchDecimal(code, position, 3);
+            }
+            return -1;
+        }
+    }
+
+    static final Column[] LOGOUT_DELETE_AUCTION =
+            {Column.CODE, Column.USERNAME, Column.BLANK_TYPE, Column.UNUSED_CREDIT};
+    static final Column[] ADD_CREDIT = {Column.CODE, Column.USERNAME, Column.BLANK_TYPE, Column.CREDIT};
+    static final Column[] LOGIN_CREATE = {Column.CODE, Column.USERNAME, Column.ACCOUNT_TYPE, Column.CREDIT};
+    static final Column[] REFUND = {Column.CODE, Column.USERNAME, Column.USERNAME, Column.CREDIT};
+    static final Column[] SELL = {Column.CODE, Column.GAME_NAME, Column.USERNAME, Column.DISCOUNT, Column.PRICE};
+    static final Column[] BUY = {Column.CODE, Column.GAME_NAME, Column.USERNAME, Column.USERNAME};
+    static final Column[] REMOVE_GAME = {Column.CODE, Column.GAME_NAME, Column.USERNAME, Column.BLANK_USERNAME};
+    static final Column[] GIFT = {Column.CODE, Column.GAME_NAME, Column.USERNAME, Column.USERNAME};
+
+    /**
+     * Finds the first position in a code where the layout matches.
+     * @param code a transaction code
+     * @param layout the columns of the code
+     * @return the start and end of each column, in order, or null if the layout does not match anywhere in the code
+     */
+    static int[] find(CharSequence code, Column[] layout) {
+        int[] bounds = new int[layout.length * 2];
+        for (int start = 0; start < code.length(); start++) {
+            if (matchAt(code, start, layout, bounds)) {
+                return bounds;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Matches a layout starting at the given position, filling in the bounds of each column.
+     * @return true if every column matched
+     */
+    private static boolean matchAt(CharSequence code, int start, Column[] layout, int[] bounds) {
+        int position = start;
+        for (int i = 0; i < layout.length; i++) {
+            if (i > 0) {
+                if (position >= code.length() || code.charAt(position) != ' ') {
+                    return false;
+                }
+                position++;
+            }
+            bounds[i * 2] = position;
+            position = layout[i].match(code, position);
+            if (position < 0) {
+                return false;
+            }
+            bounds[i * 2 + 1] = position;
+        }
+        return true;
+    }
+
+    /**
+     * Matches \d{count}.
+     */
+    private static int matchDigits(CharSequence code, int position, int count) {
+        if (position + count > code.length()) {
+            return -1;
+        }
+        for (int i = position; i < position + count; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return position + count;
+    }
+
+    /**
+     * Matches \d{wholeDigits}\.\d{2}.
+     */
+    private static int matchDecimal(CharSequence code, int position, int wholeDigits) {
+        position = matchDigits(code, position, wholeDigits);
+        if (position < 0 || position >= code.length() || code.charAt(position) != '.') {
+            return -1;
+        }
+        return matchDigits(code, position + 1, 2);
+    }
+
+    /**
+     * Matches .{count}, where each . is one code point that is not a line terminator.
+     */
+    private static int matchAny(CharSequence code, int position, int count) {
+        for (int i = 0; i < count; i++) {
+            if (position >= code.length()) {
+                return -1;
+            }
+            int codePoint = Character.codePointAt(code, position);
+            if (codePoint == '\n' || codePoint == '\r' || codePoint == '\u0085'
+                    || codePoint == '\u2028' || codePoint == '\u2029') {
+                return -1;
+            }
+            position += Character.charCount(codePoint);
+        }
+        return position;
+    }
+
+    /**
+     * Matches \s{count}.
+     */
+    private static int matchWhitespace(CharSequence code, int position, int count) {
+        if (position + count > code.length()) {
+            return -1;
+        }
+        for (int i = position; i < position + count; i++) {
+            char c = code.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+                return -1;
+            }
+        }
+        return position + count;
+    }
+
+    /**
+     * Matches (FS|AA|BS|SS).
+     */
+    private static int matchAccountType(CharSequence code, int position) {
+        if (position + 2 > code.length()) {
+            return -1;
+        }
+        char first = code.charAt(position);
+        char second = code.charAt(position + 1);
+        if ((first == 'F' || first == 'B' || first == 'S') && second == 'S' || first == 'A' && second == 'A') {
+            return position + 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Matches (0{6}\.0{2}|0{9}).
+     */
+    private static int matchUnusedCredit(CharSequence code, int position) {
+        if (position + 9 > code.length()) {
+            return -1;
+        }
+        for (int i = position; i < position + 9; i++) {
+            char c = code.charAt(i);
+            if (c != '0' && !(i == position + 6 && c == '.')) {
+                return -1;
+            }
+        }
+        return position + 9;
+    }
+}
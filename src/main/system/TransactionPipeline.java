@@ -0,0 +1,181 @@
+package src.main.system;
+
+import src.main.command.Command;
+import src.main.exceptions.FatalException;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns transaction codes into commands on a pool of parser threads ahead of the thread that executes them.
+ *
+ * A reader thread takes codes from the transaction file in order and hands each one to a parser thread, queueing the
+ * pending result in file order. The executing thread takes the results off the queue one at a time, so commands are
+ * still executed, and errors still recorded, in the same order as the codes in the file. The queue is bounded, so
+ * parsing never gets more than a fixed number of codes ahead of execution.
+ *
+ * Making a command only reads its code, never the state of the DistributionSystem or its users, so parsing codes
+ * early cannot change what any command does.
+ */
+public class TransactionPipeline implements Iterator<TransactionPipeline.ParsedTransaction>, Closeable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final AtomicInteger pipelineCount = new AtomicInteger();
+
+    private final DistributionSystem system;
+    private final Iterator<String> codes;
+    private final BlockingQueue<Future<ParsedTransaction>> results;
+    private final ExecutorService parsers;
+    private final ThreadLocal<TransactionFactory> factories = ThreadLocal.withInitial(TransactionFactory::new);
+    private final Thread reader;
+    private ParsedTransaction next;
+    private boolean finished = false;
+
+    /**
+     * A transaction code together with the command made from it, or the error from trying to make one.
+     */
+    public static class ParsedTransaction {
+        private final String code;
+        private final Command command;
+        private final FatalException error;
+
+        private ParsedTransaction(String code, Command command, FatalException error) {
+            this.code = code;
+            this.command = command;
+            this.error = error;
+        }
+
+        /**
+         * @return the transaction code
+         */
+        public String getCode() {
+            return this.code;
+        }
+
+        /**
+         * @return the command made from the transaction code
+         * @throws FatalException when the code does not correspond to any existing transaction command
+         */
+        public Command getCommand() throws FatalException {
+            if (this.error != null) {
+                throw this.error;
+            }
+            return this.command;
+        }
+    }
+
+    /**
+     * Starts parsing transaction codes.
+     * @param system the distribution system that keeps track of the User that would perform the commands
+     * @param codes the transaction codes, in the order they should be executed
+     * @param parserThreads the number of threads that make commands
+     * @param capacity the most codes that may be parsed ahead of the executing thread
+     */
+    public TransactionPipeline(DistributionSystem system, Iterable<String> codes, int parserThreads, int capacity) {
+        this.system = system;
+        this.codes = codes.iterator();
+        this.results = new ArrayBlockingQueue<>(Math.max(1, capacity));
+
+        int pipeline = pipelineCount.incrementAndGet();
+        AtomicInteger parserCount = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(Math.max(1, parserThreads), task -> {
+            Thread thread = new Thread(task, "transaction-parser-" + pipeline + "-" + parserCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reader = new Thread(this::readCodes, "transaction-reader-" + pipeline);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Reads every code and queues it to be parsed, then queues an empty result to mark the end of the codes.
+     */
+    private void readCodes() {
+        try {
+            while (this.codes.hasNext()) {
+                String code = this.codes.next();
+                this.results.put(this.parsers.submit(() -> this.parse(code)));
+            }
+            this.results.put(CompletableFuture.completedFuture(null));
+        } catch (InterruptedException e) {
+            // The pipeline was closed before every code was read
+        } catch (RuntimeException e) {
+            CompletableFuture<ParsedTransaction> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            try {
+                this.results.put(failure);
+            } catch (InterruptedException ignored) {}
+        }
+    }
+
+    /**
+     * Makes the command for a transaction code with this thread's factory.
+     * @param code a transaction code
+     * @return the code and its command, or the error from trying to make one
+     */
+    private ParsedTransaction parse(String code) {
+        try {
+            return new ParsedTransaction(code, this.factories.get().getTransactionCommand(this.system, code), null);
+        } catch (FatalException e) {
+            return new ParsedTransaction(code, null, e);
+        }
+    }
+
+    /**
+     * Waits for the next transaction code to be parsed.
+     * @return true if there is another transaction code to be executed
+     */
+    @Override
+    public boolean hasNext() {
+        if (this.next == null && !this.finished) {
+            try {
+                this.next = this.results.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.next = null;
+            } catch (ExecutionException e) {
+                this.close();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            if (this.next == null) {
+                this.close();
+            }
+        }
+        return this.next != null;
+    }
+
+    /**
+     * @return the next transaction code and its command, in the order of the transaction codes
+     */
+    @Override
+    public ParsedTransaction next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ParsedTransaction transaction = this.next;
+        this.next = null;
+        return transaction;
+    }
+
+    /**
+     * Stops reading and parsing transaction codes.
+     */
+    @Override
+    public void close() {
+        this.finished = true;
+        this.reader.interrupt();
+        this.parsers.shutdownNow();
+    }
+}
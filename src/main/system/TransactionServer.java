@@ -0,0 +1,325 @@
+package src.main.system;
+
+import src.main.command.Command;
+import src.main.command.Invoker;
+import src.main.command.LoginCommand;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.FatalException;
+import src.main.observer.EventLog;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A server that executes transaction codes sent over a local socket as they arrive, instead of waiting for them to
+ * be written to daily.txt.
+ *
+ * Each connection sends transaction codes in the same fixed-width format as daily.txt, one per line, and gets one
+ * line back for each code in the same order: OK if the transaction was performed, or the message of the
+ * ConstraintException or FatalException that stopped it. As in daily.txt, a connection has to log in before its
+ * other transactions are performed.
+ *
+ * Every connection is a session of a SessionManager, so many users can be logged in at once. One selector thread
+ * reads and writes every connection without blocking, and the codes are executed on a pool of worker threads, with
+ * the codes of each connection executed in the order they were sent.
+ */
+public class TransactionServer implements Closeable {
+    public static final String OK = "OK";
+    public static final String NOT_LOGGED_IN = "IGNORED: Nobody is logged in.";
+    private static final int BUFFER_SIZE = 8192;
+    private static final AtomicInteger serverCount = new AtomicInteger();
+
+    private final SessionManager manager;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService workers;
+    private final Queue<Connection> writable = new ConcurrentLinkedQueue<>();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    /**
+     * A client connected to the server, with its own session.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final SessionManager.Session session = manager.openSession();
+        private final Invoker invoker = manager.newInvoker(this.session);
+        private final TransactionFactory factory = new TransactionFactory();
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+        private final Queue<String> codes = new ArrayDeque<>();
+        private final Queue<ByteBuffer> replies = new ConcurrentLinkedQueue<>();
+        private boolean executing = false;
+        private boolean endOfInput = false;
+        private boolean lastWasCarriageReturn = false;
+
+        private Connection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+
+        /**
+         * Splits the bytes that were read into lines the same way as BufferedReader.readLine, and starts executing
+         * them unless they are already being executed.
+         * @param buffer the bytes that were read
+         * @param eof true if the client will not send any more
+         */
+        private void received(ByteBuffer buffer, boolean eof) {
+            synchronized (this) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n' && this.lastWasCarriageReturn) {
+                        this.lastWasCarriageReturn = false;
+                    } else if (b == '\n' || b == '\r') {
+                        this.codes.add(this.partialLine.toString(Charset.defaultCharset()));
+                        this.partialLine.reset();
+                        this.lastWasCarriageReturn = b == '\r';
+                    } else {
+                        this.partialLine.write(b);
+                        this.lastWasCarriageReturn = false;
+                    }
+                }
+                if (eof) {
+                    if (this.partialLine.size() > 0) {
+                        this.codes.add(this.partialLine.toString(Charset.defaultCharset()));
+                        this.partialLine.reset();
+                    }
+                    this.endOfInput = true;
+                }
+                if (this.executing) {
+                    return;
+                }
+                this.executing = true;
+            }
+            workers.execute(this::executeAll);
+        }
+
+        /**
+         * Executes every code that has been received, then closes the session once the client has stopped sending.
+         */
+        private void executeAll() {
+            while (true) {
+                String code;
+                synchronized (this) {
+                    code = this.codes.poll();
+                    if (code == null) {
+                        this.executing = false;
+                        if (!this.endOfInput) {
+                            return;
+                        }
+                    }
+                }
+                if (code == null) {
+                    manager.closeSession(this.session);
+                    this.reply(null);
+                    return;
+                }
+                this.reply(execute(this.session, this.invoker, this.factory, code));
+            }
+        }
+
+        /**
+         * Queues a reply to be written by the selector thread.
+         * @param reply a line to send back, or null once every reply has been queued and the connection can close
+         */
+        private void reply(String reply) {
+            this.replies.add(reply == null ? ByteBuffer.allocate(0)
+                    : ByteBuffer.wrap((reply.replace('\n', ' ') + "\n").getBytes(Charset.defaultCharset())));
+            writable.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Writes as many queued replies as the socket accepts, closing the connection after the last one.
+         */
+        private void write() throws IOException {
+            ByteBuffer reply;
+            while ((reply = this.replies.peek()) != null) {
+                if (!reply.hasRemaining() && reply.capacity() == 0) {
+                    this.close();
+                    return;
+                }
+                this.channel.write(reply);
+                if (reply.hasRemaining()) {
+                    this.key.interestOps(this.key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                this.replies.poll();
+            }
+            if (this.key.isValid()) {
+                this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Closes the connection.
+         */
+        private void close() {
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts a server listening on the local loopback address.
+     * @param port the port to listen on, or 0 for any free port
+     * @param workerThreads the number of threads that execute transactions
+     * @throws IOException if the server could not listen on the port
+     */
+    public TransactionServer(int port, int workerThreads) throws IOException {
+        this.manager = new SessionManager();
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+
+        int server = serverCount.incrementAndGet();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), task -> {
+            Thread thread = new Thread(task, "transaction-worker-" + server + "-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.selectorThread = new Thread(this::serve, "transaction-server-" + server);
+        this.selectorThread.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Makes and executes the command for one transaction code in a session.
+     * @param session the session of the connection the code was sent on
+     * @param invoker runs commands for the session
+     * @param factory makes commands from codes
+     * @param code a transaction code
+     * @return OK, or the reason the transaction was not performed
+     */
+    static String execute(SessionManager.Session session, Invoker invoker, TransactionFactory factory, String code) {
+        try {
+            Command command = factory.getTransactionCommand(session, code);
+            if (!session.isCurrLogin() && !(command instanceof LoginCommand)) {
+                return NOT_LOGGED_IN;
+            }
+            invoker.setCommand(command);
+            invoker.run();
+            return OK;
+        } catch (ConstraintException | FatalException e) {
+            EventLog.getShared().error("Transaction", "Transaction Code: " + code + " - " + e.getMessage());
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Accepts connections and reads and writes them until the server is closed.
+     */
+    private void serve() {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (this.running) {
+            try {
+                this.selector.select();
+                Connection connection;
+                while ((connection = this.writable.poll()) != null) {
+                    if (connection.key.isValid()) {
+                        connection.write();
+                    }
+                }
+                for (SelectionKey key: this.selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        SocketChannel channel = this.serverChannel.accept();
+                        if (channel != null) {
+                            channel.configureBlocking(false);
+                            new Connection(channel);
+                        }
+                        continue;
+                    }
+                    connection = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            connection.write();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            buffer.clear();
+                            int read = connection.channel.read(buffer);
+                            buffer.flip();
+                            if (read < 0) {
+                                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                            }
+                            connection.received(buffer, read < 0);
+                        }
+                    } catch (IOException e) {
+                        // The client went away without waiting for its replies
+                        key.interestOps(0);
+                        connection.received(ByteBuffer.allocate(0), true);
+                    }
+                }
+                this.selector.selectedKeys().clear();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections, waits for the transactions that were received to be executed, and logs out
+     * every session that is still connected.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.selector.wakeup();
+        try {
+            this.selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key: this.selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                Connection connection = (Connection) key.attachment();
+                connection.received(ByteBuffer.allocate(0), true);
+            }
+        }
+        this.workers.shutdown();
+        try {
+            this.workers.awaitTermination(1, java.util.concurrent.TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            for (SelectionKey key: this.selector.keys()) {
+                key.channel().close();
+            }
+            this.serverChannel.close();
+            this.selector.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+        this.manager.close();
+    }
+}
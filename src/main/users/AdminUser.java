@@ -1,7 +1,10 @@
 package src.main.users;
 
 import src.main.Game;
+import src.main.Money;
 import src.main.exceptions.*;
+import src.main.observer.DomainEvent;
+import src.main.observer.JournalRecord;
 
 
 /**
@@ -11,6 +14,7 @@ import src.main.exceptions.*;
  *      - Activate discounts on all games on sale.
  */
 public class AdminUser extends FullStandardUser {
+    private static final long serialVersionUID = -3183813310845847860L;
 
     private static boolean auction = false;
 
@@ -22,8 +26,7 @@ public class AdminUser extends FullStandardUser {
      * @throws UsernameException if the username already exists or username.length > User.MAX_USERNAME_LENGTH
      */
     public AdminUser(String username, double balance) throws UsernameException, BalanceException {
-        super(username, balance);
-        this.accountType = User.ADMIN_TYPE;
+        super(username, balance, User.ADMIN_TYPE);
         this.notifyObserver("An admin has been created");
     }
 
@@ -58,7 +61,10 @@ public class AdminUser extends FullStandardUser {
 
         User.getAllUsers().get(userName).detach();
         User.getAllUsers().remove(userName);
-        this.notifyObserver(userName + " has been deleted.");
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.deleteUser(userName));
+            this.publish(new DomainEvent.UserDeleted(this, userName));
+        }
     }
 
     /**
@@ -68,13 +74,10 @@ public class AdminUser extends FullStandardUser {
      */
     public void auctionSale() {
         auction = !auction;
-        String obsMessage;
-        if (auction) {
-            obsMessage = "Auction sale has started.";
-        } else {
-            obsMessage = "Auction sale has ended.";
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.auction(auction));
+            this.publish(new DomainEvent.AuctionToggled(this, auction));
         }
-        this.notifyObserver(obsMessage);
     }
 
     /**
@@ -84,6 +87,14 @@ public class AdminUser extends FullStandardUser {
         return auction;
     }
 
+    /**
+     * Sets whether an auction sale is occurring. Only used when restoring the database.
+     * @param isAuction true if an auction sale is occurring and false otherwise.
+     */
+    static void setAuction(boolean isAuction) {
+        auction = isAuction;
+    }
+
     /**
      * Adds the given amount of credit to the account with the given username.
      * @param userName the user having credit added to their account
@@ -110,17 +121,25 @@ public class AdminUser extends FullStandardUser {
      * @throws ConstraintException Occurs when at least one constraint is not satisfied.
      */
     public void refund(String buyerName, String sellerName, double amount) throws ConstraintException {
-        // checks to ensure both users exist
-        User buyer = this.getUser(buyerName);
-        User seller = this.getUser(sellerName);
-
-        // checks to ensure both account types make sense
-        this.validateUserType(buyer, seller);
-        this.validateSellerBalance(seller, amount);
-
-        //  transfer the seller's funds to buyer's balance
-        this.refundFunds(buyer, seller, amount);
-        this.notifyObserver(buyerName + "has gotten a refund from " + sellerName + " for " + amount + " credits");
+        // The seller's balance is checked and moved atomically, even while other threads change either user
+        UserLocks.Held locks = UserLocks.lock(buyerName, sellerName);
+        try {
+            // checks to ensure both users exist
+            User buyer = this.getUser(buyerName);
+            User seller = this.getUser(sellerName);
+
+            // checks to ensure both account types make sense
+            this.validateUserType(buyer, seller);
+            this.validateSellerBalance(seller, amount);
+
+            //  transfer the seller's funds to buyer's balance
+            this.refundFunds(buyer, seller, amount);
+            if (this.isPublishing()) {
+                this.publish(new DomainEvent.Refunded(this, buyerName, sellerName, amount));
+            }
+        } finally {
+            locks.close();
+        }
     }
 
     /**
@@ -150,7 +169,7 @@ public class AdminUser extends FullStandardUser {
      * @throws BalanceException Occurs when seller does not have enough credit to refund
      */
     private void validateSellerBalance(User seller, double amount) throws BalanceException {
-        if (seller.getBalance() - amount < 0.0)
+        if (seller.getBalanceCents() - Money.floorCents(amount) < 0)
             throw new BalanceException(seller.getUsername() + " does not have sufficient funds to refund the game!");
     }
 
@@ -162,8 +181,9 @@ public class AdminUser extends FullStandardUser {
      * @param amount Amount to be refunded
      */
     private void refundFunds(User buyer, User seller, double amount) {
-        buyer.setBalance(buyer.getBalance() + amount);
-        seller.setBalance(seller.getBalance() - amount);
+        long cents = Money.floorCents(amount);
+        buyer.setBalanceCents(buyer.getBalanceCents() + cents);
+        seller.setBalanceCents(seller.getBalanceCents() - cents);
     }
 
     /**
@@ -205,12 +225,10 @@ public class AdminUser extends FullStandardUser {
              // Checks if any other users has the game
              Game game = null;
 
-             for (User user: User.getAllUsers().values() ) {
-                 if (user.ownsGame(gameName) && user.getGame(gameName).isOffProbation()) {
-                     game = user.getGame(gameName).getCopy();
-                     game.putOffProbation();
-                     break;
-                 }
+             User owner = User.getRegistry().findOwner(gameName, Game::isOffProbation);
+             if (owner != null) {
+                 game = owner.getGame(gameName).getCopy();
+                 game.putOffProbation();
              }
 
              if (game == null) {
@@ -8,6 +8,7 @@ import src.main.exceptions.UsernameException;
  * An extension of the User class with the ability to buy Games on sale.
  */
 public class BuyStandardUser extends User implements BuyerInterface {
+    private static final long serialVersionUID = -1917040592827117083L;
 
     /**
      * Initializes a user that can buy games.
@@ -5,6 +5,7 @@ import src.main.exceptions.ConstraintException;
 import src.main.exceptions.BalanceException;
 import src.main.exceptions.InvalidGameException;
 import src.main.exceptions.UsernameException;
+import src.main.observer.DomainEvent;
 
 /**
  * An interface that defines the behavior for any User that is able to buy games from other users.
@@ -28,16 +29,24 @@ public interface BuyerInterface {
      * @throws ConstraintException if any of the constraints are violated.
      */
     default void buy(User buyer, String sellerName, String gameName) throws ConstraintException {
-        canBuy(buyer, sellerName, gameName);
+        // Both balances change together, even while other threads buy from the same seller
+        UserLocks.Held locks = UserLocks.lock(buyer.getUsername(), sellerName);
+        try {
+            canBuy(buyer, sellerName, gameName);
 
-        User seller = User.getAllUsers().get(sellerName);
-        Game game = seller.getGame(gameName).getCopy();
+            User seller = User.getAllUsers().get(sellerName);
+            Game game = seller.getGame(gameName).getCopy();
 
-        // Performing transaction: exchange of funds and game
-        buyer.setBalance(buyer.getBalance() - game.getPrice());
-        buyer.addToGameLibrary(game);
-        seller.setBalance(seller.getBalance() + game.getPrice());
-        buyer.notifyObserver(buyer.getUsername() + " bought the game '" + gameName + "' from " + sellerName + " for " + game.getPrice());
+            // Performing transaction: exchange of funds and game
+            buyer.setBalanceCents(buyer.getBalanceCents() - game.getPriceCents());
+            buyer.addToGameLibrary(game);
+            seller.setBalanceCents(seller.getBalanceCents() + game.getPriceCents());
+            if (buyer.isPublishing()) {
+                buyer.publish(new DomainEvent.GameSold(buyer, buyer.getUsername(), sellerName, gameName, game.getPrice()));
+            }
+        } finally {
+            locks.close();
+        }
     }
 
     /**
@@ -9,6 +9,7 @@ import src.main.exceptions.UsernameException;
  * An extension of the User class that is able to buy and put games up for sale.
  */
 public class FullStandardUser extends User implements SellerInterface, BuyerInterface {
+    private static final long serialVersionUID = -1280992572141819434L;
 
     /**
      * Initializes a user that can both buy and sell games.
@@ -17,7 +18,19 @@ public class FullStandardUser extends User implements SellerInterface, BuyerInte
      * @throws UsernameException if the username is taken or violates username restrictions.
      */
     public FullStandardUser(String username, double balance) throws UsernameException, BalanceException {
-        super(username, balance, FULL_STANDARD_TYPE);
+        this(username, balance, FULL_STANDARD_TYPE);
+    }
+
+    /**
+     * Initializes a user that can both buy and sell games with the given account type.
+     * Used by subclasses so that the account type is known before the user is registered.
+     * @param username the username of this new user.
+     * @param balance the starting balance of this user.
+     * @param accountType the type of user: one of FULL_STANDARD_TYPE, ADMIN_TYPE
+     * @throws UsernameException if the username is taken or violates username restrictions.
+     */
+    protected FullStandardUser(String username, double balance, String accountType) throws UsernameException, BalanceException {
+        super(username, balance, accountType);
     }
 
     /**
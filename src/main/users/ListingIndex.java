@@ -0,0 +1,160 @@
+package src.main.users;
+
+import src.main.Game;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Every game listed for sale by a loaded user, indexed by name, by seller and by price. A listing is a game in the
+ * library of the user that is selling it.
+ *
+ * The listings are kept up to date by the UserRegistry as games are added to and removed from libraries, so they
+ * change along with sells, removed games and deleted users. Prices are the prices buyers would pay right now, which
+ * are discounted while an auction sale is occurring.
+ *
+ * Listings can be looked up while they are changed on other threads, in which case a listing being added or removed
+ * may be found by some lookups and not others.
+ */
+public class ListingIndex {
+    private static final Comparator<Game> BY_NAME = Comparator.comparing(Game::getName).thenComparing(Game::getSeller);
+    private static final Comparator<Game> BY_PRICE = Comparator.comparingLong(Game::getPriceCents).thenComparing(BY_NAME);
+
+    private final ConcurrentHashMap<String, Set<Game>> byName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Game>> bySeller = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Set<Game>> byOriginalPrice = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Set<Game>> byDiscountedPrice = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds a listing.
+     * @param listing a game in the library of the user selling it
+     */
+    void add(Game listing) {
+        add(this.byName, listing.getName(), listing);
+        add(this.bySeller, listing.getSeller(), listing);
+        add(this.byOriginalPrice, listing.getOriginalPriceCents(), listing);
+        add(this.byDiscountedPrice, listing.getDiscountedPriceCents(), listing);
+    }
+
+    /**
+     * Removes a listing.
+     * @param listing a game that was added
+     */
+    void remove(Game listing) {
+        remove(this.byName, listing.getName(), listing);
+        remove(this.bySeller, listing.getSeller(), listing);
+        remove(this.byOriginalPrice, listing.getOriginalPriceCents(), listing);
+        remove(this.byDiscountedPrice, listing.getDiscountedPriceCents(), listing);
+    }
+
+    /**
+     * Removes every listing.
+     */
+    void clear() {
+        this.byName.clear();
+        this.bySeller.clear();
+        this.byOriginalPrice.clear();
+        this.byDiscountedPrice.clear();
+    }
+
+    private static <K> void add(Map<K, Set<Game>> index, K key, Game listing) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(listing);
+    }
+
+    private static <K> void remove(Map<K, Set<Game>> index, K key, Game listing) {
+        index.computeIfPresent(key, (k, listings) -> {
+            listings.remove(listing);
+            return listings.isEmpty() ? null : listings;
+        });
+    }
+
+    /**
+     * @return the listings indexed by the price buyers would pay right now
+     */
+    private NavigableMap<Long, Set<Game>> byPrice() {
+        return AdminUser.isAuction() ? this.byDiscountedPrice : this.byOriginalPrice;
+    }
+
+    /**
+     * @return the number of listings
+     */
+    public int size() {
+        int size = 0;
+        for (Set<Game> listings: this.bySeller.values()) {
+            size += listings.size();
+        }
+        return size;
+    }
+
+    /**
+     * @param gameName the name of a game
+     * @return every listing of a game with the name, cheapest first
+     */
+    public List<Game> getListings(String gameName) {
+        return sorted(this.byName.get(gameName), BY_PRICE);
+    }
+
+    /**
+     * @param seller the username of a seller
+     * @return every game the seller is selling, by name
+     */
+    public List<Game> getListingsBySeller(String seller) {
+        return sorted(this.bySeller.get(seller), BY_NAME);
+    }
+
+    /**
+     * @param minCents the lowest price in cents, inclusive
+     * @param maxCents the highest price in cents, inclusive
+     * @param limit the most listings to return
+     * @return the cheapest listings with a price in the range, cheapest first
+     */
+    public List<Game> getListingsBetween(long minCents, long maxCents, int limit) {
+        if (minCents > maxCents) {
+            return Collections.emptyList();
+        }
+        return first(this.byPrice().subMap(minCents, true, maxCents, true), limit);
+    }
+
+    /**
+     * @param limit the most listings to return
+     * @return the cheapest listings, cheapest first
+     */
+    public List<Game> getCheapest(int limit) {
+        return first(this.byPrice(), limit);
+    }
+
+    /**
+     * @param limit the most listings to return
+     * @return the most expensive listings, most expensive first
+     */
+    public List<Game> getMostExpensive(int limit) {
+        return first(this.byPrice().descendingMap(), limit);
+    }
+
+    /**
+     * @return the listings in the order of the prices they are indexed by, up to a limit
+     */
+    private static List<Game> first(NavigableMap<Long, Set<Game>> byPrice, int limit) {
+        List<Game> listings = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        for (Set<Game> atPrice: byPrice.values()) {
+            // Listings with the same price are taken in a fixed order
+            for (Game listing: sorted(atPrice, BY_NAME)) {
+                if (listings.size() >= limit) {
+                    return listings;
+                }
+                listings.add(listing);
+            }
+        }
+        return listings;
+    }
+
+    private static List<Game> sorted(Set<Game> listings, Comparator<Game> order) {
+        if (listings == null) {
+            return new ArrayList<>();
+        }
+        List<Game> sorted = new ArrayList<>(listings);
+        sorted.sort(order);
+        return sorted;
+    }
+}
@@ -9,6 +9,7 @@ import src.main.exceptions.UsernameException;
  * An extension of the User class with the ability to put games up for sale.
  */
 public class SellStandardUser extends User implements SellerInterface{
+    private static final long serialVersionUID = 4702882406108743595L;
 
     /**
      * Initializes a user than can sell games.
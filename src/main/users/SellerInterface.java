@@ -1,10 +1,9 @@
 package src.main.users;
 
 import src.main.Game;
+import src.main.Money;
 import src.main.exceptions.InvalidGameException;
-
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
+import src.main.observer.DomainEvent;
 
 /**
  * An interface that defines the behavior for any User that must be able to sell games.
@@ -24,12 +23,12 @@ public interface SellerInterface {
         if (seller.ownsGame(gameName)) {
             throw new InvalidGameException(seller.getUsername() + " already has '" + gameName + "' in their library");
         } else {
-            // Source: https://stackoverflow.com/a/28107087 Retrieved at April 4, 2021
-            DecimalFormat df = new DecimalFormat("#.##");
-            df.setRoundingMode(RoundingMode.FLOOR);
-            price = Double.parseDouble(df.format(price));
-            seller.addToGameLibrary(new Game(gameName, seller.getUsername(), price, discount));
-            seller.notifyObserver(seller.getUsername() + " has put up " + gameName + " for sale at " + price + " credits");
+            price = Money.toCredits(Money.floorCents(price));
+            Game game = new Game(gameName, seller.getUsername(), price, discount);
+            seller.addToGameLibrary(game);
+            if (seller.isPublishing()) {
+                seller.publish(new DomainEvent.GameListed(seller, game));
+            }
         }
     }
 }
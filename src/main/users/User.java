@@ -1,26 +1,48 @@
 package src.main.users;
 
 import src.main.Game;
+import src.main.Money;
 import src.main.exceptions.*;
 import src.main.observer.AbstractObservable;
-
+import src.main.observer.DomainEvent;
+import src.main.observer.EventLog;
+import src.main.observer.JournalRecord;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 public abstract class User extends AbstractObservable implements Serializable {
+    // Storage files saved with Java serialization by earlier versions of the backend are still read
+    private static final long serialVersionUID = -8564862672706111480L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("balance", double.class),
+            new ObjectStreamField("creditsAddedToday", double.class),
+            new ObjectStreamField("accountType", String.class),
+            new ObjectStreamField("gameLibrary", HashMap.class),
+            new ObjectStreamField("username", String.class)
+    };
 
     private String username;
     protected String accountType;
-    private double balance;
-    private final HashMap<String, Game> gameLibrary = new HashMap<>();
-    private static final HashMap<String, User> allUsers = new HashMap<>();
-    private double creditsAddedToday = 0.0;
+    private long balance;
+    private HashMap<String, Game> gameLibrary = new HashMap<>();
+    private static final UserRegistry allUsers = new UserRegistry();
+    private long creditsAddedToday = 0;
+    // The day creditsAddedToday were added on, so they are only counted on that day
+    private transient long creditsDay = Game.getCurrentDay();
 
     // Constants
     public final static double DAILY_DEPOSIT_LIMIT = 1000.00;
     public final static double MAXIMUM_CREDITS = 999999.99;
+    private final static long DAILY_DEPOSIT_LIMIT_CENTS = Money.toCents(DAILY_DEPOSIT_LIMIT);
+    private final static long MAXIMUM_CENTS = Money.toCents(MAXIMUM_CREDITS);
     public final static int MAX_USERNAME_LENGTH = 15;
     public static final String BUYER_TYPE = "BS";
     public static final String SELLER_TYPE = "SS";
@@ -55,9 +77,12 @@ public abstract class User extends AbstractObservable implements Serializable {
         this.username = username;
         this.accountType = accountType;
 
-        this.setBalance(balance);
+        this.applyBalance(Money.floorCents(balance));
         allUsers.put(username, this);
-        this.notifyObserver("A user '" + this.username + "' has been created with an initial balance of " + this.balance);
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.createUser(this.username, this.accountType, this.getBalance()));
+            this.publish(new DomainEvent.UserCreated(this, this.username, this.getBalance()));
+        }
     }
 
     /**
@@ -82,18 +107,49 @@ public abstract class User extends AbstractObservable implements Serializable {
     }
 
     /**
-     * Sets the balance of this user to the given amount.
+     * @return a read-only view of this users library of games indexed by name, which changes along with the
+     * library instead of being copied.
+     */
+    public Map<String, Game> getGameLibraryView() {
+        return Collections.unmodifiableMap(this.gameLibrary);
+    }
+
+    /**
+     * @return the games in this users library without copying the library.
+     */
+    public Collection<Game> getLibraryGames() {
+        return Collections.unmodifiableCollection(this.gameLibrary.values());
+    }
+
+    /**
+     * Sets the balance of this user to the given amount, dropping any fraction of a cent.
      * @param amount the amount of credits to set the new balance to.
      */
     protected void setBalance(double amount) {
-        if (amount > MAXIMUM_CREDITS) {
-            System.out.println("WARNING: Balance exceeds the maximum - " + MAXIMUM_CREDITS + "\nBalance will be set to maximum");
-            this.balance = MAXIMUM_CREDITS;
+        this.setBalanceCents(Money.floorCents(amount));
+    }
+
+    /**
+     * Sets the balance of this user to the given amount.
+     * @param cents the amount of cents to set the new balance to.
+     */
+    protected void setBalanceCents(long cents) {
+        this.applyBalance(cents);
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.balance(this.username, this.getBalance()));
+        }
+    }
+
+    /**
+     * Sets the balance of this user to the given amount without recording the change.
+     * @param cents the amount of cents to set the new balance to.
+     */
+    private void applyBalance(long cents) {
+        if (cents > MAXIMUM_CENTS) {
+            EventLog.getShared().warning("User", "WARNING: Balance exceeds the maximum - " + MAXIMUM_CREDITS + "\nBalance will be set to maximum");
+            this.balance = MAXIMUM_CENTS;
         } else {
-            // Source: https://stackoverflow.com/a/28107087 Retrieved at April 4, 2021
-            DecimalFormat df = new DecimalFormat("#.##");
-            df.setRoundingMode(RoundingMode.FLOOR);
-            this.balance = Double.parseDouble(df.format(amount));
+            this.balance = cents;
         }
     }
 
@@ -101,7 +157,14 @@ public abstract class User extends AbstractObservable implements Serializable {
      * @return the balance in this users account
      */
     public double getBalance() {
-        return balance;
+        return Money.toCredits(this.balance);
+    }
+
+    /**
+     * @return the balance in this users account in cents
+     */
+    public long getBalanceCents() {
+        return this.balance;
     }
 
     /**
@@ -110,26 +173,34 @@ public abstract class User extends AbstractObservable implements Serializable {
      * @param amount the amount to be deposited.
      */
     public void addCredit(double amount) throws DailyCreditLimitException {
-        this.setCreditsAddedToday(amount);
-        double previousBalance = this.getBalance();
-        this.setBalance(this.getBalance() + amount);
-        this.notifyObserver(this.username + " has added " + String.format("%.2f", this.getBalance() - previousBalance) + " credits to their balance.");
+        long cents = Money.floorCents(amount);
+        this.setCreditsAddedToday(cents);
+        long previousBalance = this.balance;
+        this.setBalanceCents(this.balance + cents);
+        if (this.isPublishing()) {
+            this.publish(new DomainEvent.CreditAdded(this, this.username, this.balance - previousBalance));
+        }
     }
 
     /**
      * @return the amount of credit that has been deposited in the current session (day).
      */
     private double getCreditsAddedToday() {
-        return this.creditsAddedToday;
+        return this.creditsDay == Game.getCurrentDay() ? Money.toCredits(this.creditsAddedToday) : 0;
     }
 
     /**
      * Sets the amount of credits deposited in the current session to the newAmount.
      *
-     * @param addAmount the new value of how many credits have been deposited in the sessions (day).
+     * @param addAmount the number of cents being deposited in the sessions (day).
      */
-    private void setCreditsAddedToday(double addAmount) throws DailyCreditLimitException {
-        if (this.creditsAddedToday + addAmount > DAILY_DEPOSIT_LIMIT) {
+    private void setCreditsAddedToday(long addAmount) throws DailyCreditLimitException {
+        long today = Game.getCurrentDay();
+        if (this.creditsDay != today) {
+            this.creditsAddedToday = 0;
+            this.creditsDay = today;
+        }
+        if (this.creditsAddedToday + addAmount > DAILY_DEPOSIT_LIMIT_CENTS) {
             throw new DailyCreditLimitException(
                     "Warning: You cannot deposit more than " + DAILY_DEPOSIT_LIMIT + " credits in a day.");
         }
@@ -143,7 +214,7 @@ public abstract class User extends AbstractObservable implements Serializable {
      * @return true iff game is in user's library.
      */
     public boolean ownsGame(String gameName) {
-        return this.getGameLibrary().containsKey(gameName);
+        return this.gameLibrary.containsKey(gameName);
     }
 
     /**
@@ -164,7 +235,7 @@ public abstract class User extends AbstractObservable implements Serializable {
      */
     protected boolean hasEnoughCredits(Game game) {
         // Checking if the buyer has has enough balance to buy this game.
-        return this.getBalance() - game.getPrice() >= 0;
+        return this.balance - game.getPriceCents() >= 0;
     }
 
     /**
@@ -172,29 +243,76 @@ public abstract class User extends AbstractObservable implements Serializable {
      * @param game Game
      */
     protected void addToGameLibrary(Game game) {
-        this.gameLibrary.put(game.getName(), game);
+        Game previous = this.gameLibrary.put(game.getName(), game);
+        if (previous != null) {
+            allUsers.gameRemoved(this.username, previous);
+        }
+        allUsers.gameAdded(this.username, game);
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.addGame(this.username, game));
+        }
+    }
+
+    /**
+     * Removes the game with the given name from this users library.
+     * @param gameName the name of the game to remove
+     */
+    protected void removeFromGameLibrary(String gameName) {
+        Game game = this.gameLibrary.remove(gameName);
+        if (game != null) {
+            allUsers.gameRemoved(this.username, game);
+        }
+        if (this.isPublishing()) {
+            this.recordChange(JournalRecord.removeGame(this.username, gameName));
+        }
     }
 
     /**
-     * @return a hashmap of all Users in the system index by a username.
+     * @return a map of all Users in the system index by a username.
      */
-    public static HashMap<String, User> getAllUsers() {
+    public static Map<String, User> getAllUsers() {
         return allUsers;
     }
 
     /**
-     * Resets this users amount of credits that have been added.
-     * Only used when a new day (backend executed) has occurred.
+     * @return the registry of all Users in the system, which can also be used without loading every user
      */
-    protected void resetDailyCreditsAdded() {
-        this.creditsAddedToday = 0.0;
+    public static UserRegistry getRegistry() {
+        return allUsers;
+    }
+
+    /**
+     * Writes this user as earlier versions of the backend did, with its balance and credits added in credits.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("balance", Money.toCredits(this.balance));
+        fields.put("creditsAddedToday", Money.toCredits(this.creditsAddedToday));
+        fields.put("accountType", this.accountType);
+        fields.put("gameLibrary", this.gameLibrary);
+        fields.put("username", this.username);
+        out.writeFields();
+    }
+
+    /**
+     * Reads a user written by writeObject or by an earlier version of the backend.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        this.balance = Money.toCents(fields.get("balance", 0.0));
+        this.creditsAddedToday = Money.toCents(fields.get("creditsAddedToday", 0.0));
+        this.accountType = (String) fields.get("accountType", null);
+        HashMap<String, Game> library = (HashMap<String, Game>) fields.get("gameLibrary", null);
+        this.gameLibrary = library == null ? new HashMap<>() : library;
+        this.username = (String) fields.get("username", null);
     }
 
     /**
      * @return a string representation of this user containing account information.
      */
     public String toString() {
-        return "Username: " + this.username + "\nBalance: " + this.balance + "\nType: " + this.accountType + "\nCredits added: " + this.getCreditsAddedToday();
+        return "Username: " + this.username + "\nBalance: " + this.getBalance() + "\nType: " + this.accountType + "\nCredits added: " + this.getCreditsAddedToday();
     }
 
     /**
@@ -209,9 +327,11 @@ public abstract class User extends AbstractObservable implements Serializable {
 
         // Checks if the game has been bought/listed for at least a day
         this.dayPassed(gameName);
-        this.gameLibrary.remove(gameName);
+        this.removeFromGameLibrary(gameName);
 
-        this.notifyObserver(this.username + " has removed '" + gameName + "' from their library");
+        if (this.isPublishing()) {
+            this.publish(new DomainEvent.GameRemoved(this, this.username, gameName));
+        }
     }
 
     /**
@@ -263,7 +383,9 @@ public abstract class User extends AbstractObservable implements Serializable {
             this.removeGame(game.getName());
         }
         receiver.addToGameLibrary(game);
-        this.notifyObserver(this.username + " has gifted the game '" + game.getName() + "' to " + receiverName);
+        if (this.isPublishing()) {
+            this.publish(new DomainEvent.GameGifted(this, this.username, receiverName, game.getName()));
+        }
     }
     /**
      * Checks if user has the game in their library
@@ -330,6 +452,6 @@ public abstract class User extends AbstractObservable implements Serializable {
      * @return Game
      */
     public Game getGame(String gameName) {
-        return this.getGameLibrary().get(gameName);
+        return this.gameLibrary.get(gameName);
     }
 }
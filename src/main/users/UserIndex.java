@@ -0,0 +1,140 @@
+package src.main.users;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The username to offset index at the end of a binary snapshot, along with an open handle to the snapshot so that
+ * single user records can be read without reading the rest of the file.
+ */
+public class UserIndex {
+
+    /**
+     * The position, length and number of games of one user record in a snapshot.
+     */
+    static class Entry {
+        final long offset;
+        final int length;
+        final int gameCount;
+
+        Entry(long offset, int length, int gameCount) {
+            this.offset = offset;
+            this.length = length;
+            this.gameCount = gameCount;
+        }
+    }
+
+    private final FileChannel channel;
+    private final boolean auction;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Initializes a UserIndex over an open snapshot.
+     */
+    private UserIndex(FileChannel channel, boolean auction, LinkedHashMap<String, Entry> entries) {
+        this.channel = channel;
+        this.auction = auction;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the snapshot in the given file and reads its index.
+     * @param file a binary snapshot
+     * @return the index of the snapshot, or null if the snapshot was written before indexes were added
+     * @throws IOException if the file is not a snapshot or its index cannot be read
+     */
+    public static UserIndex open(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            ByteBuffer header = read(channel, 0, Integer.BYTES + Short.BYTES + Byte.BYTES);
+            if (header.getInt() != UserSnapshotWriter.MAGIC) {
+                throw new IOException("Not a user snapshot.");
+            }
+            if (header.getShort() < UserSnapshotWriter.INDEXED_VERSION) {
+                channel.close();
+                return null;
+            }
+            boolean auction = (header.get() & UserSnapshotWriter.AUCTION_FLAG) != 0;
+
+            long indexOffset = read(channel, channel.size() - Long.BYTES, Long.BYTES).getLong();
+            int indexLength = (int) (channel.size() - Long.BYTES - indexOffset);
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(read(channel, indexOffset, indexLength).array()));
+            int count = in.readInt();
+            LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[in.readUnsignedByte()];
+                in.readFully(name);
+                entries.put(new String(name, StandardCharsets.UTF_8),
+                        new Entry(in.readLong(), in.readInt(), in.readInt()));
+            }
+            return new UserIndex(channel, auction, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt user snapshot index.", e);
+        }
+    }
+
+    /**
+     * @return true if an auction sale was occurring when the snapshot was written
+     */
+    public boolean isAuction() {
+        return this.auction;
+    }
+
+    /**
+     * @return every user in the snapshot, in the order they were written
+     */
+    Map<String, Entry> getEntries() {
+        return Collections.unmodifiableMap(this.entries);
+    }
+
+    /**
+     * @param username a username
+     * @return the index entry of the user, or null if they are not in the snapshot
+     */
+    Entry getEntry(String username) {
+        return this.entries.get(username);
+    }
+
+    /**
+     * Reads the raw bytes of one user record.
+     * @param entry the index entry of the user
+     * @return the user record
+     * @throws IOException if the record could not be read
+     */
+    byte[] readRecord(Entry entry) throws IOException {
+        return read(this.channel, entry.offset, entry.length).array();
+    }
+
+    /**
+     * Closes the snapshot file.
+     */
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads length bytes of the channel starting at the given position.
+     * @throws IOException if the channel ends before length bytes were read
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
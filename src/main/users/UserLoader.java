@@ -1,46 +1,321 @@
 package src.main.users;
 
 import src.main.Game;
+import src.main.Money;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.UsernameException;
+import src.main.observer.EventLog;
+import src.main.observer.JournalRecord;
+import src.main.observer.MappedUserTable;
+import src.main.observer.PersistenceMode;
 import src.main.observer.UserObserver;
 import java.io.*;
+import java.nio.file.Files;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * A class that holds the functions necessary to load users in the database from previous back-end executions
  * of the main client.
  */
 public class UserLoader {
-    private static final File STORAGE_FILE = new UserObserver().getStorageFile();
+    public static final String LEGACY_BACKUP_SUFFIX = ".unreadable";
+    private static final File STORAGE_FILE = UserObserver.getInstance().getStorageFile();
+    private static boolean lazyLoading = false;
+
+    /**
+     * @return true if users are only read from the storage file when they are first looked up
+     */
+    public static boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Sets whether loadUsers reads only the index of the storage file and leaves each user to be read the first
+     * time they are looked up in User.allUsers, instead of reading every user up front.
+     * @param lazy true to load users lazily
+     */
+    public static void setLazyLoading(boolean lazy) {
+        lazyLoading = lazy;
+    }
 
     /**
      * Loads all the users from the database into the static allUsers variable in the User class.
+     * Any changes in the journal that were made after the storage file was last saved are replayed on top, and
+     * balances are taken from the MappedUserTable if there is one.
+     * Changes to the previously loaded users that have not been flushed are discarded.
      */
     public static void loadUsers() {
-        HashMap<String, User> allUsers = User.getAllUsers();
+        UserObserver.awaitSnapshots();
+        UserRegistry allUsers = User.getRegistry();
         allUsers.clear();
-        try{
-            HashMap<String, User> tempAllUsers = getDeserializedAllUsers();
-            for (Map.Entry<String, User> entry: tempAllUsers.entrySet()) {
-                User user = entry.getValue();
-                user.resetDailyCreditsAdded();
-                allUsers.put(entry.getKey(), user);
-                // This allows games to be bought/removed the next day
-                for (Map.Entry<String, Game> gameEntry: user.getGameLibrary().entrySet()) {
-                    gameEntry.getValue().putOffProbation();
+        UserObserver.clearDirty();
+        if (!lazyLoading || !attachStorageIndex()) {
+            readStorageFile();
+        }
+
+        List<JournalRecord> records = UserObserver.getJournal().readAll();
+        int replayed = replayJournal(records);
+        boolean tableApplied = applyTable(records);
+        // Games replayed from the journal were listed or acquired on an earlier day, as were the daily credits added
+        Game.startNewDay();
+
+        // The journal and table are not kept up to date in every mode, so their changes are moved into the storage file.
+        PersistenceMode mode = UserObserver.getPersistenceMode();
+        if ((replayed > 0 && mode == PersistenceMode.SNAPSHOT)
+                || (tableApplied && mode != PersistenceMode.MAPPED_TABLE)) {
+            UserObserver.checkpoint();
+        }
+    }
+
+    /**
+     * Starts a new day of transactions without reading users from the database again, as if they had been saved
+     * and loaded. No user or game is changed, as daily credits and probation are both kept by the day.
+     */
+    public static void startNewDay() {
+        Game.startNewDay();
+    }
+
+    /**
+     * Gets a user read lazily from the storage file ready for a new day of transactions. If there is a
+     * MappedUserTable the balance of the user is taken from it, as it is more recent than the storage file.
+     * @param user a user that has just been read
+     */
+    private static void prepareLazyUser(User user) {
+        if (UserObserver.getTableFile().exists()) {
+            MappedUserTable table = UserObserver.getTable();
+            if (table != null && table.contains(user.getUsername())) {
+                user.setBalanceCents(table.getBalanceCents(user.getUsername()));
+            }
+        }
+    }
+
+    /**
+     * Attaches the users in the storage file to User.allUsers without reading them, if the storage file is a
+     * binary snapshot with an index.
+     * @return true if the users were attached
+     */
+    private static boolean attachStorageIndex() {
+        if (!UserSnapshotReader.isSnapshot(STORAGE_FILE)) {
+            return false;
+        }
+        try {
+            UserIndex index = UserIndex.open(STORAGE_FILE);
+            if (index == null) {
+                return false;
+            }
+            User.getRegistry().attachIndex(index, UserLoader::prepareLazyUser);
+            AdminUser.setAuction(index.isAuction());
+            return true;
+        } catch (IOException e) {
+            EventLog.getShared().error("UserLoader", "Could not read the user database index: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the users in the storage file into User.allUsers. A storage file saved with Java serialization by an
+     * older version of the backend is read once and rewritten as a binary snapshot. If it cannot be read, it is
+     * copied to a file ending in LEGACY_BACKUP_SUFFIX before anything is saved over it, and the error is logged.
+     */
+    private static void readStorageFile() {
+        if (UserSnapshotReader.isSnapshot(STORAGE_FILE)) {
+            try {
+                UserSnapshotReader.read(STORAGE_FILE);
+            } catch (IOException e) {
+                EventLog.getShared().error("UserLoader", "Could not read the user database: " + e.getMessage());
+            }
+            return;
+        }
+        // A new storage file is empty until users are first saved
+        if (!STORAGE_FILE.isFile() || STORAGE_FILE.length() == 0) {
+            return;
+        }
+
+        HashMap<String, User> users;
+        try {
+            users = getDeserializedAllUsers();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            File backup = new File(STORAGE_FILE.getPath() + LEGACY_BACKUP_SUFFIX);
+            try {
+                if (!backup.exists()) {
+                    Files.copy(STORAGE_FILE.toPath(), backup.toPath());
                 }
+                EventLog.getShared().error("UserLoader", "Could not read the user database, starting without its"
+                        + " users. It has been kept in " + backup.getName() + ": " + e);
+            } catch (IOException copyFailure) {
+                EventLog.getShared().error("UserLoader", "Could not read the user database or keep a copy of it: "
+                        + e + ", " + copyFailure);
             }
-        } catch (IOException | ClassNotFoundException ignored) {
+            return;
+        }
+        User.getAllUsers().putAll(users);
+        try {
+            UserSnapshotWriter.write(STORAGE_FILE, User.getAllUsers().values(), AdminUser.isAuction());
+        } catch (IOException e) {
+            EventLog.getShared().error("UserLoader", "Could not rewrite the user database as a snapshot: " + e);
         }
     }
 
     /**
-     * Deserializes and returns a hashmap of all saved users indexed by username.
+     * Deserializes and returns a hashmap of all saved users indexed by username from a storage file saved with
+     * Java serialization.
      * @return a hashmap containing users from the previous session of the main client indexed by username
      */
     private static HashMap<String, User> getDeserializedAllUsers() throws IOException, ClassNotFoundException {
-        FileInputStream fis = new FileInputStream(STORAGE_FILE);
-        ObjectInputStream ois = new ObjectInputStream(fis);
-        return (HashMap<String, User>) ois.readObject();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(STORAGE_FILE))) {
+            return (HashMap<String, User>) ois.readObject();
+        }
+    }
+
+    /**
+     * Applies every record in the journal to the users in User.allUsers without recording them again.
+     * @param records every record in the journal
+     * @return the number of records that were replayed
+     */
+    private static int replayJournal(List<JournalRecord> records) {
+        boolean wasRecording = UserObserver.isRecording();
+        UserObserver.setRecording(false);
+        try {
+            for (JournalRecord record: records) {
+                try {
+                    replay(record);
+                } catch (ConstraintException e) {
+                    EventLog.getShared().warning("UserLoader", "Skipping journal record '" + record + "': " + e.getMessage());
+                }
+            }
+        } finally {
+            UserObserver.setRecording(wasRecording);
+        }
+        return records.size();
+    }
+
+    /**
+     * Makes the users in User.allUsers match the rows of the MappedUserTable, which is always at least as recent as
+     * the storage file and journal when it exists. In PersistenceMode.MAPPED_TABLE an empty table is filled with the
+     * loaded users instead.
+     * @param records every record in the journal, which the table is brought up to date with first
+     * @return true if the table had any rows to apply
+     */
+    private static boolean applyTable(List<JournalRecord> records) {
+        boolean mapped = UserObserver.getPersistenceMode() == PersistenceMode.MAPPED_TABLE;
+        if (!mapped && !UserObserver.getTableFile().exists()) {
+            return false;
+        }
+        MappedUserTable table = UserObserver.getTable();
+        if (table == null) {
+            return false;
+        }
+        UserRegistry allUsers = User.getRegistry();
+        if (table.size() == 0) {
+            if (mapped && !allUsers.isEmpty()) {
+                try {
+                    table.rebuild(allUsers.values(), AdminUser.isAuction());
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            return false;
+        }
+        redoTable(table, records);
+
+        boolean wasRecording = UserObserver.isRecording();
+        UserObserver.setRecording(false);
+        try {
+            // The table is deleted after this outside of PersistenceMode.MAPPED_TABLE, so every balance is needed now
+            if (!mapped) {
+                allUsers.materializeAll();
+            }
+            for (String username: allUsers.getUsernames()) {
+                if (!table.contains(username)) {
+                    if (allUsers.isLoaded(username)) {
+                        allUsers.get(username).detach();
+                    }
+                    allUsers.remove(username);
+                }
+            }
+            for (String username: table.getUsernames()) {
+                if (!allUsers.containsKey(username)) {
+                    try {
+                        new UserFactory().makeUser(username, table.getAccountType(username), table.getBalance(username));
+                    } catch (ConstraintException e) {
+                        EventLog.getShared().warning("UserLoader", "Skipping table row '" + username + "': " + e.getMessage());
+                    }
+                }
+            }
+            for (User user: allUsers.getLoadedUsers()) {
+                user.setBalanceCents(table.getBalanceCents(user.getUsername()));
+            }
+            AdminUser.setAuction(table.isAuction());
+        } finally {
+            UserObserver.setRecording(wasRecording);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the journal to the MappedUserTable again, in case the backend stopped after flushing the journal but
+     * before writing its changes to the table. Balances in the journal replace those in the table, so records the
+     * table already holds change nothing, except that users already in the table are not created again.
+     * @param table the table to bring up to date
+     * @param records every record in the journal
+     */
+    private static void redoTable(MappedUserTable table, List<JournalRecord> records) {
+        try {
+            for (JournalRecord record: records) {
+                if (record.getType() != JournalRecord.Type.CREATE_USER || !table.contains(record.getUsername())) {
+                    table.apply(record);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        table.force();
+    }
+
+    /**
+     * Applies a single journal record to the users in User.allUsers.
+     * @param record the change to apply
+     * @throws ConstraintException if the change cannot be applied to the current users
+     */
+    private static void replay(JournalRecord record) throws ConstraintException {
+        User user = User.getAllUsers().get(record.getUsername());
+        switch (record.getType()) {
+            case CREATE_USER:
+                new UserFactory().makeUser(record.getUsername(), record.getAccountType(), record.getAmount());
+                break;
+            case DELETE_USER:
+                if (user != null) {
+                    user.detach();
+                    User.getAllUsers().remove(record.getUsername());
+                }
+                break;
+            case BALANCE:
+                requireUser(user, record).setBalanceCents(Money.toCents(record.getAmount()));
+                break;
+            case ADD_GAME:
+                requireUser(user, record).addToGameLibrary(
+                        new Game(record.getGameName(), record.getSeller(), record.getAmount(), record.getDiscount()));
+                break;
+            case REMOVE_GAME:
+                requireUser(user, record).removeFromGameLibrary(record.getGameName());
+                break;
+            case AUCTION:
+                AdminUser.setAuction(record.getFlag());
+                break;
+        }
+    }
+
+    /**
+     * @param user the user a journal record refers to, or null if they do not exist
+     * @param record the journal record
+     * @return the given user
+     * @throws UsernameException if the user does not exist
+     */
+    private static User requireUser(User user, JournalRecord record) throws UsernameException {
+        if (user == null) {
+            throw new UsernameException("User '" + record.getUsername() + "' does not exist");
+        }
+        return user;
     }
 }
@@ -0,0 +1,90 @@
+package src.main.users;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks that make a change to several users at once, such as moving credits between two users, atomic when
+ * users are changed from several threads.
+ *
+ * Each username maps to one of a fixed number of locks, so any number of users can be locked without a lock per
+ * user. Locks are always taken in the same order, which keeps threads locking overlapping users from deadlocking.
+ * The locks are reentrant, so a thread that already holds the locks of some users may lock any of those users
+ * again, but should not lock a user it does not already hold.
+ */
+public class UserLocks {
+    public static final int STRIPES = 64;
+    private static final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The locks held for a group of users, which are released when closed.
+     */
+    public static class Held implements AutoCloseable {
+        private final int[] held;
+
+        private Held(int[] held) {
+            this.held = held;
+        }
+
+        /**
+         * Releases the locks, in the reverse of the order they were taken.
+         */
+        @Override
+        public void close() {
+            for (int i = this.held.length - 1; i >= 0; i--) {
+                stripes[this.held[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Locks the given users, waiting until no other thread holds any of their locks.
+     * @param usernames the usernames of the users to lock
+     * @return the held locks, to be closed once the users have been changed
+     */
+    public static Held lock(String... usernames) {
+        return lock(Arrays.asList(usernames));
+    }
+
+    /**
+     * Locks the given users, waiting until no other thread holds any of their locks.
+     * @param usernames the usernames of the users to lock
+     * @return the held locks, to be closed once the users have been changed
+     */
+    public static Held lock(Collection<String> usernames) {
+        int[] indices = new int[usernames.size()];
+        int count = 0;
+        for (String username: usernames) {
+            if (username != null) {
+                indices[count++] = stripeOf(username);
+            }
+        }
+        Arrays.sort(indices, 0, count);
+
+        int[] held = new int[count];
+        int heldCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (heldCount == 0 || held[heldCount - 1] != indices[i]) {
+                stripes[indices[i]].lock();
+                held[heldCount++] = indices[i];
+            }
+        }
+        return new Held(Arrays.copyOf(held, heldCount));
+    }
+
+    /**
+     * @param username a username
+     * @return the index of the lock of the user
+     */
+    static int stripeOf(String username) {
+        int hash = username.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % STRIPES;
+    }
+}
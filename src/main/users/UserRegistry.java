@@ -0,0 +1,426 @@
+package src.main.users;
+
+import src.main.Game;
+import src.main.observer.UserObserver;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The map of every user in the database indexed by username. Users can be attached from the index of a binary
+ * snapshot without being read; such a user is only read from the snapshot the first time they are looked up.
+ *
+ * Looking a user up with get loads them, while containsKey, size and getUsernames do not. Iterating over the map
+ * loads every user first.
+ *
+ * The registry also keeps track of which loaded users own each game, so the owners of a game can be found without
+ * searching every library, and of the games they are selling in a ListingIndex.
+ *
+ * Users may be looked up, loaded, added and removed from several threads at once. Iterating over the map is only
+ * safe while no users are being added or removed.
+ *
+ * The registry wraps the map of loaded users rather than extending it, so every way of changing the map goes through
+ * put and remove and keeps the unloaded users and the owners of each game up to date. The key, value and entry views
+ * cannot be changed.
+ */
+public class UserRegistry extends AbstractMap<String, User> {
+    private final HashMap<String, User> users = new HashMap<>();
+    private UserIndex index;
+    private LinkedHashMap<String, UserIndex.Entry> unloaded = new LinkedHashMap<>();
+    private Consumer<User> loadHook;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<String, Set<String>> owners = new ConcurrentHashMap<>();
+    private final ListingIndex listings = new ListingIndex();
+
+    /**
+     * Attaches every user in a snapshot index without reading them. Users already in the registry are kept.
+     * @param index the index of the snapshot the users are read from
+     * @param loadHook called with each user once they have been read, or null
+     */
+    void attachIndex(UserIndex index, Consumer<User> loadHook) {
+        this.lock.writeLock().lock();
+        try {
+            this.closeIndex();
+            this.index = index;
+            this.loadHook = loadHook;
+            for (Map.Entry<String, UserIndex.Entry> entry: index.getEntries().entrySet()) {
+                if (!this.users.containsKey(entry.getKey())) {
+                    this.unloaded.put(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Points the users that have not been loaded yet at the same records in a rewritten snapshot.
+     * @param file the rewritten snapshot
+     */
+    void reopenIndex(File file) {
+        this.lock.writeLock().lock();
+        try {
+            this.closeIndex();
+            try {
+                this.index = UserIndex.open(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            for (Map.Entry<String, UserIndex.Entry> entry: this.unloaded.entrySet()) {
+                entry.setValue(this.index.getEntry(entry.getKey()));
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the snapshot users are loaded from.
+     */
+    void closeIndex() {
+        if (this.index != null) {
+            this.index.close();
+            this.index = null;
+        }
+    }
+
+    /**
+     * @return the number of users that have not been read from the snapshot yet
+     */
+    public int getUnloadedCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.unloaded.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the index entries of the users that have not been read from the snapshot yet
+     */
+    Map<String, UserIndex.Entry> getUnloadedEntries() {
+        return Collections.unmodifiableMap(this.unloaded);
+    }
+
+    /**
+     * @param entry the index entry of a user that has not been loaded
+     * @return the raw record of the user in the snapshot
+     * @throws IOException if the record could not be read
+     */
+    byte[] readUnloadedRecord(UserIndex.Entry entry) throws IOException {
+        return this.index.readRecord(entry);
+    }
+
+    /**
+     * Records that a game was added to the library of a user in the registry.
+     * @param username the username of the user
+     * @param game the game
+     */
+    void gameAdded(String username, Game game) {
+        this.owners.computeIfAbsent(game.getName(), name -> ConcurrentHashMap.newKeySet()).add(username);
+        if (game.getSeller().equals(username)) {
+            this.listings.add(game);
+        }
+    }
+
+    /**
+     * Records that a game was removed from the library of a user in the registry.
+     * @param username the username of the user
+     * @param game the game
+     */
+    void gameRemoved(String username, Game game) {
+        this.owners.computeIfPresent(game.getName(), (name, usernames) -> {
+            usernames.remove(username);
+            return usernames.isEmpty() ? null : usernames;
+        });
+        if (game.getSeller().equals(username)) {
+            this.listings.remove(game);
+        }
+    }
+
+    /**
+     * Records every game in the library of a user being added to or removed from the registry.
+     */
+    private void indexLibrary(User user, boolean added) {
+        for (Game game: user.getLibraryGames()) {
+            if (added) {
+                this.gameAdded(user.getUsername(), game);
+            } else {
+                this.gameRemoved(user.getUsername(), game);
+            }
+        }
+    }
+
+    /**
+     * @return the games loaded users are selling
+     */
+    public ListingIndex getListings() {
+        return this.listings;
+    }
+
+    /**
+     * @param gameName the name of a game
+     * @return the usernames of the loaded users that own a game with the name, including its seller
+     */
+    public Set<String> getOwners(String gameName) {
+        Set<String> usernames = this.owners.get(gameName);
+        return usernames == null ? Collections.emptySet() : new HashSet<>(usernames);
+    }
+
+    /**
+     * Finds a user that owns a game with the given name, loading every user first if some have not been loaded.
+     * @param gameName the name of a game
+     * @param condition a condition the user's copy of the game must meet
+     * @return a user whose copy of the game meets the condition, or null if there is none
+     */
+    public User findOwner(String gameName, Predicate<Game> condition) {
+        if (this.getUnloadedCount() > 0) {
+            this.materializeAll();
+        }
+        Set<String> usernames = this.owners.get(gameName);
+        if (usernames == null) {
+            return null;
+        }
+        for (String username: usernames) {
+            User user = this.get(username);
+            Game game = user == null ? null : user.getGame(gameName);
+            if (game != null && condition.test(game)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the users that have been loaded, without loading any others
+     */
+    public Collection<User> getLoadedUsers() {
+        return Collections.unmodifiableCollection(this.users.values());
+    }
+
+    /**
+     * @return the username of every user, without loading any of them
+     */
+    public Set<String> getUsernames() {
+        this.lock.readLock().lock();
+        try {
+            Set<String> usernames = new HashSet<>(this.users.keySet());
+            usernames.addAll(this.unloaded.keySet());
+            return usernames;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param username a username
+     * @return true if the user exists and has been loaded
+     */
+    public boolean isLoaded(String username) {
+        this.lock.readLock().lock();
+        try {
+            return this.users.containsKey(username);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every user that has not been loaded yet.
+     */
+    public void materializeAll() {
+        this.lock.writeLock().lock();
+        try {
+            for (String username: new ArrayList<>(this.unloaded.keySet())) {
+                this.materialize(username);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a user from the snapshot without recording it as a change, and runs the load hook on them. Only
+     * called while holding the write lock.
+     * @param username the username of the user
+     * @return the user, or null if they do not exist or could not be read
+     */
+    private User materialize(String username) {
+        // The entry is removed first so the user's constructor does not find the username already taken
+        UserIndex.Entry entry = this.unloaded.remove(username);
+        if (entry == null) {
+            return this.users.get(username);
+        }
+
+        boolean wasRecording = UserObserver.isRecording();
+        UserObserver.setRecording(false);
+        try {
+            User user = UserSnapshotReader.readUser(
+                    new DataInputStream(new ByteArrayInputStream(this.index.readRecord(entry))));
+            if (this.loadHook != null) {
+                this.loadHook.accept(user);
+            }
+            return user;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            UserObserver.setRecording(wasRecording);
+        }
+    }
+
+    @Override
+    public User get(Object key) {
+        this.lock.readLock().lock();
+        try {
+            if (!this.unloaded.containsKey(key)) {
+                return this.users.get(key);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        this.lock.writeLock().lock();
+        try {
+            return this.materialize((String) key);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public User getOrDefault(Object key, User defaultValue) {
+        User user = this.get(key);
+        return user == null ? defaultValue : user;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        this.lock.readLock().lock();
+        try {
+            return this.users.containsKey(key) || this.unloaded.containsKey(key);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User put(String key, User value) {
+        this.lock.writeLock().lock();
+        try {
+            this.unloaded.remove(key);
+            User previous = this.users.put(key, value);
+            if (previous != null && previous != value) {
+                this.indexLibrary(previous, false);
+            }
+            this.indexLibrary(value, true);
+            return previous;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends User> m) {
+        this.lock.writeLock().lock();
+        try {
+            for (Map.Entry<? extends String, ? extends User> entry: m.entrySet()) {
+                this.put(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user. A user that has not been loaded is removed without being loaded, and null is returned.
+     */
+    @Override
+    public User remove(Object key) {
+        this.lock.writeLock().lock();
+        try {
+            this.unloaded.remove(key);
+            User user = this.users.remove(key);
+            if (user != null) {
+                this.indexLibrary(user, false);
+            }
+            return user;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.users.size() + this.unloaded.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.lock.readLock().lock();
+        try {
+            return this.users.isEmpty() && this.unloaded.isEmpty();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every user and closes the snapshot users were loaded from.
+     */
+    @Override
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.unloaded.clear();
+            this.closeIndex();
+            this.loadHook = null;
+            this.owners.clear();
+            this.listings.clear();
+            this.users.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        this.materializeAll();
+        return this.users.containsValue(value);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        this.materializeAll();
+        return Collections.unmodifiableSet(this.users.keySet());
+    }
+
+    @Override
+    public Collection<User> values() {
+        this.materializeAll();
+        return Collections.unmodifiableCollection(this.users.values());
+    }
+
+    @Override
+    public Set<Map.Entry<String, User>> entrySet() {
+        this.materializeAll();
+        return Collections.unmodifiableMap(this.users).entrySet();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super User> action) {
+        this.materializeAll();
+        this.users.forEach(action);
+    }
+}
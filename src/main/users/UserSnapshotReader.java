@@ -0,0 +1,121 @@
+package src.main.users;
+
+import src.main.Game;
+import src.main.exceptions.ConstraintException;
+import src.main.observer.UserObserver;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads users from a binary snapshot written by UserSnapshotWriter.
+ */
+public class UserSnapshotReader {
+
+    /**
+     * @param file a storage file
+     * @return true if the file starts with the header of a binary snapshot
+     */
+    public static boolean isSnapshot(File file) {
+        if (file.length() < Integer.BYTES) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == UserSnapshotWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads every user in the snapshot file into User.allUsers and restores the auction sale.
+     * Restoring the users is not saved as new changes.
+     * @param file the snapshot file
+     * @return the number of users read
+     * @throws IOException if the file is not a snapshot that can be read
+     */
+    public static int read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), UserSnapshotWriter.BUFFER_SIZE))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads every user in a snapshot into User.allUsers and restores the auction sale.
+     * Restoring the users is not saved as new changes.
+     * @param in the stream containing the snapshot
+     * @return the number of users read
+     * @throws IOException if the stream does not contain a snapshot that can be read
+     */
+    public static int read(DataInputStream in) throws IOException {
+        if (in.readInt() != UserSnapshotWriter.MAGIC) {
+            throw new IOException("Not a user snapshot.");
+        }
+        short version = in.readShort();
+        if (version > UserSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported user snapshot version: " + version);
+        }
+        boolean auction = (in.readByte() & UserSnapshotWriter.AUCTION_FLAG) != 0;
+        int userCount = in.readInt();
+        in.readInt(); // game count
+
+        boolean wasRecording = UserObserver.isRecording();
+        UserObserver.setRecording(false);
+        try {
+            for (int i = 0; i < userCount; i++) {
+                readUser(in);
+            }
+        } finally {
+            UserObserver.setRecording(wasRecording);
+        }
+        AdminUser.setAuction(auction);
+        return userCount;
+    }
+
+    /**
+     * Reads one user record and adds the user to User.allUsers. The caller is responsible for turning off the
+     * recording of changes.
+     * @param in the stream positioned at the start of a user record
+     * @return the user that was read
+     * @throws IOException if the record could not be read
+     */
+    static User readUser(DataInputStream in) throws IOException {
+        String username = readString(in);
+        byte[] accountType = new byte[2];
+        in.readFully(accountType);
+        double balance = in.readLong() / 100.0;
+        try {
+            new UserFactory().makeUser(username, new String(accountType, StandardCharsets.US_ASCII), balance);
+            User user = User.getAllUsers().get(username);
+
+            int librarySize = in.readInt();
+            for (int j = 0; j < librarySize; j++) {
+                String name = readString(in);
+                String seller = readString(in);
+                double price = in.readInt() / 100.0;
+                double discount = in.readShort() / 100.0;
+                // Saved games were listed or acquired before the snapshot, so they can be bought and removed
+                Game game = new Game(name, seller, price, discount);
+                game.putOffProbation();
+                user.addToGameLibrary(game);
+            }
+            return user;
+        } catch (ConstraintException e) {
+            throw new IOException("Corrupt user snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a string prefixed by the length of its UTF-8 encoding.
+     * @param in the stream to read from
+     * @return the string that was read
+     * @throws IOException if the string could not be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readUnsignedByte();
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,260 @@
+package src.main.users;
+
+import src.main.Game;
+import src.main.Money;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes users to a compact, versioned binary snapshot that can be read back with UserSnapshotReader.
+ *
+ * ==Format (version 2)==
+ *  header: magic (int), version (short), flags (byte; bit 0 is set during an auction sale),
+ *          user count (int), game count (int)
+ *  per user: username (length-prefixed UTF-8), account type (2 ASCII bytes), balance in cents (long),
+ *            library size (int)
+ *  per game: name (length-prefixed UTF-8), seller (length-prefixed UTF-8), original price in cents (int),
+ *            discount in hundredths of a percent (short)
+ *  index: user count (int), then per user: username (length-prefixed UTF-8), record offset (long),
+ *         record length (int), library size (int)
+ *  footer: index offset (long)
+ *
+ * Version 1 snapshots are the same without the index and footer.
+ */
+public class UserSnapshotWriter {
+    public static final int MAGIC = 0x47534442; // "GSDB"
+    public static final short VERSION = 2;
+    public static final short INDEXED_VERSION = 2;
+    public static final int AUCTION_FLAG = 1;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The encoded snapshot record of one user. A record never changes once encoded, so it can be written by
+     * another thread while the user it was encoded from keeps changing.
+     */
+    public static class Record {
+        private final String username;
+        private final byte[] bytes;
+        private final int gameCount;
+
+        private Record(String username, byte[] bytes, int gameCount) {
+            this.username = username;
+            this.bytes = bytes;
+            this.gameCount = gameCount;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given users to a file. The snapshot is written to a temporary file first so the
+     * previous snapshot is kept if writing fails part way.
+     * @param file the file to write the snapshot to
+     * @param users the users to save
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(File file, Collection<User> users, boolean auction) throws IOException {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE))) {
+            write(out, users, auction);
+        }
+        replace(temporaryFile, file);
+    }
+
+    /**
+     * Writes a snapshot of every user in the registry to a file. Users that have not been loaded from the previous
+     * snapshot are copied without being loaded, and stay unloaded in the registry.
+     * @param file the file to write the snapshot to
+     * @param registry the users to save
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(File file, UserRegistry registry, boolean auction) throws IOException {
+        if (registry.getUnloadedCount() == 0) {
+            write(file, registry.getLoadedUsers(), auction);
+            return;
+        }
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE))) {
+            Collection<User> users = registry.getLoadedUsers();
+            Map<String, UserIndex.Entry> unloaded = registry.getUnloadedEntries();
+            int gameCount = countGames(users);
+            for (UserIndex.Entry entry: unloaded.values()) {
+                gameCount += entry.gameCount;
+            }
+
+            writeHeader(out, auction, users.size() + unloaded.size(), gameCount);
+            LinkedHashMap<String, UserIndex.Entry> index = writeUsers(out, users);
+            for (Map.Entry<String, UserIndex.Entry> entry: unloaded.entrySet()) {
+                long offset = out.size();
+                out.write(registry.readUnloadedRecord(entry.getValue()));
+                index.put(entry.getKey(), new UserIndex.Entry(offset, entry.getValue().length,
+                        entry.getValue().gameCount));
+            }
+            writeIndex(out, index);
+        }
+
+        registry.closeIndex();
+        replace(temporaryFile, file);
+        registry.reopenIndex(file);
+    }
+
+    /**
+     * Writes a snapshot of previously encoded user records to a file, in the same way as write(File, Collection,
+     * boolean).
+     * @param file the file to write the snapshot to
+     * @param records the encoded records of the users to save
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(File file, List<Record> records, boolean auction) throws IOException {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE))) {
+            int gameCount = 0;
+            for (Record record: records) {
+                gameCount += record.gameCount;
+            }
+            writeHeader(out, auction, records.size(), gameCount);
+            LinkedHashMap<String, UserIndex.Entry> index = new LinkedHashMap<>(records.size() * 2);
+            for (Record record: records) {
+                index.put(record.username, new UserIndex.Entry(out.size(), record.bytes.length, record.gameCount));
+                out.write(record.bytes);
+            }
+            writeIndex(out, index);
+        }
+        replace(temporaryFile, file);
+    }
+
+    /**
+     * Encodes the snapshot record of a user.
+     * @param user the user to encode
+     * @return the encoded record
+     * @throws IOException if the user cannot be saved
+     */
+    public static Record encode(User user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeUser(new DataOutputStream(bytes), user);
+        return new Record(user.getUsername(), bytes.toByteArray(), user.getLibraryGames().size());
+    }
+
+    /**
+     * Writes a snapshot of the given users to a stream.
+     * @param out the stream to write to
+     * @param users the users to save
+     * @param auction true if an auction sale is occurring
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(DataOutputStream out, Collection<User> users, boolean auction) throws IOException {
+        writeHeader(out, auction, users.size(), countGames(users));
+        writeIndex(out, writeUsers(out, users));
+    }
+
+    /**
+     * @param users a collection of users
+     * @return the total number of games in the libraries of the users
+     */
+    private static int countGames(Collection<User> users) {
+        int gameCount = 0;
+        for (User user: users) {
+            gameCount += user.getLibraryGames().size();
+        }
+        return gameCount;
+    }
+
+    /**
+     * Writes the header of a snapshot.
+     */
+    private static void writeHeader(DataOutputStream out, boolean auction, int userCount, int gameCount)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(auction ? AUCTION_FLAG : 0);
+        out.writeInt(userCount);
+        out.writeInt(gameCount);
+    }
+
+    /**
+     * Writes a record for each of the given users.
+     * @return the index entries of the written records
+     */
+    private static LinkedHashMap<String, UserIndex.Entry> writeUsers(DataOutputStream out, Collection<User> users)
+            throws IOException {
+        LinkedHashMap<String, UserIndex.Entry> index = new LinkedHashMap<>(users.size() * 2);
+        for (User user: users) {
+            long offset = out.size();
+            writeUser(out, user);
+            index.put(user.getUsername(),
+                    new UserIndex.Entry(offset, (int) (out.size() - offset), user.getLibraryGames().size()));
+        }
+        return index;
+    }
+
+    /**
+     * Writes the record of one user.
+     */
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        writeString(out, user.getUsername());
+        out.writeBytes(user.getAccountType());
+        out.writeLong(user.getBalanceCents());
+        out.writeInt(user.getLibraryGames().size());
+        for (Game game: user.getLibraryGames()) {
+            writeString(out, game.getName());
+            writeString(out, game.getSeller());
+            out.writeInt((int) game.getOriginalPriceCents());
+            out.writeShort((int) Money.toCents(game.getDiscount()));
+        }
+    }
+
+    /**
+     * Writes the username to offset index and the footer pointing to it.
+     */
+    private static void writeIndex(DataOutputStream out, Map<String, UserIndex.Entry> index) throws IOException {
+        long indexOffset = out.size();
+        out.writeInt(index.size());
+        for (Map.Entry<String, UserIndex.Entry> entry: index.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeLong(entry.getValue().offset);
+            out.writeInt(entry.getValue().length);
+            out.writeInt(entry.getValue().gameCount);
+        }
+        out.writeLong(indexOffset);
+    }
+
+    /**
+     * Moves a finished snapshot over the previous one.
+     */
+    private static void replace(File temporaryFile, File file) throws IOException {
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a string prefixed by the length of its UTF-8 encoding.
+     * @param out the stream to write to
+     * @param value the string to write
+     * @throws IOException if the string is too long or could not be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IOException("'" + value + "' is too long to be saved.");
+        }
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+}
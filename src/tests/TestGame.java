@@ -40,6 +40,21 @@ public class TestGame {
         assertFalse(new Game("TF2", "IDK", 30, 30).isOffProbation());
     }
 
+    /**
+     * Test that a game comes off probation once a new day has started after the day it was listed.
+     */
+    @Test
+    public void testOffProbationNextDay() throws InvalidGameException {
+        Game tf2 = new Game("TF2", "IDK", 30, 30);
+        long day = Game.getCurrentDay();
+        assertFalse(tf2.isOffProbation());
+
+        Game.startNewDay();
+        assertEquals(day + 1, Game.getCurrentDay());
+        assertTrue(tf2.isOffProbation());
+        assertFalse(new Game("TF2", "IDK", 30, 30).isOffProbation());
+    }
+
     /**
      * Test cases for Game.getName.
      */
@@ -135,7 +150,8 @@ public class TestGame {
 
         // Auction is on
         adminUser.auctionSale();
-        assertEquals(14.995, overwatch.getPrice());
+        // Discounted prices drop any fraction of a cent
+        assertEquals(14.99, overwatch.getPrice());
         assertEquals(0, spellbreak.getPrice());
     }
 
@@ -0,0 +1,59 @@
+package src.tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.Money;
+import src.main.exceptions.BalanceException;
+import src.main.exceptions.DailyCreditLimitException;
+import src.main.exceptions.UsernameException;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+
+/**
+ * A test suite for the Money class
+ */
+public class TestMoney {
+
+    /**
+     * Test converting credits to cents and back.
+     */
+    @Test
+    public void testConversions() {
+        assertEquals(29, Money.toCents(0.29));
+        assertEquals(99999999, Money.toCents(999999.99));
+        assertEquals(1055, Money.floorCents(10.555));
+        assertEquals(29, Money.floorCents(0.29));
+        assertEquals(-1056, Money.floorCents(-10.555));
+        assertEquals(0.29, Money.toCredits(29));
+        assertEquals(999999.99, Money.toCredits(99999999));
+    }
+
+    /**
+     * Test that formatting matches String.format with two decimal places.
+     */
+    @Test
+    public void testFormat() {
+        for (long cents: new long[] {0, 1, 9, 10, 99, 100, 105, 123456, 99999999, -1, -105}) {
+            assertEquals(String.format("%.2f", cents / 100.0), Money.format(cents));
+        }
+    }
+
+    /**
+     * Test that many small deposits add up exactly, even up to the maximum balance.
+     */
+    @Test
+    public void testNoDrift() throws UsernameException, BalanceException, DailyCreditLimitException {
+        User.getAllUsers().clear();
+        FullStandardUser user = new FullStandardUser("Saver", 999989.99);
+        for (int i = 0; i < 999; i++) {
+            user.addCredit(0.01);
+        }
+        assertEquals(99999998, user.getBalanceCents());
+        assertEquals(999999.98, user.getBalance());
+        user.addCredit(0.01);
+        assertEquals(999999.99, user.getBalance());
+        user.addCredit(0.01);
+        assertEquals(999999.99, user.getBalance());
+    }
+}
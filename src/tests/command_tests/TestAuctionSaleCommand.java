@@ -69,7 +69,8 @@ public class TestAuctionSaleCommand {
         system.getCurrUser().getGameLibrary().get("Overwatch").putOffProbation();
 
 
-        assertEquals(14.995, system.getCurrUser().getGameLibrary().get("Overwatch").getPrice());
+        // Discounted prices drop any fraction of a cent
+        assertEquals(14.99, system.getCurrUser().getGameLibrary().get("Overwatch").getPrice());
 
     }
 }
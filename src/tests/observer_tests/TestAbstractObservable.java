@@ -5,7 +5,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import src.main.observer.AbstractObservable;
-import src.main.observer.UserObserver;
+import src.main.observer.EventBus;
 
 
 /**
@@ -25,13 +25,13 @@ public class TestAbstractObservable {
 
 
     /**
-     * Test cases for AbstractObservable.getObserver
+     * Test cases for AbstractObservable.getEventBus; every Observable shares the same EventBus.
      */
     @Test
-    public void testGetObserver() {
-        assertNotNull(obsOne.getObserver());
-        assertNotNull(obsTwo.getObserver());
-        assertNotEquals(obsOne.getObserver(), obsTwo.getObserver());
+    public void testGetEventBus() {
+        assertNotNull(obsOne.getEventBus());
+        assertSame(EventBus.getShared(), obsOne.getEventBus());
+        assertSame(obsOne.getEventBus(), obsTwo.getEventBus());
     }
 
     /**
@@ -40,14 +40,14 @@ public class TestAbstractObservable {
     @Test
     public void testDetach() {
         obsOne.detach();
-        assertNull(obsOne.getObserver());
+        assertNull(obsOne.getEventBus());
         obsTwo.detach();
-        assertNull(obsTwo.getObserver());
+        assertNull(obsTwo.getEventBus());
     }
 
     /**
      * Test cases for AbstractObservable..notifyObserver; mainly that it doesn't throw an exception when the
-     * observer is null.
+     * EventBus is null.
      */
     @Test
     public void testNotifyObserver() {
@@ -61,9 +61,9 @@ public class TestAbstractObservable {
      */
     @Test
     public void testAttach() {
-        UserObserver oldObserver = obsOne.getObserver();
-        obsOne.attach(new UserObserver());
-        assertNotEquals(oldObserver, obsOne.getObserver());
+        EventBus oldBus = obsOne.getEventBus();
+        obsOne.attach(new EventBus());
+        assertNotEquals(oldBus, obsOne.getEventBus());
     }
 
 }
@@ -0,0 +1,104 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.BackgroundSnapshotter;
+import src.main.observer.UserObserver;
+import src.main.users.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A test suite for the BackgroundSnapshotter class and asynchronous snapshots in UserObserver.
+ */
+public class TestBackgroundSnapshotter {
+    File snapshotFile;
+    BackgroundSnapshotter snapshotter;
+
+    /**
+     * Creates a snapshotter writing to a temporary file.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        User.getAllUsers().clear();
+        snapshotFile = File.createTempFile("snapshot", null);
+        snapshotFile.deleteOnExit();
+        snapshotter = new BackgroundSnapshotter(snapshotFile);
+    }
+
+    /**
+     * Stops the snapshotters and goes back to an empty database.
+     */
+    @AfterEach
+    public void tearDown() {
+        snapshotter.close();
+        UserObserver.setAsyncSnapshots(false);
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * Checks that a submitted snapshot is written and can be read back.
+     */
+    @Test
+    public void testSubmit() throws ConstraintException, IOException {
+        SellStandardUser seller = new SellStandardUser("Nintendo", 10);
+        seller.sell("Metroid", 59.99, 20);
+        new BuyStandardUser("Samus", 5);
+
+        snapshotter.submit(User.getAllUsers().values(), Collections.emptySet(), false);
+        assertTrue(snapshotter.awaitIdle());
+        assertEquals(1, snapshotter.getSnapshotsWritten());
+
+        User.getAllUsers().clear();
+        assertEquals(2, UserSnapshotReader.read(snapshotFile));
+        assertFalse(AdminUser.isAuction());
+        assertEquals(59.99, User.getAllUsers().get("Nintendo").getGame("Metroid").getOriginalPrice());
+    }
+
+    /**
+     * Checks that only users reported as changed are encoded again.
+     */
+    @Test
+    public void testReuseUnchangedRecords() throws ConstraintException, IOException {
+        AdminUser admin = new AdminUser("Kraid", 0);
+        BuyStandardUser buyer = new BuyStandardUser("Samus", 5);
+        new BuyStandardUser("Ridley", 5);
+        snapshotter.submit(User.getAllUsers().values(), Collections.emptySet(), false);
+
+        admin.addCredit("Samus", 1);
+        admin.addCredit("Ridley", 2);
+        snapshotter.submit(User.getAllUsers().values(), Set.of(buyer), false);
+        assertTrue(snapshotter.awaitIdle());
+
+        User.getAllUsers().clear();
+        UserSnapshotReader.read(snapshotFile);
+        assertEquals(6, User.getAllUsers().get("Samus").getBalance());
+        assertEquals(5, User.getAllUsers().get("Ridley").getBalance());
+    }
+
+    /**
+     * Checks that changes saved on a background thread are on disk after UserObserver shuts down.
+     */
+    @Test
+    public void testShutdown() throws ConstraintException {
+        UserObserver.setAsyncSnapshots(true);
+        AdminUser admin = new AdminUser("Kraid", 0);
+        new BuyStandardUser("Samus", 5);
+        admin.addCredit("Samus", 10);
+        UserObserver.shutdown();
+        assertTrue(UserObserver.getSnapshotter().getSnapshotsWritten() > 0);
+
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+        assertEquals(15, User.getAllUsers().get("Samus").getBalance());
+        assertTrue(User.getAllUsers().get("Kraid") instanceof AdminUser);
+    }
+}
@@ -0,0 +1,142 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.DomainEvent;
+import src.main.observer.EventBus;
+import src.main.observer.UserObserver;
+import src.main.users.FullStandardUser;
+import src.main.users.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A test suite for the EventBus class and the DomainEvents published to it.
+ */
+public class TestEventBus {
+    EventBus bus;
+    FullStandardUser user;
+
+    /**
+     * Sets up a user publishing to an EventBus of its own.
+     */
+    @BeforeEach
+    public void setUp() throws ConstraintException {
+        UserObserver.setRecording(true);
+        User.getAllUsers().clear();
+        user = new FullStandardUser("Publisher", 100);
+        bus = new EventBus();
+        user.attach(bus);
+    }
+
+    /**
+     * Test that subscribers only receive events of the type they subscribed to, synchronously.
+     */
+    @Test
+    public void testTypedSubscription() throws ConstraintException {
+        List<DomainEvent.CreditAdded> credits = new ArrayList<>();
+        List<DomainEvent> all = new ArrayList<>();
+        bus.subscribe(DomainEvent.CreditAdded.class, credits::add);
+        bus.subscribe(DomainEvent.class, all::add);
+
+        user.addCredit(10.5);
+        assertEquals(1, credits.size());
+        assertEquals(1050, credits.get(0).getCents());
+        assertEquals("Publisher has added 10.50 credits to their balance.", credits.get(0).getMessage());
+        assertSame(user, credits.get(0).getSource());
+
+        user.sell("Celeste", 19.99, 20);
+        assertEquals(1, credits.size());
+        assertTrue(all.get(all.size() - 1) instanceof DomainEvent.GameListed);
+        assertEquals("Publisher has put up Celeste for sale at 19.99 credits", all.get(all.size() - 1).getMessage());
+        assertTrue(all.stream().anyMatch(event -> event instanceof DomainEvent.Changed));
+    }
+
+    /**
+     * Test that asynchronous subscribers receive every event in order on another thread.
+     */
+    @Test
+    public void testAsynchronousSubscription() throws ConstraintException {
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        EventBus.Subscription<DomainEvent.CreditAdded> subscription = bus.subscribe(DomainEvent.CreditAdded.class,
+                event -> {
+                    threads.add(Thread.currentThread());
+                    messages.add(event.getMessage());
+                }, EventBus.Delivery.ASYNCHRONOUS);
+        assertTrue(subscription.isAsynchronous());
+
+        for (int i = 1; i <= 100; i++) {
+            user.addCredit(0.01 * i);
+        }
+        bus.awaitDelivery();
+        assertEquals(100, messages.size());
+        assertEquals("Publisher has added 0.01 credits to their balance.", messages.get(0));
+        assertEquals("Publisher has added 1.00 credits to their balance.", messages.get(99));
+        assertFalse(threads.contains(Thread.currentThread()));
+        subscription.cancel();
+    }
+
+    /**
+     * Test that cancelled subscribers stop receiving events, and that a failing subscriber does not stop the others.
+     */
+    @Test
+    public void testCancelAndFailure() throws ConstraintException {
+        List<DomainEvent> received = new ArrayList<>();
+        EventBus.Subscription<DomainEvent> failing = bus.subscribe(DomainEvent.class, event -> {
+            throw new IllegalStateException("Subscriber failed");
+        });
+        EventBus.Subscription<DomainEvent> subscription = bus.subscribe(DomainEvent.class, received::add);
+
+        user.addCredit(1);
+        int count = received.size();
+        assertTrue(count > 0);
+
+        failing.cancel();
+        subscription.cancel();
+        user.addCredit(1);
+        assertEquals(count, received.size());
+    }
+
+    /**
+     * Test that detached observables and changes that are not being recorded publish nothing.
+     */
+    @Test
+    public void testNothingPublished() throws ConstraintException {
+        List<DomainEvent> received = new ArrayList<>();
+        bus.subscribe(DomainEvent.class, received::add);
+
+        UserObserver.setRecording(false);
+        try {
+            user.addCredit(1);
+        } finally {
+            UserObserver.setRecording(true);
+        }
+        user.detach();
+        user.addCredit(1);
+        assertTrue(received.isEmpty());
+    }
+
+    /**
+     * Test that users publish to the shared EventBus, which the single UserObserver is subscribed to.
+     */
+    @Test
+    public void testSharedBus() throws ConstraintException {
+        List<String> created = new ArrayList<>();
+        EventBus.Subscription<DomainEvent.UserCreated> subscription = EventBus.getShared().subscribe(
+                DomainEvent.UserCreated.class, event -> created.add(event.getUsername()));
+        try {
+            User other = new FullStandardUser("Subscriber", 0);
+            assertSame(EventBus.getShared(), other.getEventBus());
+            assertEquals(List.of("Subscriber"), created);
+            assertSame(UserObserver.getInstance(), UserObserver.getInstance());
+        } finally {
+            subscription.cancel();
+        }
+    }
+}
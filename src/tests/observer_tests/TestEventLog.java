@@ -0,0 +1,186 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.observer.EventLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A test suite for the EventLog class.
+ */
+public class TestEventLog {
+    File logFile;
+    EventLog log;
+
+    /**
+     * Sets up a small EventLog writing only to a file.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("events", ".log");
+        logFile.delete();
+        log = new EventLog(16);
+        log.setConsole(false);
+        log.setFile(logFile);
+    }
+
+    /**
+     * Deletes the log file and its rotated files.
+     */
+    @AfterEach
+    public void tearDown() {
+        log.close();
+        for (int backup = 0; backup <= EventLog.DEFAULT_MAX_BACKUPS; backup++) {
+            new File(logFile.getPath() + (backup == 0 ? "" : "." + backup)).delete();
+        }
+    }
+
+    /**
+     * Test that entries are written in order with their level and source, and that lower levels are discarded.
+     */
+    @Test
+    public void testEntries() throws IOException {
+        log.info("UserCreated", "A user 'Alice' has been created");
+        log.warning("User", "Balance exceeds the maximum");
+        log.setLevel(EventLog.Level.WARNING);
+        assertFalse(log.isEnabled(EventLog.Level.INFO));
+        log.info("UserCreated", "Discarded");
+        log.error("Transaction", "Transaction Code: 02 - failed");
+        log.flush();
+
+        List<String> lines = Files.readAllLines(logFile.toPath());
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith(" INFO UserCreated A user 'Alice' has been created"));
+        assertTrue(lines.get(1).endsWith(" WARNING User Balance exceeds the maximum"));
+        assertTrue(lines.get(2).endsWith(" ERROR Transaction Transaction Code: 02 - failed"));
+    }
+
+    /**
+     * Test that deferred messages are built by the flusher, and never built for discarded entries.
+     */
+    @Test
+    public void testDeferredMessages() throws IOException {
+        List<Thread> builders = new ArrayList<>();
+        log.info("GameSold", () -> {
+            builders.add(Thread.currentThread());
+            return "Bob bought the game 'Celeste' from Alice for 19.99";
+        });
+        log.log(EventLog.Level.DEBUG, "Discarded", () -> {
+            builders.add(Thread.currentThread());
+            return "Discarded";
+        });
+        log.flush();
+
+        List<String> lines = Files.readAllLines(logFile.toPath());
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith(" INFO GameSold Bob bought the game 'Celeste' from Alice for 19.99"));
+        assertEquals(1, builders.size());
+        assertNotSame(Thread.currentThread(), builders.get(0));
+    }
+
+    /**
+     * Test that nothing is logged without anywhere to write it.
+     */
+    @Test
+    public void testNoDestination() throws IOException {
+        log.setFile(null);
+        assertFalse(log.isEnabled(EventLog.Level.ERROR));
+        log.setConsole(true);
+        assertTrue(log.isEnabled(EventLog.Level.ERROR));
+        log.setLevel(EventLog.Level.OFF);
+        assertFalse(log.isEnabled(EventLog.Level.ERROR));
+    }
+
+    /**
+     * Test that the log file is rotated once it is full, keeping every entry.
+     */
+    @Test
+    public void testRotation() throws IOException {
+        log.setFile(logFile, 1000, 2);
+        for (int i = 0; i < 80; i++) {
+            log.info("Test", "Entry number " + i);
+        }
+        log.flush();
+
+        File firstBackup = new File(logFile.getPath() + ".1");
+        File secondBackup = new File(logFile.getPath() + ".2");
+        assertTrue(secondBackup.exists());
+        assertFalse(new File(logFile.getPath() + ".3").exists());
+        assertTrue(logFile.length() <= 1000);
+        assertTrue(firstBackup.length() <= 1000);
+        List<String> lines = new ArrayList<>(Files.readAllLines(secondBackup.toPath()));
+        lines.addAll(Files.readAllLines(firstBackup.toPath()));
+        lines.addAll(Files.readAllLines(logFile.toPath()));
+        assertTrue(lines.get(lines.size() - 1).endsWith("Entry number 79"));
+        assertTrue(lines.size() < 80);
+        for (int i = 0; i < lines.size(); i++) {
+            assertTrue(lines.get(i).endsWith("Entry number " + (80 - lines.size() + i)));
+        }
+    }
+
+    /**
+     * Test that the size of the log file is counted in UTF-8 bytes, so lines with characters outside ASCII do not make
+     * a rotated file larger than the maximum.
+     */
+    @Test
+    public void testRotationInBytes() throws IOException {
+        log.setFile(logFile, 1000, 2);
+        for (int i = 0; i < 40; i++) {
+            log.info("Test", "Entr\u00e9e \u20ac\u20ac\u20ac\u20ac " + i);
+        }
+        log.flush();
+
+        for (int backup = 0; backup <= 2; backup++) {
+            File file = new File(logFile.getPath() + (backup == 0 ? "" : "." + backup));
+            assertTrue(file.exists());
+            assertTrue(file.length() <= 1000);
+        }
+        List<String> lines = Files.readAllLines(logFile.toPath());
+        assertTrue(lines.get(lines.size() - 1).endsWith("Entr\u00e9e \u20ac\u20ac\u20ac\u20ac 39"));
+    }
+
+    /**
+     * Test that entries logged by many threads at once through a small buffer are all written exactly once, in the
+     * order each thread logged them.
+     */
+    @Test
+    public void testConcurrentLogging() throws InterruptedException, IOException {
+        int threads = 8, entries = 2000;
+        List<Thread> loggers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            loggers.add(new Thread(() -> {
+                for (int i = 0; i < entries; i++) {
+                    log.info("Thread" + thread, thread + ":" + i);
+                }
+            }));
+        }
+        loggers.forEach(Thread::start);
+        for (Thread logger: loggers) {
+            logger.join();
+        }
+        log.flush();
+
+        List<String> lines = Files.readAllLines(logFile.toPath());
+        assertEquals(threads * entries, lines.size());
+        int[] next = new int[threads];
+        Set<String> seen = new HashSet<>();
+        for (String line: lines) {
+            String entry = line.substring(line.lastIndexOf(' ') + 1);
+            assertTrue(seen.add(entry));
+            String[] parts = entry.split(":");
+            int thread = Integer.parseInt(parts[0]);
+            assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+        }
+    }
+}
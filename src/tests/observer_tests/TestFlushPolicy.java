@@ -0,0 +1,116 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.system.DistributionSystem;
+import src.main.users.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * A test suite for the dirty tracking and flush policies of UserObserver.
+ */
+public class TestFlushPolicy {
+    FullStandardUser kirby;
+
+    /**
+     * Starts each test with an empty database and a dirty user.
+     */
+    @BeforeEach
+    public void setUp() throws ConstraintException {
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        kirby = new FullStandardUser("Kirby", 100);
+    }
+
+    /**
+     * Goes back to saving every change and an empty database.
+     */
+    @AfterEach
+    public void tearDown() {
+        UserObserver.setFlushPolicy(FlushPolicy.ON_CHANGE);
+        UserObserver.setFlushInterval(UserObserver.DEFAULT_FLUSH_INTERVAL);
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * @return the contents of the storage file
+     */
+    private byte[] storage() throws IOException {
+        return Files.readAllBytes(new UserObserver().getStorageFile().toPath());
+    }
+
+    /**
+     * Checks that changes mark the user dirty and are only saved when flushed.
+     */
+    @Test
+    public void testEndOfBatch() throws ConstraintException, IOException {
+        assertTrue(kirby.isDirty());
+        byte[] before = storage();
+
+        kirby.addCredit(50);
+        kirby.sell("Dream Land", 20, 0);
+        assertArrayEquals(before, storage());
+
+        UserObserver.flush();
+        assertFalse(kirby.isDirty());
+        assertEquals(0, UserObserver.getDirtyCount());
+        assertFalse(Arrays.equals(before, storage()));
+    }
+
+    /**
+     * Checks that changes are saved once every flushInterval transactions.
+     */
+    @Test
+    public void testEveryNTransactions() throws ConstraintException {
+        UserObserver.setFlushInterval(2);
+        UserObserver.setFlushPolicy(FlushPolicy.EVERY_N_TRANSACTIONS);
+
+        kirby.addCredit(10);
+        UserObserver.transactionCompleted();
+        assertTrue(kirby.isDirty());
+
+        kirby.addCredit(10);
+        UserObserver.transactionCompleted();
+        assertFalse(kirby.isDirty());
+    }
+
+    /**
+     * Checks that changes are saved when a user logs out.
+     */
+    @Test
+    public void testOnLogout() throws ConstraintException {
+        UserObserver.setFlushPolicy(FlushPolicy.ON_LOGOUT);
+        DistributionSystem system = new DistributionSystem();
+
+        system.login("Kirby", User.FULL_STANDARD_TYPE, 100);
+        kirby.addCredit(10);
+        UserObserver.transactionCompleted();
+        assertTrue(kirby.isDirty());
+
+        system.logout();
+        assertFalse(kirby.isDirty());
+    }
+
+    /**
+     * Checks that flushed changes are loaded in the next session.
+     */
+    @Test
+    public void testFlushedChangesLoaded() throws ConstraintException {
+        kirby.addCredit(25);
+        UserObserver.flush();
+
+        UserLoader.loadUsers();
+        assertEquals(125, User.getAllUsers().get("Kirby").getBalance());
+    }
+}
@@ -0,0 +1,204 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.JournalRecord;
+import src.main.observer.MappedUserTable;
+import src.main.observer.PersistenceMode;
+import src.main.observer.UserObserver;
+import src.main.users.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+/**
+ * A test suite for the MappedUserTable class and the mapped table persistence mode of UserObserver.
+ */
+public class TestMappedUserTable {
+    File tableFile;
+    MappedUserTable table;
+
+    /**
+     * Creates an empty table with room for two users in a temporary file.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        tableFile = File.createTempFile("table", null);
+        tableFile.deleteOnExit();
+        table = new MappedUserTable(tableFile, 2);
+        User.getAllUsers().clear();
+    }
+
+    /**
+     * Goes back to the default persistence mode and an empty database.
+     */
+    @AfterEach
+    public void tearDown() {
+        table.close();
+        UserObserver.setPersistenceMode(PersistenceMode.SNAPSHOT);
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * Checks that rows are kept when the table is reopened.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        table.putUser("Link", User.FULL_STANDARD_TYPE, 120.5);
+        table.putUser("Zelda", User.ADMIN_TYPE, 999999.99);
+        table.setAuction(true);
+        table.close();
+
+        table = new MappedUserTable(tableFile);
+        assertEquals(2, table.size());
+        assertEquals(User.ADMIN_TYPE, table.getAccountType("Zelda"));
+        assertEquals(120.5, table.getBalance("Link"));
+        assertEquals(999999.99, table.getBalance("Zelda"));
+        assertTrue(table.isAuction());
+    }
+
+    /**
+     * Checks that balances are updated in place and removed rows are reused.
+     */
+    @Test
+    public void testUpdateInPlace() throws IOException {
+        table.apply(JournalRecord.createUser("Link", User.BUYER_TYPE, 10));
+        table.apply(JournalRecord.createUser("Ganon", User.SELLER_TYPE, 20));
+        long length = tableFile.length();
+
+        table.apply(JournalRecord.balance("Link", 5.25));
+        table.apply(JournalRecord.deleteUser("Ganon"));
+        table.apply(JournalRecord.createUser("Epona", User.BUYER_TYPE, 1));
+
+        assertEquals(length, tableFile.length());
+        assertEquals(5.25, table.getBalance("Link"));
+        assertFalse(table.contains("Ganon"));
+        assertTrue(Double.isNaN(table.getBalance("Ganon")));
+        assertEquals(1, table.getBalance("Epona"));
+    }
+
+    /**
+     * Checks that the table grows when it runs out of rows.
+     */
+    @Test
+    public void testGrow() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            table.putUser("Korok" + i, User.BUYER_TYPE, i);
+        }
+        table.close();
+
+        table = new MappedUserTable(tableFile);
+        assertEquals(5, table.size());
+        assertEquals(4, table.getBalance("Korok4"));
+    }
+
+    /**
+     * Checks that balances written to the table in mapped table mode are restored in the next session.
+     */
+    @Test
+    public void testLoadFromTable() throws ConstraintException {
+        UserObserver.setPersistenceMode(PersistenceMode.MAPPED_TABLE);
+        UserLoader.loadUsers();
+
+        AdminUser admin = new AdminUser("Impa", 50);
+        SellStandardUser seller = new SellStandardUser("Beedle", 10);
+        BuyStandardUser buyer = new BuyStandardUser("Mipha", 100);
+        seller.sell("Shield", 40, 0);
+        seller.getGame("Shield").putOffProbation();
+        buyer.buy("Beedle", "Shield");
+        admin.addCredit("Mipha", 15);
+        admin.auctionSale();
+        UserObserver.flush();
+
+        assertTrue(UserObserver.getJournal().readAll().stream().anyMatch(
+                record -> record.getType() == JournalRecord.Type.BALANCE && record.getUsername().equals("Mipha")));
+        assertEquals(75, UserObserver.getTable().getBalance("Mipha"));
+
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+        assertEquals(75, User.getAllUsers().get("Mipha").getBalance());
+        assertEquals(50, User.getAllUsers().get("Beedle").getBalance());
+        assertTrue(User.getAllUsers().get("Mipha").ownsGame("Shield"));
+        assertTrue(AdminUser.isAuction());
+
+        ((AdminUser) User.getAllUsers().get("Impa")).auctionSale();
+        UserObserver.setPersistenceMode(PersistenceMode.SNAPSHOT);
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+        assertEquals(75, User.getAllUsers().get("Mipha").getBalance());
+        assertFalse(AdminUser.isAuction());
+        assertFalse(UserObserver.getTableFile().exists());
+    }
+
+    /**
+     * Checks that a buy made after the last flush is lost as a whole when the backend stops, and that a table that
+     * was not written after the journal was flushed is brought up to date from the journal.
+     */
+    @Test
+    public void testCrashBetweenFlushes() throws ConstraintException, IOException {
+        UserObserver.setPersistenceMode(PersistenceMode.MAPPED_TABLE);
+        UserObserver.setFlushPolicy(FlushPolicy.EVERY_N_TRANSACTIONS);
+        UserLoader.loadUsers();
+        SellStandardUser seller = new SellStandardUser("Beedle", 10);
+        BuyStandardUser buyer = new BuyStandardUser("Mipha", 100);
+        seller.sell("Shield", 40, 0);
+        seller.getGame("Shield").putOffProbation();
+        UserObserver.flush();
+
+        // The backend stops after the buy, before the next flush
+        buyer.buy("Beedle", "Shield");
+        File journalFile = UserObserver.getJournal().getFile();
+        File mappedFile = UserObserver.getTableFile();
+        byte[] journalOnDisk = Files.readAllBytes(journalFile.toPath());
+        byte[] tableOnDisk = Files.readAllBytes(mappedFile.toPath());
+        restart(journalFile, journalOnDisk, mappedFile, tableOnDisk);
+        assertEquals(100, User.getAllUsers().get("Mipha").getBalance());
+        assertEquals(10, User.getAllUsers().get("Beedle").getBalance());
+        assertFalse(User.getAllUsers().get("Mipha").ownsGame("Shield"));
+
+        // The backend stops after flushing the journal, before the table is written
+        User.getAllUsers().get("Beedle").getGame("Shield").putOffProbation();
+        ((BuyStandardUser) User.getAllUsers().get("Mipha")).buy("Beedle", "Shield");
+        tableOnDisk = Files.readAllBytes(mappedFile.toPath());
+        UserObserver.getJournal().flush();
+        journalOnDisk = Files.readAllBytes(journalFile.toPath());
+        restart(journalFile, journalOnDisk, mappedFile, tableOnDisk);
+        assertEquals(60, User.getAllUsers().get("Mipha").getBalance());
+        assertEquals(50, User.getAllUsers().get("Beedle").getBalance());
+        assertTrue(User.getAllUsers().get("Mipha").ownsGame("Shield"));
+        assertEquals(60, UserObserver.getTable().getBalance("Mipha"));
+
+        UserObserver.setFlushPolicy(FlushPolicy.ON_CHANGE);
+    }
+
+    /**
+     * Discards every change that is not on disk and puts the journal and table back to how they were when the
+     * backend stopped, then loads the users again as the next run of the backend would.
+     */
+    private static void restart(File journalFile, byte[] journal, File mappedFile, byte[] mapped) throws IOException {
+        UserObserver.clearDirty();
+        UserObserver.getJournal().close();
+        overwrite(journalFile, journal);
+        overwrite(mappedFile, mapped);
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+    }
+
+    /**
+     * Overwrites a file in place, since the table is still mapped.
+     */
+    private static void overwrite(File file, byte[] contents) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(contents);
+            raf.setLength(contents.length);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package src.tests.observer_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.Game;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.InvalidGameException;
+import src.main.observer.JournalRecord;
+import src.main.observer.PersistenceMode;
+import src.main.observer.TransactionJournal;
+import src.main.observer.UserObserver;
+import src.main.users.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A test suite for the TransactionJournal class and the journal persistence mode of UserObserver.
+ */
+public class TestTransactionJournal {
+    File journalFile;
+    TransactionJournal journal;
+
+    /**
+     * Creates an empty journal in a temporary file.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("journal", null);
+        journalFile.deleteOnExit();
+        journal = new TransactionJournal(journalFile);
+        User.getAllUsers().clear();
+    }
+
+    /**
+     * Goes back to the default persistence mode and an empty database.
+     */
+    @AfterEach
+    public void tearDown() {
+        journal.close();
+        UserObserver.setPersistenceMode(PersistenceMode.SNAPSHOT);
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * Test cases for TransactionJournal.append and TransactionJournal.readAll
+     */
+    @Test
+    public void testAppendAndRead() throws InvalidGameException {
+        journal.append(JournalRecord.createUser("Mario", User.FULL_STANDARD_TYPE, 100));
+        journal.append(JournalRecord.addGame("Mario", new Game("Kart", "Mario", 59.99, 10)));
+        journal.append(JournalRecord.auction(true));
+        journal.flush();
+
+        ArrayList<JournalRecord> records = new TransactionJournal(journalFile).readAll();
+        assertEquals(3, records.size());
+        assertEquals(JournalRecord.Type.CREATE_USER, records.get(0).getType());
+        assertEquals(User.FULL_STANDARD_TYPE, records.get(0).getAccountType());
+        assertEquals("Kart", records.get(1).getGameName());
+        assertEquals(59.99, records.get(1).getAmount());
+        assertEquals(10, records.get(1).getDiscount());
+        assertTrue(records.get(2).getFlag());
+    }
+
+    /**
+     * Test cases for TransactionJournal.truncate
+     */
+    @Test
+    public void testTruncate() {
+        journal.append(JournalRecord.balance("Luigi", 5));
+        journal.flush();
+        assertEquals(1, journal.size());
+
+        journal.truncate();
+        assertEquals(0, journal.size());
+        assertEquals(0, journal.readAll().size());
+    }
+
+    /**
+     * Checks that a partially written record at the end of the journal is dropped and new records are
+     * appended after the last complete record.
+     */
+    @Test
+    public void testTornRecord() throws IOException {
+        journal.append(JournalRecord.balance("Peach", 5));
+        journal.close();
+        FileOutputStream out = new FileOutputStream(journalFile, true);
+        out.write(new byte[] {(byte) JournalRecord.Type.BALANCE.ordinal(), 0, 9, 'T'});
+        out.close();
+
+        TransactionJournal reopened = new TransactionJournal(journalFile);
+        assertEquals(1, reopened.size());
+        reopened.append(JournalRecord.deleteUser("Peach"));
+        reopened.close();
+
+        ArrayList<JournalRecord> records = new TransactionJournal(journalFile).readAll();
+        assertEquals(2, records.size());
+        assertEquals(JournalRecord.Type.DELETE_USER, records.get(1).getType());
+    }
+
+    /**
+     * Checks that changes made in journal mode are restored when users are loaded in the next session.
+     */
+    @Test
+    public void testReplay() throws ConstraintException {
+        UserObserver.setPersistenceMode(PersistenceMode.JOURNAL);
+        UserObserver.checkpoint();
+
+        AdminUser admin = new AdminUser("Toad", 50);
+        SellStandardUser seller = new SellStandardUser("Bowser", 10);
+        BuyStandardUser buyer = new BuyStandardUser("Yoshi", 100);
+        seller.sell("Odyssey", 40, 25);
+        seller.getGame("Odyssey").putOffProbation();
+        buyer.buy("Bowser", "Odyssey");
+        admin.create("Wario", User.SELLER_TYPE, 20);
+        admin.delete("Wario");
+        admin.auctionSale();
+
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+
+        assertEquals(3, User.getAllUsers().size());
+        assertEquals(User.ADMIN_TYPE, User.getAllUsers().get("Toad").getAccountType());
+        assertEquals(60, User.getAllUsers().get("Yoshi").getBalance());
+        assertEquals(50, User.getAllUsers().get("Bowser").getBalance());
+        assertTrue(User.getAllUsers().get("Yoshi").ownsGame("Odyssey"));
+        assertTrue(User.getAllUsers().get("Yoshi").getGame("Odyssey").isOffProbation());
+        assertFalse(User.userExists("Wario"));
+        assertTrue(AdminUser.isAuction());
+
+        ((AdminUser) User.getAllUsers().get("Toad")).auctionSale();
+    }
+}
@@ -0,0 +1,81 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.BalanceException;
+import src.main.exceptions.UsernameException;
+import src.main.system.Client;
+import src.main.users.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+
+/**
+ * A test suite for the batch mode of the Client class.
+ */
+public class TestClient {
+    private static final String DAY =
+            "00 BatchUser       FS 000000.00\n" +
+            "06 BatchUser          001000.00\n" +
+            "10 BatchUser          000000.00\n";
+
+    File daysDirectory;
+
+    /**
+     * Creates a user with no credit and a directory for daily transaction files.
+     * @throws UsernameException
+     * @throws BalanceException
+     * @throws IOException
+     */
+    @BeforeEach
+    public void setup() throws UsernameException, BalanceException, IOException {
+        User.getAllUsers().clear();
+        new UserFactory().makeUser("BatchUser", "FS", 0);
+        daysDirectory = Files.createTempDirectory("days").toFile();
+        daysDirectory.deleteOnExit();
+    }
+
+    /**
+     * Writes a daily transaction file into the days directory.
+     */
+    private File writeDay(String name, String transactions) throws IOException {
+        File day = new File(daysDirectory, name);
+        day.deleteOnExit();
+        Files.writeString(day.toPath(), transactions);
+        return day;
+    }
+
+    /**
+     * Test that the daily transaction files in a directory are found in order of their day.
+     * @throws IOException
+     */
+    @Test
+    public void testFindDayFiles() throws IOException {
+        File day10 = writeDay("day10.txt", "");
+        File day2 = writeDay("day2.txt", "");
+        File day1 = writeDay("day1.txt", "");
+        writeDay("notes.md", "");
+
+        assertEquals(Arrays.asList(day1, day2, day10), Client.findDayFiles(new String[]{daysDirectory.getPath()}));
+        assertEquals(Arrays.asList(day10, day1), Client.findDayFiles(new String[]{day10.getPath(), day1.getPath()}));
+    }
+
+    /**
+     * Test that a new day starts between the days of a batch, so the daily credit limit is reset, and that the
+     * users are saved once the batch has finished.
+     * @throws IOException
+     */
+    @Test
+    public void testExecuteBatch() throws IOException {
+        List<File> days = Arrays.asList(writeDay("day1.txt", DAY), writeDay("day2.txt", DAY));
+        Client.executeBatch(days);
+        assertEquals(2000, User.getAllUsers().get("BatchUser").getBalance());
+
+        User.getAllUsers().clear();
+        UserLoader.loadUsers();
+        assertEquals(2000, User.getAllUsers().get("BatchUser").getBalance());
+    }
+}
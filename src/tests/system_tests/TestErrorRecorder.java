@@ -0,0 +1,120 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.BalanceException;
+import src.main.exceptions.FatalException;
+import src.main.exceptions.InvalidGameException;
+import src.main.system.ErrorRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * A test suite for the ErrorRecorder class.
+ */
+public class TestErrorRecorder {
+    File errorFile;
+
+    /**
+     * Creates a file to record errors in.
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        errorFile = File.createTempFile("errorLogs", ".txt");
+        Files.writeString(errorFile.toPath(), "Errors from an earlier run\n");
+    }
+
+    /**
+     * Deletes the file errors were recorded in.
+     */
+    @AfterEach
+    public void tearDown() {
+        errorFile.delete();
+    }
+
+    private static String error(String code) {
+        return "Constraint error: Transaction Code: " + code + "\nMessage - failed\n\n";
+    }
+
+    /**
+     * Test that errors replace the previous contents of the file in the order they were recorded, followed by a
+     * summary of how many errors of each kind occurred for each type of transaction code.
+     */
+    @Test
+    public void testRecordAndSummarize() throws IOException {
+        ErrorRecorder recorder = new ErrorRecorder(errorFile, ErrorRecorder.DEFAULT_MAX_BYTES);
+        recorder.recordError("04 Celeste   Alice   Bob", new BalanceException("Not enough credit"), error("04 first"));
+        recorder.recordError("04 Celeste   Alice   Carol", new InvalidGameException("No game"), error("04 second"));
+        recorder.recordError("04 Celeste   Alice   Dave", new BalanceException("Not enough credit"), error("04 third"));
+        recorder.recordError("9", new FatalException("Unknown code"), error("9"));
+        recorder.closeWriter();
+
+        assertEquals(4, recorder.getErrorCount());
+        assertEquals(2, recorder.getErrorCount("04", "BalanceException"));
+        assertEquals(1, recorder.getErrorCount("04", "InvalidGameException"));
+        assertEquals(1, recorder.getErrorCount("9", "FatalException"));
+        assertEquals(0, recorder.getErrorCount("06", "BalanceException"));
+
+        String contents = Files.readString(errorFile.toPath());
+        assertFalse(contents.contains("earlier run"));
+        assertTrue(contents.startsWith(error("04 first") + error("04 second") + error("04 third") + error("9")));
+        assertTrue(contents.endsWith(recorder.getSummary()));
+        assertTrue(recorder.getSummary().contains(String.format("%-6s%-32s%8d", "04", "BalanceException", 2)));
+        assertTrue(recorder.getSummary().contains(String.format("%-38s%8d", "Total", 4)));
+    }
+
+    /**
+     * Test that identical errors are only written once, and that errors past the maximum size are only counted.
+     */
+    @Test
+    public void testDuplicatesAndMaximumSize() throws IOException {
+        long maxBytes = error("04 first").length() + error("04 second").length();
+        ErrorRecorder recorder = new ErrorRecorder(errorFile, maxBytes);
+        for (int i = 0; i < 3; i++) {
+            recorder.recordError("04 first", new BalanceException(""), error("04 first"));
+        }
+        recorder.recordError("04 second", new BalanceException(""), error("04 second"));
+        recorder.recordError("04 third", new BalanceException(""), error("04 third"));
+        recorder.closeWriter();
+
+        assertEquals(5, recorder.getErrorCount());
+        assertEquals(5, recorder.getErrorCount("04", "BalanceException"));
+        assertEquals(2, recorder.getDuplicateCount());
+        assertEquals(1, recorder.getOmittedCount());
+        assertEquals(error("04 first") + error("04 second") + recorder.getSummary(),
+                Files.readString(errorFile.toPath()));
+    }
+
+    /**
+     * Test that the maximum size counts the bytes errors take in UTF-8 rather than their characters.
+     */
+    @Test
+    public void testMaximumSizeInBytes() throws IOException {
+        String accented = error("04 Caf\u00e9");
+        String plain = error("04 Cafe");
+        ErrorRecorder recorder = new ErrorRecorder(errorFile, plain.length());
+        recorder.recordError("04 Caf\u00e9", new BalanceException(""), accented);
+        recorder.recordError("04 Cafe", new BalanceException(""), plain);
+        recorder.closeWriter();
+
+        assertEquals(accented.length(), plain.length());
+        assertEquals(1, recorder.getOmittedCount());
+        assertEquals(plain + recorder.getSummary(), Files.readString(errorFile.toPath()));
+    }
+
+    /**
+     * Test that nothing but the errors is written when there are no errors.
+     */
+    @Test
+    public void testNoErrors() throws IOException {
+        ErrorRecorder recorder = new ErrorRecorder(errorFile, ErrorRecorder.DEFAULT_MAX_BYTES);
+        recorder.closeWriter();
+        assertEquals(0, recorder.getErrorCount());
+        assertEquals("", Files.readString(errorFile.toPath()));
+    }
+}
@@ -0,0 +1,149 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.command.Command;
+import src.main.exceptions.FatalException;
+import src.main.system.*;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.*;
+
+
+/**
+ * A test suite for the MappedTransactionFile class.
+ */
+public class TestMappedTransactionFile {
+
+    /**
+     * Reads every line of a file with a MappedTransactionFile.
+     */
+    private List<String> readMapped(File file, long windowSize) throws IOException {
+        ArrayList<String> codes = new ArrayList<>();
+        try (MappedTransactionFile mapped = new MappedTransactionFile(file, windowSize)) {
+            while (mapped.next()) {
+                codes.add(mapped.getCode());
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Reads every line of a file with a TransactionFile.
+     */
+    private List<String> readBuffered(File file) {
+        ArrayList<String> codes = new ArrayList<>();
+        new TransactionFile(file).forEach(codes::add);
+        return codes;
+    }
+
+    /**
+     * Writes text to a temporary file.
+     */
+    private File writeTemp(String text) throws IOException {
+        File file = File.createTempFile("daily", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(Charset.defaultCharset()));
+        return file;
+    }
+
+    /**
+     * @return a description of the command a factory makes for a code, or of the error it throws
+     */
+    private String describe(Command command) {
+        StringBuilder description = new StringBuilder(command.getClass().getName());
+        for (Class<?> type = command.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (java.lang.reflect.Field field: type.getDeclaredFields()) {
+                if (java.lang.reflect.Modifier.isStatic(field.getModifiers()) || !field.trySetAccessible()) {
+                    continue;
+                }
+                try {
+                    Object value = field.get(command);
+                    if (value == null || value instanceof String || value instanceof Number) {
+                        description.append(' ').append(field.getName()).append('=').append(value);
+                    }
+                } catch (IllegalAccessException e) {
+                    fail(e);
+                }
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Test that lines are split the same way as by a TransactionFile, including across mapping windows.
+     * @throws IOException
+     */
+    @Test
+    public void testSameLinesAsTransactionFile() throws IOException {
+        String[] texts = {
+            "",
+            "\n",
+            "no trailing newline",
+            "a\nb\n",
+            "a\r\nb\r\n\r\nc",
+            "a\rb\r\rc\r",
+            "\n\n\nlast",
+            "00 \u00dcn\u00efc\u00f6d\u00e9        AA 000010.00\n01 God             AA 000000.00\n",
+        };
+        for (String text: texts) {
+            File file = writeTemp(String.join("\n", text, text, text, text));
+            List<String> expected = readBuffered(file);
+            assertEquals(expected, readMapped(file, MappedTransactionFile.DEFAULT_WINDOW_SIZE), text);
+            // Every line is shorter than the window, but lines and line terminators are split between windows
+            for (long windowSize = 40; windowSize <= 80; windowSize++) {
+                assertEquals(expected, readMapped(file, windowSize), "window " + windowSize + " of " + text);
+            }
+        }
+
+        String src_test_systemTests = new File(new File(System.getProperty("user.dir"), "src"), "tests/system_tests").getPath();
+        File testFile = new File(src_test_systemTests, "testfile1.txt");
+        assertEquals(readBuffered(testFile), readMapped(testFile, 64));
+    }
+
+    /**
+     * Test that each line makes the same command, or the same error, as the TransactionFactory makes from a String.
+     * @throws IOException
+     */
+    @Test
+    public void testSameCommandsAsTransactionFactory() throws IOException {
+        String src_test_systemTests = new File(new File(System.getProperty("user.dir"), "src"), "tests/system_tests").getPath();
+        StringBuilder text = new StringBuilder();
+        for (String code: readBuffered(new File(src_test_systemTests, "testfile1.txt"))) {
+            text.append(code).append('\n');
+        }
+        text.append("00 \u00dcn\u00efc\u00f6d\u00e9        AA 000010.00\n")
+            .append("06 God             FS 000010.00\n")
+            .append("06 God             FS 000010.00\n")
+            .append("05 God             FS 000010.00\n")
+            .append("99 God             AA 000000.00\n")
+            .append("0\n")
+            .append("\n")
+            .append("03 A Game                    God             15.00 059.99\r\n")
+            .append("03 A Game                    God             1x.00 059.99\n");
+        File file = writeTemp(text.toString());
+
+        DistributionSystem system = new DistributionSystem();
+        TransactionFactory factory = new TransactionFactory();
+        try (MappedTransactionFile mapped = new MappedTransactionFile(file)) {
+            for (String code: readBuffered(file)) {
+                assertTrue(mapped.next());
+                String expected, actual;
+                try {
+                    expected = describe(factory.getTransactionCommand(system, code));
+                } catch (FatalException e) {
+                    expected = e.getMessage();
+                }
+                try {
+                    actual = describe(mapped.getCommand(system));
+                } catch (FatalException e) {
+                    actual = e.getMessage();
+                }
+                assertEquals(expected, actual, code);
+            }
+            assertFalse(mapped.next());
+        }
+    }
+}
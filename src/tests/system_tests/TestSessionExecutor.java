@@ -0,0 +1,153 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.Game;
+import src.main.command.Command;
+import src.main.command.Invoker;
+import src.main.command.LoginCommand;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.FatalException;
+import src.main.system.*;
+import src.main.users.*;
+import java.util.*;
+
+
+/**
+ * A test suite for the SessionExecutor class.
+ */
+public class TestSessionExecutor {
+    private static final int USERS = 10;
+
+    /**
+     * Creates the same users and games before every run, with the games off probation.
+     */
+    private void createUsers() throws ConstraintException {
+        User.getAllUsers().clear();
+        UserFactory factory = new UserFactory();
+        factory.makeUser("Admin", "AA", 5000);
+        for (int i = 0; i < USERS; i++) {
+            factory.makeUser("user" + i, "FS", 5000);
+            ((FullStandardUser) User.getAllUsers().get("user" + i)).sell("Game" + i, 20 + i, 10);
+        }
+        UserLoader.startNewDay();
+    }
+
+    /**
+     * @return a description of every user, their balance and their games
+     */
+    private String describeUsers() {
+        StringBuilder description = new StringBuilder("auction=" + AdminUser.isAuction() + "\n");
+        for (String username: new TreeSet<>(User.getAllUsers().keySet())) {
+            User user = User.getAllUsers().get(username);
+            description.append(user.toString().replace('\n', ' '));
+            for (String gameName: new TreeSet<>(user.getGameLibrary().keySet())) {
+                Game game = user.getGame(gameName);
+                description.append(String.format(" [%s %s %.2f %b]", gameName, game.getSeller(), game.getPrice(),
+                        game.isOffProbation()));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * @return many random sessions of users buying, selling, gifting, and adding credit, with some admin sessions
+     */
+    private List<String> makeCodes() {
+        Random random = new Random(207);
+        List<String> codes = new ArrayList<>();
+        int auctions = 0;
+        for (int session = 0; session < 300; session++) {
+            int choice = random.nextInt(20);
+            if (choice == 0) {
+                // An admin session that is a barrier
+                codes.add(String.format("00 %-15s AA 005000.00", "Admin"));
+                if (auctions % 2 == 0 || random.nextBoolean()) {
+                    codes.add(String.format("07 %-15s    000000.00", "Admin"));
+                    auctions++;
+                }
+                codes.add(String.format("01 %-15s FS 000100.00", "new" + session));
+                codes.add(String.format("09 %-25s %-15s %-15s", "Game" + random.nextInt(USERS), "Admin",
+                        "user" + random.nextInt(USERS)));
+                codes.add(String.format("10 %-15s    000000.00", "Admin"));
+            } else if (choice == 1) {
+                // An admin session that runs in parallel
+                codes.add(String.format("00 %-15s AA 005000.00", "Admin"));
+                codes.add(String.format("05 %-15s %-15s 000001.00", "user" + random.nextInt(USERS),
+                        "user" + random.nextInt(USERS)));
+                codes.add(String.format("06 %-15s    000010.00", "user" + random.nextInt(USERS)));
+                codes.add(String.format("10 %-15s    000000.00", "Admin"));
+            } else {
+                String user = "user" + random.nextInt(USERS);
+                codes.add(String.format("00 %-15s FS 000000.00", user));
+                for (int transaction = random.nextInt(4); transaction >= 0; transaction--) {
+                    String other = "user" + random.nextInt(USERS);
+                    switch (random.nextInt(5)) {
+                        case 0:
+                            codes.add(String.format("06 %-15s    %09.2f", user, random.nextInt(400) + 0.5));
+                            break;
+                        case 1:
+                            codes.add(String.format("04 %-25s %-15s %-15s", "Game" + other.substring(4), other, user));
+                            break;
+                        case 2:
+                            codes.add(String.format("03 %-25s %-15s 10.00 %06.2f", "Game" + session, user,
+                                    random.nextInt(100) + 0.99));
+                            break;
+                        case 3:
+                            codes.add(String.format("09 %-25s %-15s %-15s", "Game" + random.nextInt(USERS), user, other));
+                            break;
+                        default:
+                            codes.add("this is not a transaction code");
+                    }
+                }
+                // Some sessions are never logged out of before the next login
+                if (random.nextInt(10) > 0) {
+                    codes.add(String.format("10 %-15s    000000.00", user));
+                }
+            }
+        }
+        if (auctions % 2 == 1) {
+            codes.add(String.format("00 %-15s AA 005000.00", "Admin"));
+            codes.add(String.format("07 %-15s    000000.00", "Admin"));
+            codes.add(String.format("10 %-15s    000000.00", "Admin"));
+        }
+        return codes;
+    }
+
+    /**
+     * Test that executing sessions in parallel leaves the users in the same state as executing them in order.
+     * @throws ConstraintException
+     */
+    @Test
+    public void testSameStateAsSequential() throws ConstraintException {
+        List<String> codes = makeCodes();
+
+        createUsers();
+        DistributionSystem system = new DistributionSystem();
+        TransactionFactory factory = new TransactionFactory();
+        Invoker button = new Invoker();
+        for (String code: codes) {
+            try {
+                Command command = factory.getTransactionCommand(system, code);
+                if (!system.isCurrLogin() && !(command instanceof LoginCommand)) {
+                    continue;
+                }
+                button.setCommand(command);
+                button.run();
+            } catch (FatalException | ConstraintException ignored) {
+            }
+        }
+        String sequential = describeUsers();
+        assertFalse(AdminUser.isAuction());
+
+        createUsers();
+        int transactions;
+        try (SessionExecutor executor = new SessionExecutor(4)) {
+            transactions = executor.execute(codes, new ErrorRecorder(), "daily.txt");
+        }
+        assertEquals(codes.size(), transactions);
+        assertEquals(sequential, describeUsers());
+    }
+}
@@ -0,0 +1,173 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.command.*;
+import src.main.exceptions.ConstraintException;
+import src.main.exceptions.UsernameException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.system.SessionManager;
+import src.main.users.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * A test suite for the SessionManager class.
+ */
+public class TestSessionManager {
+    private static final int USERS = 8;
+    private static final int THREADS = 8;
+
+    SessionManager manager;
+    FlushPolicy previousPolicy;
+
+    /**
+     * Creates admins for every thread and standard users that credits are moved between.
+     * @throws ConstraintException
+     */
+    @BeforeEach
+    public void setup() throws ConstraintException {
+        previousPolicy = UserObserver.getFlushPolicy();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        User.getAllUsers().clear();
+        UserFactory factory = new UserFactory();
+        for (int i = 0; i < THREADS; i++) {
+            factory.makeUser("admin" + i, "AA", 1000);
+        }
+        for (int i = 0; i < USERS; i++) {
+            factory.makeUser("user" + i, "FS", 10000);
+            ((FullStandardUser) User.getAllUsers().get("user" + i)).sell("Game" + i, 10, 0);
+        }
+        UserLoader.startNewDay();
+        manager = new SessionManager();
+    }
+
+    /**
+     * Stops the manager and restores the flush policy.
+     */
+    @AfterEach
+    public void teardown() {
+        manager.close();
+        UserObserver.setFlushPolicy(previousPolicy);
+    }
+
+    /**
+     * Runs a command in a session.
+     */
+    private void run(SessionManager.Session session, Command command) throws ConstraintException {
+        Invoker invoker = manager.newInvoker(session);
+        invoker.setCommand(command);
+        invoker.run();
+    }
+
+    /**
+     * Test that different users can be logged in at once, but a user cannot be logged in twice.
+     * @throws ConstraintException
+     */
+    @Test
+    public void testLoginLogout() throws ConstraintException {
+        SessionManager.Session first = manager.openSession();
+        SessionManager.Session second = manager.openSession();
+        SessionManager.Session third = manager.openSession();
+
+        run(first, new LoginCommand(first, "user0", "FS", 10000));
+        run(second, new LoginCommand(second, "user1", "FS", 10000));
+        assertEquals(2, manager.getLoggedInCount());
+        assertEquals("user0", first.getCurrUser().getUsername());
+        assertEquals("user1", second.getCurrUser().getUsername());
+
+        assertThrows(UsernameException.class, () -> run(third, new LoginCommand(third, "user0", "FS", 10000)));
+        assertFalse(third.isCurrLogin());
+        assertThrows(UsernameException.class, () -> run(third, new LoginCommand(third, "nobody", "FS", 0)));
+        assertEquals(2, manager.getLoggedInCount());
+
+        run(first, new LogoutCommand(first));
+        assertFalse(manager.isLoggedIn("user0"));
+        run(third, new LoginCommand(third, "user0", "FS", 10000));
+        assertTrue(manager.isLoggedIn("user0"));
+
+        manager.closeSession(second);
+        manager.closeSession(third);
+        assertEquals(0, manager.getLoggedInCount());
+    }
+
+    /**
+     * Test that credits moved between the same users on many threads at once are never lost or duplicated, and that
+     * no thread deadlocks.
+     */
+    @Test
+    public void testConcurrentTransfers() {
+        double total = 0;
+        for (int i = 0; i < USERS; i++) {
+            total += User.getAllUsers().get("user" + i).getBalance();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            String admin = "admin" + thread;
+            long seed = thread;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                SessionManager.Session session = manager.openSession();
+                run(session, new LoginCommand(session, admin, "AA", 1000));
+                int refunds = 0;
+                for (int i = 0; i < 2000; i++) {
+                    String buyer = "user" + random.nextInt(USERS);
+                    String seller = "user" + random.nextInt(USERS);
+                    try {
+                        run(session, new RefundCommand(session, buyer, seller, 1.0));
+                        refunds++;
+                    } catch (ConstraintException e) {
+                        // A user refunding themselves
+                    }
+                }
+                manager.closeSession(session);
+                return refunds;
+            }));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (Future<Integer> result: results) {
+                assertTrue(result.get() > 0);
+            }
+        });
+        pool.shutdown();
+
+        double after = 0;
+        for (int i = 0; i < USERS; i++) {
+            after += User.getAllUsers().get("user" + i).getBalance();
+        }
+        assertEquals(total, after, 1e-6);
+        assertEquals(0, manager.getLoggedInCount());
+    }
+
+    /**
+     * Test that a buy and an auction sale can run alongside other sessions.
+     * @throws ConstraintException
+     */
+    @Test
+    public void testBuyAndExclusiveCommands() throws ConstraintException {
+        SessionManager.Session buyer = manager.openSession();
+        SessionManager.Session admin = manager.openSession();
+        run(buyer, new LoginCommand(buyer, "user0", "FS", 10000));
+        run(admin, new LoginCommand(admin, "admin0", "AA", 1000));
+
+        run(buyer, new BuyCommand(buyer, "Game1", "user1", "user0"));
+        assertTrue(User.getAllUsers().get("user0").ownsGame("Game1"));
+        assertEquals(10010, User.getAllUsers().get("user1").getBalance());
+
+        run(admin, new CreateCommand(admin, "user" + USERS, "FS", 5.0));
+        assertTrue(User.userExists("user" + USERS));
+        run(admin, new AuctionsaleCommand(admin, "admin0"));
+        assertTrue(AdminUser.isAuction());
+        run(admin, new AuctionsaleCommand(admin, "admin0"));
+        assertFalse(AdminUser.isAuction());
+    }
+}
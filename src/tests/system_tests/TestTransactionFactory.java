@@ -13,6 +13,8 @@ import src.main.users.User;
 
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 
 /**
@@ -355,4 +357,49 @@ public class TestTransactionFactory {
         assertThrows(FatalException.class, () -> transFactory.getTransactionCommand(system, "01 ThisNameIsOverFifteenCharacters BS 000000.00"));
         assertThrows(FatalException.class, () -> transFactory.getTransactionCommand(system, "01 ValidName      FS 100000000"));
     }
+
+    /**
+     * Checks that codes are accepted or rejected with the same message as the regular expressions that used to
+     * parse them, including codes that only match part way through and usernames outside the Basic Multilingual Plane.
+     */
+    @Test
+    public void testMatchesRegexBehaviour() {
+        String[][] cases = {
+            {"(?<code>\\d{2}) (?<username>.{15}) (?<type>\\s{2}) (?<unused>(0{6}\\.0{2}|0{9}))",
+                "02 Domi               000000.00", "0700 Domi               000000000", "10 Domi            \t  000000.00",
+                "02 Domi\n              000000.00", "02 Domi               000000.0", "07xx07 Domi               000000000"},
+            {"(?<code>\\d{2}) (?<username>.{15}) (?<type>(FS|AA|BS|SS)) (?<credit>\\d{6}\\.\\d{2})",
+                "00 \uD83C\uDFAEGamer          AA 000010.00", "01 \uD83C\uDFAEGamer         AA 000010.00",
+                "0101 Domi            FS 000010.00 trailing", "01 Domi            SA 000010.00",
+                "00 Domi            FS 0000\u0661.00", "01 Domi\u2028           FS 000010.00"},
+            {"(?<code>\\d{2}) (?<gameName>.{25}) (?<sellerUsername>.{15}) (?<discount>\\d{2}\\.\\d{2}) (?<price>\\d{3}\\.\\d{2})",
+                "03 Half Life                 Valve           10.00 019.99", "03 Half Life                 Valve           1.00 019.99",
+                "03 Half Life                 Valve           10.00 019.99\r", "03 Short Valve 10.00 019.99"},
+            {"(?<code>\\d{2}) (?<gameName>.{25}) (?<ownerName>.{15}) (?<receiverName>\\s{15})",
+                "08 Half Life                 Gordon                         ", "08 Half Life                 Gordon          Alyx           "},
+        };
+
+        for (String[] testCase: cases) {
+            Pattern pattern = Pattern.compile(testCase[0]);
+            for (int i = 1; i < testCase.length; i++) {
+                String code = testCase[i];
+                Matcher matcher = pattern.matcher(code);
+                String expectedMessage = null;
+                if (!matcher.find()) {
+                    expectedMessage = "'" + code + "' does not follow a correct transaction code format.";
+                } else if (!matcher.group("code").equals(code.substring(0, 2))
+                        && !(code.startsWith("03") || code.startsWith("08"))) {
+                    expectedMessage = "Code: '" + code + "' is invalid.";
+                }
+
+                if (expectedMessage == null) {
+                    assertDoesNotThrow(() -> transFactory.getTransactionCommand(system, code), code);
+                } else {
+                    FatalException e = assertThrows(FatalException.class,
+                            () -> transFactory.getTransactionCommand(system, code), code);
+                    assertEquals(new FatalException(expectedMessage).getMessage(), e.getMessage());
+                }
+            }
+        }
+    }
 }
@@ -39,7 +39,10 @@ public class TestTransactionFile {
 
         user_factory = new UserFactory();
 
-        user_factory.makeUser("God", "AA", 9999.00);
+        // God is kept in the database from a previous test case
+        if (!User.getAllUsers().containsKey("God")) {
+            user_factory.makeUser("God", "AA", 9999.00);
+        }
 
         system = new DistributionSystem();
         factory = new TransactionFactory();
@@ -90,4 +93,42 @@ public class TestTransactionFile {
         assertFalse(system.isCurrLogin());
 
     }
+
+    /**
+     * Test case for a streaming System.TransactionFile, which should read the same codes as a buffered one but only
+     * once they are iterated over.
+     * @throws IOException
+     */
+    @Test
+    public void testStreamingTransactionFile() throws IOException {
+        String src_test_systemTests = new File(new File(System.getProperty("user.dir"), "src"), "tests/system_tests").getPath();
+        File testFile = new File(src_test_systemTests, "testfile1.txt");
+
+        ArrayList<String> buffered = new ArrayList<>();
+        new TransactionFile(testFile).forEach(buffered::add);
+        ArrayList<String> streamed = new ArrayList<>();
+        try (TransactionFile streamingFile = new TransactionFile(testFile, true)) {
+            assertTrue(streamingFile.isStreaming());
+            streamingFile.forEach(streamed::add);
+            assertEquals(buffered, streamed);
+
+            // Iterating again reads the file again
+            streamed.clear();
+            streamingFile.forEach(streamed::add);
+            assertEquals(buffered, streamed);
+        }
+
+        File growingFile = File.createTempFile("daily", ".txt");
+        growingFile.deleteOnExit();
+        try (TransactionFile streamingFile = new TransactionFile(growingFile, true);
+             FileWriter writer = new FileWriter(growingFile)) {
+            writer.write("00 God             AA 009999.00\n");
+            writer.flush();
+            Iterator<String> iterator = streamingFile.iterator();
+            assertTrue(iterator.hasNext());
+            assertEquals("00 God             AA 009999.00", iterator.next());
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
 }
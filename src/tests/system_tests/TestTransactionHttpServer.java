@@ -0,0 +1,146 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.system.TransactionHttpServer;
+import src.main.system.TransactionServer;
+import src.main.users.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+
+/**
+ * A test suite for the TransactionHttpServer class.
+ */
+public class TestTransactionHttpServer {
+    TransactionHttpServer server;
+    HttpClient client;
+    FlushPolicy previousPolicy;
+
+    /**
+     * Creates a seller and a buyer and starts the server on a free port.
+     * @throws ConstraintException
+     * @throws IOException
+     */
+    @BeforeEach
+    public void setup() throws ConstraintException, IOException {
+        previousPolicy = UserObserver.getFlushPolicy();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        User.getAllUsers().clear();
+        UserFactory factory = new UserFactory();
+        factory.makeUser("seller", "FS", 100);
+        factory.makeUser("buyer", "FS", 100);
+        ((FullStandardUser) User.getAllUsers().get("seller")).sell("Zelda", 20, 0);
+        ((FullStandardUser) User.getAllUsers().get("seller")).sell("Mario", 10, 0);
+        UserLoader.startNewDay();
+        server = new TransactionHttpServer(0, 4);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Stops the server and restores the flush policy.
+     */
+    @AfterEach
+    public void teardown() {
+        server.close();
+        UserObserver.setFlushPolicy(previousPolicy);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + path);
+    }
+
+    /**
+     * Test that posted transactions are executed in a session of their own, with a reply for each of them.
+     * @throws Exception
+     */
+    @Test
+    public void testTransactions() throws Exception {
+        HttpResponse<String> response = post("/transactions",
+                String.format("00 %-15s FS 000100.00\n", "buyer")
+                + String.format("04 %-25s %-15s %-15s\n", "Mario", "seller", "buyer")
+                + String.format("04 %-25s %-15s %-15s\n", "Missing", "seller", "buyer")
+                + String.format("10 %-15s    000000.00\n", "buyer"));
+        assertEquals(200, response.statusCode());
+        String[] replies = response.body().split("\n");
+        assertEquals(4, replies.length);
+        assertEquals(TransactionServer.OK, replies[0]);
+        assertEquals(TransactionServer.OK, replies[1]);
+        assertTrue(replies[2].startsWith("CONSTRAINT ERROR"));
+        assertEquals(TransactionServer.OK, replies[3]);
+        assertEquals(90, User.getAllUsers().get("buyer").getBalance());
+
+        // The session ends with the request, so the next one is not logged in
+        response = post("/transactions", String.format("06 %-15s    000010.00\n", "buyer"));
+        assertEquals(TransactionServer.NOT_LOGGED_IN + "\n", response.body());
+        assertEquals(405, get("/transactions").statusCode());
+    }
+
+    /**
+     * Test looking up a user's account, library and the games they sell.
+     * @throws Exception
+     */
+    @Test
+    public void testQueries() throws Exception {
+        User.getAllUsers().get("buyer").addCredit(5);
+        HttpResponse<String> response = get("/users/buyer");
+        assertEquals(200, response.statusCode());
+        assertEquals("Username: buyer\nType: FS\nBalance: 105.00\n", response.body());
+
+        response = get("/sellers/seller/games");
+        assertEquals(200, response.statusCode());
+        assertEquals("Mario\tseller\t10.00\nZelda\tseller\t20.00\n", response.body());
+        assertEquals(response.body(), get("/users/seller/games").body());
+
+        assertEquals(200, get("/sellers/buyer/games").statusCode());
+        assertEquals("", get("/sellers/buyer/games").body());
+        assertEquals(404, get("/users/nobody").statusCode());
+        assertEquals(404, get("/sellers/nobody/games").statusCode());
+        assertEquals(404, get("/users/buyer/friends").statusCode());
+    }
+
+    /**
+     * Test listing the owners of a game.
+     * @throws Exception
+     */
+    @Test
+    public void testGameOwners() throws Exception {
+        User.getAllUsers().get("seller").getGame("Mario").putOffProbation();
+        ((FullStandardUser) User.getAllUsers().get("buyer")).buy("seller", "Mario");
+        assertEquals("buyer\nseller\n", get("/games/Mario/owners").body());
+        assertEquals("seller\n", get("/games/Zelda/owners").body());
+        assertEquals("", get("/games/Portal/owners").body());
+    }
+
+    /**
+     * Test looking up listings by game and by price.
+     * @throws Exception
+     */
+    @Test
+    public void testListings() throws Exception {
+        assertEquals("Mario\tseller\t10.00\n", get("/games/Mario/listings").body());
+        assertEquals("Mario\tseller\t10.00\nZelda\tseller\t20.00\n", get("/listings").body());
+        assertEquals("Zelda\tseller\t20.00\n", get("/listings?min=10.01&max=20").body());
+        assertEquals("Mario\tseller\t10.00\n", get("/listings?limit=1").body());
+        assertEquals(400, get("/listings?max=cheap").statusCode());
+    }
+}
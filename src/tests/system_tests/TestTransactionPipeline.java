@@ -0,0 +1,83 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.FatalException;
+import src.main.system.*;
+import java.io.File;
+import java.util.*;
+
+
+/**
+ * A test suite for the TransactionPipeline class.
+ */
+public class TestTransactionPipeline {
+
+    /**
+     * @return the codes in testfile1.txt followed by codes that cannot be made into commands, repeated many times
+     */
+    private List<String> getCodes() {
+        String src_test_systemTests = new File(new File(System.getProperty("user.dir"), "src"), "tests/system_tests").getPath();
+        ArrayList<String> codes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            new TransactionFile(new File(src_test_systemTests, "testfile1.txt")).forEach(codes::add);
+            codes.add("99 God             AA 000000.00");
+            codes.add("");
+            codes.add("06 God" + i);
+        }
+        return codes;
+    }
+
+    /**
+     * Test that commands and errors come out of the pipeline in the order of their codes, the same as made by a
+     * single TransactionFactory.
+     */
+    @Test
+    public void testSameOrderAsTransactionFactory() {
+        List<String> codes = getCodes();
+        DistributionSystem system = new DistributionSystem();
+        TransactionFactory factory = new TransactionFactory();
+
+        ArrayList<String> expected = new ArrayList<>();
+        for (String code: codes) {
+            try {
+                expected.add(code + " " + factory.getTransactionCommand(system, code).getClass().getName());
+            } catch (FatalException e) {
+                expected.add(code + " " + e.getMessage());
+            }
+        }
+
+        ArrayList<String> actual = new ArrayList<>();
+        try (TransactionPipeline pipeline = new TransactionPipeline(system, codes, 4, 2)) {
+            while (pipeline.hasNext()) {
+                TransactionPipeline.ParsedTransaction transaction = pipeline.next();
+                try {
+                    actual.add(transaction.getCode() + " " + transaction.getCommand().getClass().getName());
+                } catch (FatalException e) {
+                    actual.add(transaction.getCode() + " " + e.getMessage());
+                }
+            }
+            assertFalse(pipeline.hasNext());
+            assertThrows(NoSuchElementException.class, pipeline::next);
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test that a pipeline can be closed before every code has been executed, and that an empty file has no codes.
+     */
+    @Test
+    public void testCloseEarly() {
+        DistributionSystem system = new DistributionSystem();
+        TransactionPipeline pipeline = new TransactionPipeline(system, getCodes(), 2, 4);
+        assertTrue(pipeline.hasNext());
+        assertNotNull(pipeline.next());
+        pipeline.close();
+        assertFalse(pipeline.hasNext());
+
+        try (TransactionPipeline empty = new TransactionPipeline(system, Collections.emptyList(), 2, 4)) {
+            assertFalse(empty.hasNext());
+        }
+    }
+}
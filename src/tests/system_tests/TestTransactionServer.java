@@ -0,0 +1,178 @@
+package src.tests.system_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.FlushPolicy;
+import src.main.observer.UserObserver;
+import src.main.system.TransactionServer;
+import src.main.users.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * A test suite for the TransactionServer class.
+ */
+public class TestTransactionServer {
+    private static final int CLIENTS = 6;
+
+    TransactionServer server;
+    FlushPolicy previousPolicy;
+
+    /**
+     * Creates the users that log in to the server and starts it on a free port.
+     * @throws ConstraintException
+     * @throws IOException
+     */
+    @BeforeEach
+    public void setup() throws ConstraintException, IOException {
+        previousPolicy = UserObserver.getFlushPolicy();
+        UserObserver.setFlushPolicy(FlushPolicy.END_OF_BATCH);
+        User.getAllUsers().clear();
+        UserFactory factory = new UserFactory();
+        for (int i = 0; i < CLIENTS; i++) {
+            factory.makeUser("user" + i, "FS", 100);
+        }
+        UserLoader.startNewDay();
+        server = new TransactionServer(0, 4);
+    }
+
+    /**
+     * Stops the server and restores the flush policy.
+     */
+    @AfterEach
+    public void teardown() {
+        server.close();
+        UserObserver.setFlushPolicy(previousPolicy);
+    }
+
+    /**
+     * Sends transaction codes on one connection and reads a reply for each of them.
+     */
+    private List<String> send(List<String> codes) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+            for (String code: codes) {
+                writer.write(code + "\r\n");
+            }
+            writer.flush();
+            socket.shutdownOutput();
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            List<String> replies = new ArrayList<>();
+            String reply;
+            while ((reply = reader.readLine()) != null) {
+                replies.add(reply);
+            }
+            return replies;
+        }
+    }
+
+    private static String login(String username) {
+        return String.format("00 %-15s FS 000100.00", username);
+    }
+
+    private static String addCredit(String username, double credit) {
+        return String.format("06 %-15s    %09.2f", username, credit);
+    }
+
+    private static String logout(String username) {
+        return String.format("10 %-15s    000000.00", username);
+    }
+
+    /**
+     * Test that each code gets a reply in order, saying whether it was performed or why not.
+     * @throws IOException
+     */
+    @Test
+    public void testReplies() throws IOException {
+        List<String> replies = send(List.of(
+                addCredit("user0", 10),
+                login("user0"),
+                addCredit("user0", 25),
+                "not a transaction code",
+                addCredit("user0", 1001),
+                logout("user0")));
+
+        assertEquals(6, replies.size());
+        assertEquals(TransactionServer.NOT_LOGGED_IN, replies.get(0));
+        assertEquals(TransactionServer.OK, replies.get(1));
+        assertEquals(TransactionServer.OK, replies.get(2));
+        assertTrue(replies.get(3).startsWith("FATAL ERROR"));
+        assertTrue(replies.get(4).startsWith("CONSTRAINT ERROR"));
+        assertEquals(TransactionServer.OK, replies.get(5));
+        assertEquals(125, User.getAllUsers().get("user0").getBalance());
+    }
+
+    /**
+     * Test that a user logged in on one connection cannot log in on another, and is logged out when their
+     * connection closes.
+     * @throws IOException
+     */
+    @Test
+    public void testLoggedOutOnDisconnect() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            writer.write(login("user0") + "\n");
+            writer.flush();
+            assertEquals(TransactionServer.OK, reader.readLine());
+
+            List<String> replies = send(List.of(login("user0")));
+            assertTrue(replies.get(0).startsWith("CONSTRAINT ERROR"));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            List<String> replies;
+            do {
+                replies = send(List.of(login("user0"), logout("user0")));
+            } while (!replies.get(0).equals(TransactionServer.OK));
+            assertEquals(List.of(TransactionServer.OK, TransactionServer.OK), replies);
+        });
+    }
+
+    /**
+     * Test that many connections are served at once.
+     */
+    @Test
+    public void testConcurrentConnections() {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            String username = "user" + i;
+            results.add(pool.submit(() -> {
+                List<String> codes = new ArrayList<>();
+                codes.add(login(username));
+                for (int credit = 0; credit < 100; credit++) {
+                    codes.add(addCredit(username, 1));
+                }
+                codes.add(logout(username));
+                return send(codes);
+            }));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (Future<List<String>> result: results) {
+                List<String> replies = result.get();
+                assertEquals(102, replies.size());
+                assertTrue(replies.stream().allMatch(TransactionServer.OK::equals));
+            }
+        });
+        pool.shutdown();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            assertEquals(200, User.getAllUsers().get("user" + i).getBalance());
+        }
+    }
+}
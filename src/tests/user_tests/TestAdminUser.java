@@ -7,7 +7,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import src.main.exceptions.*;
 import src.main.users.*;
 
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A test suite for the AdminUser class.
@@ -48,7 +48,7 @@ public class TestAdminUser {
      */
     @Test
     public void testDeleteUser() {
-        HashMap<String, User> allUsers = User.getAllUsers();
+        Map<String, User> allUsers = User.getAllUsers();
         assertTrue(allUsers.containsKey(u1.getUsername()));
         assertTrue(allUsers.containsKey(u2.getUsername()));
         assertTrue(allUsers.containsKey(u3.getUsername()));
@@ -127,12 +127,13 @@ public class TestAdminUser {
         assertFalse(AdminUser.isAuction());
         gaben.auctionSale();
         assertTrue(AdminUser.isAuction());
-        assertEquals(20.993, seller.getGameLibrary().get("Overwatch").getPrice());
+        // Discounted prices drop any fraction of a cent
+        assertEquals(20.99, seller.getGameLibrary().get("Overwatch").getPrice());
         assertEquals(49.99, seller.getGameLibrary().get("Overwatch 2").getPrice());
 
         // Newly made games during auctionSale should be on auctionsale too.
         seller.sell("Diablo III", 19.99, 10);
-        assertEquals(17.991, seller.getGameLibrary().get("Diablo III").getPrice());
+        assertEquals(17.99, seller.getGameLibrary().get("Diablo III").getPrice());
     }
 
     /**
@@ -0,0 +1,104 @@
+package src.tests.user_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.Game;
+import src.main.exceptions.ConstraintException;
+import src.main.users.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A test suite for the ListingIndex class.
+ */
+public class TestListingIndex {
+    ListingIndex listings;
+    AdminUser admin;
+    FullStandardUser valve, ea;
+    BuyStandardUser gordon;
+
+    /**
+     * Creates two sellers with overlapping games and a buyer.
+     */
+    @BeforeEach
+    public void setUp() throws ConstraintException {
+        User.getAllUsers().clear();
+        listings = User.getRegistry().getListings();
+        admin = new AdminUser("Admin", 0);
+        valve = new FullStandardUser("Valve", 0);
+        ea = new FullStandardUser("EA", 0);
+        gordon = new BuyStandardUser("Gordon", 1000);
+        valve.sell("Portal", 20, 50);
+        valve.sell("Half-Life", 10, 0);
+        ea.sell("Portal", 15, 0);
+        ea.sell("FIFA", 60, 10);
+        UserLoader.startNewDay();
+    }
+
+    /**
+     * Ends any auction sale.
+     */
+    @AfterEach
+    public void tearDown() {
+        while (AdminUser.isAuction()) {
+            admin.auctionSale();
+        }
+    }
+
+    private static List<String> describe(List<Game> games) {
+        return games.stream().map(game -> game.getSeller() + ":" + game.getName()).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks looking listings up by game, by seller and by price.
+     */
+    @Test
+    public void testQueries() {
+        assertEquals(4, listings.size());
+        assertEquals(List.of("Valve:Half-Life", "Valve:Portal"), describe(listings.getListingsBySeller("Valve")));
+        assertEquals(List.of("EA:Portal", "Valve:Portal"), describe(listings.getListings("Portal")));
+        assertTrue(listings.getListings("Doom").isEmpty());
+
+        assertEquals(List.of("Valve:Half-Life", "EA:Portal", "Valve:Portal"),
+                describe(listings.getListingsBetween(1000, 2000, 10)));
+        assertEquals(List.of("EA:Portal"), describe(listings.getListingsBetween(1001, 2000, 1)));
+        assertEquals(List.of("Valve:Half-Life", "EA:Portal"), describe(listings.getCheapest(2)));
+        assertEquals(List.of("EA:FIFA"), describe(listings.getMostExpensive(1)));
+        assertTrue(listings.getListingsBetween(2000, 1000, 10).isEmpty());
+    }
+
+    /**
+     * Checks that prices are discounted during an auction sale.
+     */
+    @Test
+    public void testAuctionPrices() {
+        admin.auctionSale();
+        assertTrue(AdminUser.isAuction());
+        assertEquals(List.of("Valve:Half-Life", "Valve:Portal", "EA:Portal"), describe(listings.getCheapest(3)));
+        assertEquals(List.of("Valve:Half-Life", "Valve:Portal"), describe(listings.getListingsBetween(1000, 1000, 10)));
+        assertEquals(List.of("Valve:Portal", "EA:Portal"), describe(listings.getListings("Portal")));
+    }
+
+    /**
+     * Checks that listings follow sells, removed games, bought copies and deleted users.
+     */
+    @Test
+    public void testUpdates() throws ConstraintException {
+        gordon.buy("Valve", "Portal");
+        assertEquals(2, listings.getListings("Portal").size());
+
+        valve.removeGame("Half-Life");
+        assertTrue(listings.getListingsBySeller("Valve").stream().noneMatch(game -> game.getName().equals("Half-Life")));
+
+        admin.delete("EA");
+        assertEquals(List.of("Valve:Portal"), describe(listings.getListings("Portal")));
+        assertTrue(listings.getListingsBySeller("EA").isEmpty());
+
+        valve.sell("Portal 2", 30, 0);
+        assertEquals(List.of("Valve:Portal 2"), describe(listings.getListingsBetween(3000, 3000, 10)));
+        assertEquals(2, listings.size());
+    }
+}
@@ -7,6 +7,18 @@ import src.main.users.FullStandardUser;
 import src.main.users.SellStandardUser;
 import src.main.users.User;
 import src.main.Game;
+import src.main.users.AdminUser;
+import src.main.users.BuyStandardUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,6 +88,16 @@ public class TestUser {
         assertThrows(UsernameException.class, () -> new UserForTest("TakenUsername", "Basic", 0));
     }
 
+    /**
+     * Tests that a constraint stopping a transaction reports why without capturing a stack trace.
+     */
+    @Test
+    public void testConstraintWithoutStackTrace() {
+        InvalidGameException e = assertThrows(InvalidGameException.class, () -> bob.removeGame("Not owned"));
+        assertEquals("CONSTRAINT ERROR: Game not in inventory!", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+    }
+
     /**
      * Tests removeGame based on the following properties:
      * - Game's probation
@@ -103,6 +125,27 @@ public class TestUser {
         assertThrows(InvalidGameException.class, () -> bob.removeGame("Minecraft"));
     }
 
+    /**
+     * Tests that the library view follows changes to the library and cannot be changed itself, while
+     * getGameLibrary returns a copy.
+     */
+    @Test
+    public void testGameLibraryView() throws ConstraintException {
+        FullStandardUser viewer = new FullStandardUser("Viewer", 100);
+        viewer.sell("Portal", 10, 0);
+        Map<String, Game> view = viewer.getGameLibraryView();
+        assertEquals(1, view.size());
+        assertSame(viewer.getGame("Portal"), view.get("Portal"));
+
+        viewer.sell("Portal 2", 20, 0);
+        assertTrue(view.containsKey("Portal 2"));
+        assertEquals(2, viewer.getLibraryGames().size());
+        assertThrows(UnsupportedOperationException.class, () -> view.remove("Portal"));
+
+        viewer.getGameLibrary().remove("Portal");
+        assertTrue(viewer.ownsGame("Portal"));
+    }
+
     /**
      * Tests gift based on the following properties:
      * - Game's probation
@@ -167,6 +210,52 @@ public class TestUser {
         assertTrue(bethesda.ownsGame("Skyrim"));
     }
 
+    /**
+     * Tests that a storage file saved with Java serialization by the first version of the backend is still read,
+     * and that users written with Java serialization now are read back the same.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReadBaselineStorage() throws IOException, ClassNotFoundException {
+        File storageFile = new File(System.getProperty("user.dir"), "src/tests/user_tests/baselineUserStorage");
+        HashMap<String, User> users;
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(storageFile))) {
+            users = (HashMap<String, User>) in.readObject();
+        }
+        assertBaselineUsers(users);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(users);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertBaselineUsers((HashMap<String, User>) in.readObject());
+        }
+    }
+
+    /**
+     * Checks the users saved in baselineUserStorage.
+     */
+    private static void assertBaselineUsers(Map<String, User> users) {
+        assertEquals(4, users.size());
+        assertTrue(users.get("Admin") instanceof AdminUser);
+        assertTrue(users.get("Geralt") instanceof BuyStandardUser);
+        assertTrue(users.get("Valve") instanceof SellStandardUser);
+        assertEquals(1000.00, users.get("Admin").getBalance());
+        assertEquals(32.33, users.get("CD Projekt").getBalance());
+        assertEquals(580.76, users.get("Geralt").getBalance());
+        assertEquals(250.00, users.get("Valve").getBalance());
+        assertEquals("BS", users.get("Geralt").getAccountType());
+
+        Game gwent = users.get("Geralt").getGame("Gwent");
+        assertEquals("CD Projekt", gwent.getSeller());
+        assertEquals(19.99, gwent.getOriginalPrice());
+        assertEquals(25, gwent.getDiscount());
+        assertEquals(1499, gwent.getDiscountedPriceCents());
+        assertEquals(9.99, users.get("Valve").getGame("Portal").getOriginalPrice());
+        assertEquals(1, users.get("CD Projekt").getGameLibrary().size());
+    }
+
 }
 
 /**
@@ -177,4 +266,5 @@ class UserForTest extends User {
     public UserForTest(String username, String accountType, double balance) throws UsernameException, BalanceException {
         super(username, balance, accountType);
     }
-}
\ No newline at end of file
+
+}
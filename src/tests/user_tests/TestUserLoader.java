@@ -20,7 +20,7 @@ import java.util.Map;
  */
 public class TestUserLoader {
     static ArrayList<User> temporaryAllUsers = new ArrayList<>();
-    static HashMap<String, User> userHashMap = User.getAllUsers();
+    static Map<String, User> userHashMap = User.getAllUsers();
     static SellStandardUser roadhog, junkrat, widowmaker;
     static BuyStandardUser dva, mercy, lucio, sigma, torb, zen, ashe;
     static AdminUser sombra;
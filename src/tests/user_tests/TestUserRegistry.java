@@ -0,0 +1,168 @@
+package src.tests.user_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.Game;
+import src.main.exceptions.ConstraintException;
+import src.main.observer.PersistenceMode;
+import src.main.observer.UserObserver;
+import src.main.users.*;
+import java.util.Set;
+
+/**
+ * A test suite for the UserRegistry class and the lazy loading of users by UserLoader.
+ */
+public class TestUserRegistry {
+    UserRegistry registry;
+
+    /**
+     * Saves a few users with games to the database and loads them back lazily.
+     */
+    @BeforeEach
+    public void setUp() throws ConstraintException {
+        registry = User.getRegistry();
+        registry.clear();
+        SellStandardUser seller = new SellStandardUser("Valve", 100);
+        new BuyStandardUser("Gordon", 50);
+        new BuyStandardUser("Alyx", 20);
+        seller.sell("Portal", 19.99, 0);
+        UserObserver.checkpoint();
+
+        UserLoader.setLazyLoading(true);
+        UserLoader.loadUsers();
+    }
+
+    /**
+     * Goes back to eager loading and an empty database.
+     */
+    @AfterEach
+    public void tearDown() {
+        UserLoader.setLazyLoading(false);
+        UserObserver.setPersistenceMode(PersistenceMode.SNAPSHOT);
+        registry.clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * Checks that only the users that are looked up are read from the snapshot.
+     */
+    @Test
+    public void testLoadOnLookup() {
+        assertEquals(3, registry.size());
+        assertEquals(3, registry.getUnloadedCount());
+        assertTrue(registry.containsKey("Gordon"));
+        assertFalse(registry.isLoaded("Gordon"));
+        assertFalse(registry.containsKey("Breen"));
+
+        User seller = registry.get("Valve");
+        assertEquals(100, seller.getBalance());
+        assertTrue(seller.ownsGame("Portal"));
+        assertTrue(seller.getGame("Portal").isOffProbation());
+        assertSame(seller, registry.get("Valve"));
+        assertEquals(2, registry.getUnloadedCount());
+        assertNull(registry.get("Breen"));
+    }
+
+    /**
+     * Checks that saving the database keeps users that were never looked up without loading them.
+     */
+    @Test
+    public void testSaveWithoutLoading() throws ConstraintException {
+        ((BuyStandardUser) registry.get("Gordon")).buy("Valve", "Portal");
+        assertEquals(1, registry.getUnloadedCount());
+
+        registry.clear();
+        UserLoader.loadUsers();
+        assertEquals(3, registry.size());
+        assertEquals(20, registry.get("Alyx").getBalance());
+        assertEquals(30.01, registry.get("Gordon").getBalance(), 0.001);
+        assertTrue(registry.get("Gordon").ownsGame("Portal"));
+        assertEquals(119.99, registry.get("Valve").getBalance(), 0.001);
+    }
+
+    /**
+     * Checks that a user can be deleted and created again without being loaded first.
+     */
+    @Test
+    public void testRemoveUnloaded() throws ConstraintException {
+        registry.remove("Alyx");
+        assertFalse(registry.containsKey("Alyx"));
+        assertEquals(2, registry.size());
+
+        new BuyStandardUser("Alyx", 5);
+        UserObserver.checkpoint();
+        registry.clear();
+        UserLoader.loadUsers();
+        assertEquals(5, registry.get("Alyx").getBalance());
+    }
+
+    /**
+     * Checks that journaled changes are replayed onto lazily loaded users, and that iterating loads every user.
+     */
+    @Test
+    public void testJournalReplay() throws ConstraintException {
+        UserObserver.setPersistenceMode(PersistenceMode.JOURNAL);
+        new AdminUser("Eli", 0).addCredit("Alyx", 30);
+
+        registry.clear();
+        UserLoader.loadUsers();
+        assertFalse(registry.isLoaded("Gordon"));
+        assertEquals(50, registry.get("Alyx").getBalance());
+        assertEquals(4, registry.values().size());
+        assertEquals(0, registry.getUnloadedCount());
+    }
+
+    /**
+     * Checks that the owners of each game are kept up to date as games are bought and users are deleted.
+     */
+    @Test
+    public void testOwnerIndex() throws ConstraintException {
+        // Users that have not been loaded are only searched once every user is loaded
+        assertTrue(registry.getOwners("Portal").isEmpty());
+        assertSame(registry.get("Valve"), registry.findOwner("Portal", game -> true));
+        assertEquals(0, registry.getUnloadedCount());
+        assertEquals(Set.of("Valve"), registry.getOwners("Portal"));
+
+        ((BuyStandardUser) registry.get("Gordon")).buy("Valve", "Portal");
+        assertEquals(Set.of("Valve", "Gordon"), registry.getOwners("Portal"));
+        assertSame(registry.get("Valve"), registry.findOwner("Portal", Game::isOffProbation));
+        assertNull(registry.findOwner("Half-Life 3", game -> true));
+
+        registry.remove("Valve");
+        assertEquals(Set.of("Gordon"), registry.getOwners("Portal"));
+        assertNull(registry.findOwner("Portal", Game::isOffProbation));
+        registry.clear();
+        assertTrue(registry.getOwners("Portal").isEmpty());
+    }
+
+    /**
+     * Checks that the other ways of changing a map keep unloaded users and the owners of each game up to date, and
+     * that the views of the map cannot be changed.
+     */
+    @Test
+    public void testMapMethods() {
+        User valve = registry.get("Valve");
+        assertSame(valve, registry.putIfAbsent("Valve", null));
+        assertFalse(registry.remove("Gordon", valve));
+        assertTrue(registry.containsKey("Gordon"));
+
+        assertTrue(registry.remove("Valve", valve));
+        assertTrue(registry.getOwners("Portal").isEmpty());
+        registry.computeIfAbsent("Valve", username -> valve);
+        assertEquals(Set.of("Valve"), registry.getOwners("Portal"));
+        registry.merge("Valve", valve, (previous, user) -> null);
+        assertFalse(registry.containsKey("Valve"));
+        assertTrue(registry.getOwners("Portal").isEmpty());
+
+        assertNull(registry.replace("Valve", valve));
+        assertFalse(registry.containsKey("Valve"));
+        assertThrows(UnsupportedOperationException.class, () -> registry.keySet().remove("Alyx"));
+        assertThrows(UnsupportedOperationException.class, () -> registry.values().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> registry.entrySet().iterator().next().setValue(valve));
+        assertEquals(2, registry.size());
+    }
+}
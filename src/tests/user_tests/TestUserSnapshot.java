@@ -0,0 +1,146 @@
+package src.tests.user_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import src.main.exceptions.ConstraintException;
+import src.main.observer.UserObserver;
+import src.main.users.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A test suite for the UserSnapshotWriter and UserSnapshotReader classes.
+ */
+public class TestUserSnapshot {
+    File snapshotFile;
+
+    /**
+     * Creates a few users with games to be saved in a snapshot.
+     */
+    @BeforeEach
+    public void setUp() throws ConstraintException, IOException {
+        User.getAllUsers().clear();
+        snapshotFile = File.createTempFile("snapshot", null);
+        snapshotFile.deleteOnExit();
+
+        AdminUser admin = new AdminUser("Geralt", 999999.99);
+        SellStandardUser seller = new SellStandardUser("CD Projekt", 12.34);
+        new BuyStandardUser("Ciri", 0.01);
+        seller.sell("The Witcher 3", 39.99, 12.5);
+        seller.sell("Gwent", 0, 0);
+        admin.sell("Roach", 999.99, 90);
+    }
+
+    /**
+     * Clears the users created in a test case.
+     */
+    @AfterEach
+    public void tearDown() {
+        User.getAllUsers().clear();
+        UserObserver.checkpoint();
+    }
+
+    /**
+     * Checks that every user, balance, game and the auction sale survive a snapshot.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        UserSnapshotWriter.write(snapshotFile, User.getAllUsers().values(), true);
+        User.getAllUsers().clear();
+
+        assertTrue(UserSnapshotReader.isSnapshot(snapshotFile));
+        assertEquals(3, UserSnapshotReader.read(snapshotFile));
+        assertTrue(AdminUser.isAuction());
+
+        User admin = User.getAllUsers().get("Geralt");
+        assertTrue(admin instanceof AdminUser);
+        assertEquals(999999.99, admin.getBalance());
+        assertEquals(90, admin.getGame("Roach").getDiscount());
+
+        User seller = User.getAllUsers().get("CD Projekt");
+        assertEquals(User.SELLER_TYPE, seller.getAccountType());
+        assertEquals(12.34, seller.getBalance());
+        assertEquals(39.99, seller.getGame("The Witcher 3").getOriginalPrice());
+        assertEquals(12.5, seller.getGame("The Witcher 3").getDiscount());
+        assertEquals("CD Projekt", seller.getGame("Gwent").getSeller());
+
+        assertEquals(0.01, User.getAllUsers().get("Ciri").getBalance());
+        assertTrue(User.getAllUsers().get("Ciri").getGameLibrary().isEmpty());
+
+        UserSnapshotWriter.write(snapshotFile, User.getAllUsers().values(), false);
+        User.getAllUsers().clear();
+        UserSnapshotReader.read(snapshotFile);
+        assertFalse(AdminUser.isAuction());
+    }
+
+    /**
+     * Checks that a file from a newer version of the backend is not read.
+     */
+    @Test
+    public void testUnsupportedVersion() throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(snapshotFile));
+        out.writeInt(UserSnapshotWriter.MAGIC);
+        out.writeShort(UserSnapshotWriter.VERSION + 1);
+        out.close();
+
+        assertTrue(UserSnapshotReader.isSnapshot(snapshotFile));
+        assertThrows(IOException.class, () -> UserSnapshotReader.read(snapshotFile));
+    }
+
+    /**
+     * Checks that a storage file saved with Java serialization by the first version of the backend is loaded with
+     * every user, balance and game, and rewritten as a binary snapshot.
+     */
+    @Test
+    public void testMigration() throws IOException {
+        File storageFile = new UserObserver().getStorageFile();
+        Files.copy(new File(System.getProperty("user.dir"), "src/tests/user_tests/baselineUserStorage").toPath(),
+                storageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertFalse(UserSnapshotReader.isSnapshot(storageFile));
+
+        UserLoader.loadUsers();
+        assertTrue(UserSnapshotReader.isSnapshot(storageFile));
+        assertMigratedUsers();
+
+        UserLoader.loadUsers();
+        assertMigratedUsers();
+    }
+
+    /**
+     * Checks the users saved in baselineUserStorage.
+     */
+    private static void assertMigratedUsers() {
+        assertEquals(4, User.getAllUsers().size());
+        assertTrue(User.getAllUsers().get("Admin") instanceof AdminUser);
+        assertTrue(User.getAllUsers().get("Geralt") instanceof BuyStandardUser);
+        assertEquals(32.33, User.getAllUsers().get("CD Projekt").getBalance());
+        assertEquals(580.76, User.getAllUsers().get("Geralt").getBalance());
+        assertEquals(250.00, User.getAllUsers().get("Valve").getBalance());
+        assertEquals(19.99, User.getAllUsers().get("Geralt").getGame("Gwent").getOriginalPrice());
+        assertEquals(25, User.getAllUsers().get("Geralt").getGame("Gwent").getDiscount());
+        assertTrue(User.getAllUsers().get("CD Projekt").getGame("Gwent").isOffProbation());
+        assertEquals(9.99, User.getAllUsers().get("Valve").getGame("Portal").getOriginalPrice());
+    }
+
+    /**
+     * Checks that a storage file that cannot be read is copied aside before anything can be saved over it.
+     */
+    @Test
+    public void testUnreadableStorageFile() throws IOException {
+        File storageFile = new UserObserver().getStorageFile();
+        File backup = new File(storageFile.getPath() + UserLoader.LEGACY_BACKUP_SUFFIX);
+        backup.delete();
+        byte[] contents = {(byte) 0xAC, (byte) 0xED, 0, 5, 1, 2, 3};
+        Files.write(storageFile.toPath(), contents);
+
+        UserLoader.loadUsers();
+        assertEquals(0, User.getAllUsers().size());
+        assertArrayEquals(contents, Files.readAllBytes(backup.toPath()));
+        backup.delete();
+    }
+}